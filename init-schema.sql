@@ -1229,3 +1229,476 @@ END $$;
 -- To rollback verification_tokens migration:
 -- DROP TABLE IF EXISTS pizza.verification_tokens CASCADE;
 
+
+-- ============================================================================
+-- PHASE 7.1: ELASTICSEARCH DELTA SYNC - Watermarks & Tombstones
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.1.0
+--
+-- Purpose: Incremental (updated_at based) Elasticsearch synchronization
+--
+-- Features:
+-- - updated_at on orders / users (JPA entities now map it)
+-- - BEFORE UPDATE triggers keep updated_at correct for bulk JPQL/JDBC updates
+-- - Category rename touches its products (categoryName is denormalized in ES)
+-- - AFTER DELETE triggers write tombstones so deletions reach the index
+-- - One watermark row per entity type (product, order, user)
+-- ============================================================================
+
+ALTER TABLE pizza.orders ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE pizza.users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE pizza.orders SET updated_at = COALESCE(created_at, order_date, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+UPDATE pizza.users SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+UPDATE pizza.product SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+
+-- Keyset indexes for delta sync: WHERE (updated_at, id) > (:since, :lastId)
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON pizza.product(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_updated_at ON pizza.orders(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_users_updated_at ON pizza.users(updated_at, id);
+
+-- Watermark per entity type
+CREATE TABLE IF NOT EXISTS pizza.search_sync_state (
+    entity_type VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL,
+    last_synced_count INTEGER NOT NULL DEFAULT 0,
+    last_run_at TIMESTAMP
+);
+
+-- Deleted rows waiting to be removed from Elasticsearch
+CREATE TABLE IF NOT EXISTS pizza.search_sync_tombstones (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(50) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- ============================================================================
+-- TRIGGERS
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION pizza.touch_updated_at() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION pizza.write_search_tombstone() RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO pizza.search_sync_tombstones (entity_type, entity_id) VALUES (TG_ARGV[0], OLD.id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION pizza.touch_category_products() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.name IS DISTINCT FROM OLD.name THEN
+        UPDATE pizza.product SET updated_at = CURRENT_TIMESTAMP WHERE category_id = NEW.id;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_product_touch_updated_at ON pizza.product;
+CREATE TRIGGER trg_product_touch_updated_at BEFORE UPDATE ON pizza.product
+    FOR EACH ROW EXECUTE FUNCTION pizza.touch_updated_at();
+
+DROP TRIGGER IF EXISTS trg_orders_touch_updated_at ON pizza.orders;
+CREATE TRIGGER trg_orders_touch_updated_at BEFORE UPDATE ON pizza.orders
+    FOR EACH ROW EXECUTE FUNCTION pizza.touch_updated_at();
+
+DROP TRIGGER IF EXISTS trg_users_touch_updated_at ON pizza.users;
+CREATE TRIGGER trg_users_touch_updated_at BEFORE UPDATE ON pizza.users
+    FOR EACH ROW EXECUTE FUNCTION pizza.touch_updated_at();
+
+DROP TRIGGER IF EXISTS trg_category_touch_products ON pizza.category;
+CREATE TRIGGER trg_category_touch_products AFTER UPDATE ON pizza.category
+    FOR EACH ROW EXECUTE FUNCTION pizza.touch_category_products();
+
+DROP TRIGGER IF EXISTS trg_product_tombstone ON pizza.product;
+CREATE TRIGGER trg_product_tombstone AFTER DELETE ON pizza.product
+    FOR EACH ROW EXECUTE FUNCTION pizza.write_search_tombstone('product');
+
+DROP TRIGGER IF EXISTS trg_orders_tombstone ON pizza.orders;
+CREATE TRIGGER trg_orders_tombstone AFTER DELETE ON pizza.orders
+    FOR EACH ROW EXECUTE FUNCTION pizza.write_search_tombstone('order');
+
+DROP TRIGGER IF EXISTS trg_users_tombstone ON pizza.users;
+CREATE TRIGGER trg_users_tombstone AFTER DELETE ON pizza.users
+    FOR EACH ROW EXECUTE FUNCTION pizza.write_search_tombstone('user');
+
+COMMENT ON TABLE pizza.search_sync_state IS
+'Elasticsearch delta sync watermark per entity type. Rows with updated_at > watermark are re-indexed.';
+
+COMMENT ON TABLE pizza.search_sync_tombstones IS
+'Deleted rows pending removal from Elasticsearch. Consumed (deleted) by the delta sync job.';
+
+-- ============================================================================
+-- ROLLBACK (if needed)
+-- ============================================================================
+
+-- DROP TRIGGER IF EXISTS trg_product_tombstone ON pizza.product;
+-- DROP TRIGGER IF EXISTS trg_orders_tombstone ON pizza.orders;
+-- DROP TRIGGER IF EXISTS trg_users_tombstone ON pizza.users;
+-- DROP TRIGGER IF EXISTS trg_category_touch_products ON pizza.category;
+-- DROP TRIGGER IF EXISTS trg_product_touch_updated_at ON pizza.product;
+-- DROP TRIGGER IF EXISTS trg_orders_touch_updated_at ON pizza.orders;
+-- DROP TRIGGER IF EXISTS trg_users_touch_updated_at ON pizza.users;
+-- DROP TABLE IF EXISTS pizza.search_sync_tombstones;
+-- DROP TABLE IF EXISTS pizza.search_sync_state;
+
+-- ============================================================================
+-- PHASE 7.2: SEARCH INDEX QUEUE - Dead Letters
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.2.0
+--
+-- Purpose: Index writes that failed permanently (non-retryable error or
+-- max attempts exceeded) in the async coalescing index queue.
+-- Replayed via POST /api/admin/search-index/dead-letters/replay
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS pizza.search_index_dead_letters (
+    id BIGSERIAL PRIMARY KEY,
+    index_name VARCHAR(100) NOT NULL,
+    document_id VARCHAR(100) NOT NULL,
+    operation VARCHAR(20) NOT NULL,          -- UPSERT, DELETE
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_index_dead_letters_index_doc
+ON pizza.search_index_dead_letters(index_name, document_id);
+
+COMMENT ON TABLE pizza.search_index_dead_letters IS
+'Permanently failed Elasticsearch index writes. Replay re-reads the current DB row and re-queues it.';
+
+-- To rollback:
+-- DROP TABLE IF EXISTS pizza.search_index_dead_letters;
+
+-- ============================================================================
+-- PHASE 7.3: SEARCH ANALYTICS - Hourly Rollups
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.3.0
+--
+-- Purpose: Pre-aggregated search analytics, one row per (hour, app instance).
+-- Streamed from the search log writer; /api/admin/analytics/search merges
+-- these rows instead of scanning raw search_logs.
+--   unique_queries_hll       HyperLogLog registers (precision 12, 4 KB)
+--   response_time_histogram  HdrHistogram, compressed encoding
+--   top_queries              Space-Saving top-K counters (JSON)
+--   zero_result_queries      Space-Saving top-K counters (JSON)
+--   category_counts          categoryId -> search count (JSON)
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS pizza.search_analytics_rollups (
+    bucket_start TIMESTAMP NOT NULL,
+    instance_id VARCHAR(64) NOT NULL,
+    total_searches BIGINT NOT NULL DEFAULT 0,
+    zero_result_searches BIGINT NOT NULL DEFAULT 0,
+    result_count_sum BIGINT NOT NULL DEFAULT 0,
+    response_time_sum BIGINT NOT NULL DEFAULT 0,
+    min_response_ms BIGINT,
+    max_response_ms BIGINT,
+    unique_queries_hll BYTEA NOT NULL,
+    response_time_histogram BYTEA NOT NULL,
+    top_queries TEXT NOT NULL DEFAULT '[]',
+    zero_result_queries TEXT NOT NULL DEFAULT '[]',
+    category_counts TEXT NOT NULL DEFAULT '{}',
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (bucket_start, instance_id)
+);
+
+COMMENT ON TABLE pizza.search_analytics_rollups IS
+'Hourly search analytics sketches per application instance. Merged at read time.';
+
+-- To rollback:
+-- DROP TABLE IF EXISTS pizza.search_analytics_rollups;
+
+-- ============================================================================
+-- PHASE 7.4: SEARCH LOGS - Monthly Partitions & User-Agent Dimension
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.4.0
+--
+-- Purpose: Stop search_logs cost from scaling with total history.
+--   - search_logs becomes RANGE partitioned by created_at (one partition per
+--     month, named search_logs_pYYYY_MM). Retention drops whole partitions
+--     (SearchLogPartitionManager), no DELETE / VACUUM churn.
+--   - Repeated User-Agent strings are interned into search_user_agents and
+--     referenced by user_agent_id.
+--   - The query / category_id / created_at B-tree indexes and the FKs are
+--     dropped: analytics reads hourly rollups (PHASE 7.3), raw logs are only
+--     scanned by time range, which a BRIN index on created_at covers.
+-- Existing rows are copied into the partitioned table; ids are preserved.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS pizza.search_user_agents (
+    id SERIAL PRIMARY KEY,
+    user_agent VARCHAR(500) NOT NULL UNIQUE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE pizza.search_user_agents IS
+'Interned User-Agent strings referenced by search_logs.user_agent_id.';
+
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE;
+BEGIN
+    -- Already partitioned: nothing to migrate
+    IF EXISTS (
+        SELECT 1 FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+        WHERE n.nspname = 'pizza' AND c.relname = 'search_logs' AND c.relkind = 'p'
+    ) THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE pizza.search_logs RENAME TO search_logs_legacy;
+
+    CREATE TABLE pizza.search_logs (
+        id BIGINT NOT NULL DEFAULT nextval('pizza.search_logs_id_seq'),
+        query VARCHAR(500) NOT NULL,
+        result_count INTEGER NOT NULL,
+        search_type VARCHAR(50),
+        user_id BIGINT,
+        category_id BIGINT,
+        min_price DECIMAL(10,2),
+        max_price DECIMAL(10,2),
+        ip_address VARCHAR(45),
+        user_agent_id INTEGER,
+        response_time_ms BIGINT,
+        created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        PRIMARY KEY (id, created_at)
+    ) PARTITION BY RANGE (created_at);
+
+    -- Monthly partitions: oldest legacy month .. current month + 2
+    SELECT date_trunc('month', COALESCE(MIN(created_at), CURRENT_TIMESTAMP))::DATE
+    INTO month_start
+    FROM pizza.search_logs_legacy;
+    last_month := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '2 months')::DATE;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS pizza.%I PARTITION OF pizza.search_logs FOR VALUES FROM (%L) TO (%L)',
+            'search_logs_p' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+
+    -- Safety net for rows outside pre-created months (partition manager lagging)
+    CREATE TABLE IF NOT EXISTS pizza.search_logs_default PARTITION OF pizza.search_logs DEFAULT;
+
+    INSERT INTO pizza.search_user_agents (user_agent)
+    SELECT DISTINCT user_agent FROM pizza.search_logs_legacy WHERE user_agent IS NOT NULL
+    ON CONFLICT (user_agent) DO NOTHING;
+
+    INSERT INTO pizza.search_logs (id, query, result_count, search_type, user_id, category_id,
+                                   min_price, max_price, ip_address, user_agent_id, response_time_ms, created_at)
+    SELECT l.id, l.query, l.result_count, l.search_type, l.user_id, l.category_id,
+           l.min_price, l.max_price, l.ip_address, ua.id, l.response_time_ms,
+           COALESCE(l.created_at, CURRENT_TIMESTAMP)
+    FROM pizza.search_logs_legacy l
+    LEFT JOIN pizza.search_user_agents ua ON ua.user_agent = l.user_agent;
+
+    ALTER SEQUENCE pizza.search_logs_id_seq OWNED BY pizza.search_logs.id;
+    DROP TABLE pizza.search_logs_legacy;
+END $$;
+
+-- Base schema re-runs would recreate these on the partitioned table
+DROP INDEX IF EXISTS pizza.idx_search_logs_query;
+DROP INDEX IF EXISTS pizza.idx_search_logs_created_at;
+DROP INDEX IF EXISTS pizza.idx_search_logs_category_id;
+
+CREATE INDEX IF NOT EXISTS idx_search_logs_created_brin
+ON pizza.search_logs USING BRIN (created_at);
+
+COMMENT ON TABLE pizza.search_logs IS
+'Raw search events, monthly RANGE partitions on created_at. Retention = DROP PARTITION.';
+
+-- To rollback (data in partitions older than retention is already gone):
+-- CREATE TABLE pizza.search_logs_flat (LIKE pizza.search_logs INCLUDING DEFAULTS);
+-- INSERT INTO pizza.search_logs_flat SELECT * FROM pizza.search_logs;
+-- DROP TABLE pizza.search_logs; ALTER TABLE pizza.search_logs_flat RENAME TO search_logs;
+-- DROP TABLE IF EXISTS pizza.search_user_agents;
+
+-- ============================================================================
+-- PHASE 7.5: DATABASE SEARCH BACKEND - pg_trgm & Turkish Full-Text
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.5.0
+--
+-- Purpose: Make the LIKE-based searches (searchByName / searchByEmail,
+-- /api/category/search/db) index-backed, and provide a PostgreSQL search
+-- backend that can replace Elasticsearch per entity (search.backend.*).
+--   - GIN trigram indexes on lower(column) serve LOWER(x) LIKE '%...%' as
+--     written by the existing JPQL queries, plus typo-tolerant word
+--     similarity matching (<% operator).
+--   - product.search_vector: generated tsvector using the 'turkish' snowball
+--     configuration (name weighted A, description B), so "pizzalar" matches
+--     "pizza". Kept up to date by PostgreSQL, no trigger or app code.
+-- Trigram indexes only help for search terms of 3+ characters.
+-- ============================================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE pizza.product
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('turkish', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('turkish', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_products_search_vector
+ON pizza.product USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+ON pizza.product USING GIN (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_category_name_trgm
+ON pizza.category USING GIN (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm
+ON pizza.users USING GIN (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_surname_trgm
+ON pizza.users USING GIN (lower(surname) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+ON pizza.users USING GIN (lower(email) gin_trgm_ops);
+
+COMMENT ON COLUMN pizza.product.search_vector IS
+'Generated Turkish full-text vector (name A, description B) for the PostgreSQL search backend.';
+
+-- To rollback:
+-- DROP INDEX IF EXISTS pizza.idx_users_email_trgm;
+-- DROP INDEX IF EXISTS pizza.idx_users_surname_trgm;
+-- DROP INDEX IF EXISTS pizza.idx_users_name_trgm;
+-- DROP INDEX IF EXISTS pizza.idx_category_name_trgm;
+-- DROP INDEX IF EXISTS pizza.idx_products_name_trgm;
+-- DROP INDEX IF EXISTS pizza.idx_products_search_vector;
+-- ALTER TABLE pizza.product DROP COLUMN IF EXISTS search_vector;
+
+-- ============================================================================
+-- PHASE 7.6: ORDER SEARCH DOCUMENTS - Payment Changes Re-sync Orders
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.6.0
+--
+-- Purpose: OrderDocument now carries payment method/status, line items and
+-- delivery city/district. Payment rows are updated on their own (3DS, refund,
+-- failure) without touching the order, so the delta sync (orders.updated_at
+-- watermark, PHASE 7.1) would miss them. This trigger bumps the parent
+-- order's updated_at on payment insert/update.
+-- Existing "orders" indexes are upgraded (mapping + full reindex) by the
+-- application on startup.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION pizza.touch_payment_order() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE pizza.orders SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.order_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_payment_touch_order ON pizza.payment;
+CREATE TRIGGER trg_payment_touch_order AFTER INSERT OR UPDATE ON pizza.payment
+    FOR EACH ROW EXECUTE FUNCTION pizza.touch_payment_order();
+
+-- To rollback:
+-- DROP TRIGGER IF EXISTS trg_payment_touch_order ON pizza.payment;
+-- DROP FUNCTION IF EXISTS pizza.touch_payment_order();
+
+-- ============================================================================
+-- PHASE 7.7: CACHED AUTHENTICATION - Per-User Security Version
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.7.0
+--
+-- Purpose: Authenticated requests resolve their UserPrincipal from a
+-- node-local cache instead of a users SELECT per request. security_version
+-- is incremented on role, status and password changes; cached principals
+-- older than the latest version are reloaded on every node (Redis pub/sub).
+-- ============================================================================
+
+ALTER TABLE pizza.users ADD COLUMN IF NOT EXISTS security_version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN pizza.users.security_version IS
+'Incremented on role/status/password change; invalidates cached principals.';
+
+-- To rollback:
+-- ALTER TABLE pizza.users DROP COLUMN IF EXISTS security_version;
+
+-- ============================================================================
+-- PHASE 7.8: REFRESH TOKENS - Hashed Storage & Atomic Rotation
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.8.0
+--
+-- Purpose: Refresh tokens are stored only as SHA-256 hashes (fixed-width
+-- 32 byte bytea) instead of plaintext UUID strings. Rotation consumes the
+-- old token with a single DELETE ... WHERE token_hash = ? AND revoked = false
+-- RETURNING *, so two concurrent refreshes of the same token cannot both
+-- succeed. Existing tokens are hashed in place and remain valid.
+-- ============================================================================
+
+ALTER TABLE pizza.refresh_tokens ADD COLUMN IF NOT EXISTS token_hash BYTEA;
+
+UPDATE pizza.refresh_tokens
+SET token_hash = sha256(convert_to(token, 'UTF8'))
+WHERE token_hash IS NULL;
+
+ALTER TABLE pizza.refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE pizza.refresh_tokens ADD CONSTRAINT chk_refresh_tokens_token_hash_length
+    CHECK (octet_length(token_hash) = 32);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_refresh_tokens_token_hash
+ON pizza.refresh_tokens(token_hash);
+
+-- Plaintext tokens are no longer stored
+DROP INDEX IF EXISTS pizza.idx_refresh_tokens_token;
+ALTER TABLE pizza.refresh_tokens DROP COLUMN IF EXISTS token;
+
+COMMENT ON COLUMN pizza.refresh_tokens.token_hash IS
+'SHA-256 of the refresh token. The raw token is only returned to the client.';
+
+-- To rollback (plaintext tokens cannot be recovered; all sessions must log in again):
+-- DELETE FROM pizza.refresh_tokens;
+-- ALTER TABLE pizza.refresh_tokens ADD COLUMN token VARCHAR(255) NOT NULL UNIQUE;
+-- CREATE INDEX idx_refresh_tokens_token ON pizza.refresh_tokens(token);
+-- ALTER TABLE pizza.refresh_tokens DROP COLUMN IF EXISTS token_hash;
+
+-- ============================================================================
+-- PHASE 7.9: TOKEN MAINTENANCE - Scheduler Leases & Chunked Purge
+-- ============================================================================
+-- Date: 18 Ekim 2026
+-- Version: 7.9.0
+--
+-- Purpose: Expired/revoked refresh tokens and expired verification tokens
+-- are purged in the background in small ctid-bounded chunks
+-- (TokenPurgeScheduler). scheduler_leases makes sure only one instance runs
+-- a given job; a lease expires on its own if its holder dies.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS pizza.scheduler_leases (
+    name VARCHAR(100) PRIMARY KEY,
+    owner VARCHAR(255) NOT NULL,
+    lease_until TIMESTAMP NOT NULL
+);
+
+COMMENT ON TABLE pizza.scheduler_leases IS
+'Time-bounded leases for scheduled jobs that must run on a single instance.';
+
+-- Revoked tokens have no usable index otherwise (purge chunks would seq scan)
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_revoked
+ON pizza.refresh_tokens(id) WHERE revoked = true;
+
+-- To rollback:
+-- DROP INDEX IF EXISTS pizza.idx_refresh_tokens_revoked;
+-- DROP TABLE IF EXISTS pizza.scheduler_leases;
@@ -0,0 +1,185 @@
+package com.example.pizza.config.elasticsearch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Elasticsearch çağrıları için basit circuit breaker
+ *
+ * Son N çağrının sonucunu (başarılı / yavaş / hatalı) sliding window içinde tutar.
+ * Hata oranı veya yavaş çağrı oranı eşiği aştığında devre AÇILIR ve çağrılar
+ * doğrudan fallback'e (in-memory index) yönlendirilir. open-duration-ms sonunda
+ * tek bir deneme (HALF_OPEN) çağrısı ES'e gider; başarılıysa devre kapanır.
+ *
+ * Konfigürasyon (elasticsearch.search.fallback.*):
+ * - enabled: Fallback aktif mi (default: true)
+ * - window-size: Sliding window boyutu (default: 20)
+ * - minimum-calls: Oran hesaplanmadan önceki minimum çağrı sayısı (default: 5)
+ * - failure-rate-threshold: Hata oranı eşiği, % (default: 50)
+ * - slow-call-threshold-ms: Bu sürenin üstündeki çağrılar yavaş sayılır (default: 800)
+ * - slow-call-rate-threshold: Yavaş çağrı oranı eşiği, % (default: 50)
+ * - open-duration-ms: Devrenin açık kalma süresi (default: 30000)
+ */
+@Slf4j
+@Component
+public class ElasticsearchCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte OUTCOME_SUCCESS = 0;
+    private static final byte OUTCOME_SLOW = 1;
+    private static final byte OUTCOME_FAILURE = 2;
+
+    @Value("${elasticsearch.search.fallback.enabled:true}")
+    private boolean enabled;
+
+    @Value("${elasticsearch.search.fallback.window-size:20}")
+    private int windowSize;
+
+    @Value("${elasticsearch.search.fallback.minimum-calls:5}")
+    private int minimumCalls;
+
+    @Value("${elasticsearch.search.fallback.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${elasticsearch.search.fallback.slow-call-threshold-ms:800}")
+    private long slowCallThresholdMs;
+
+    @Value("${elasticsearch.search.fallback.slow-call-rate-threshold:50}")
+    private int slowCallRateThreshold;
+
+    @Value("${elasticsearch.search.fallback.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    private final AtomicBoolean probeInFlight = new AtomicBoolean(false);
+
+    // Sliding window state (guarded by this)
+    private byte[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+
+    /**
+     * Primary (ES) çağrısını devre durumuna göre çalıştırır, gerekirse fallback döner.
+     * Devre kapalıyken alınan hata da fallback ile karşılanır; istek hata ile bitmez.
+     */
+    public <T> T execute(Supplier<T> primary, Supplier<T> fallback) {
+        if (!enabled) {
+            return primary.get();
+        }
+
+        boolean probe = false;
+        if (state != State.CLOSED) {
+            if (!tryAcquireProbe()) {
+                return fallback.get();
+            }
+            probe = true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = primary.get();
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            onResult(elapsedMs > slowCallThresholdMs ? OUTCOME_SLOW : OUTCOME_SUCCESS, probe);
+            return result;
+        } catch (RuntimeException e) {
+            log.warn("Elasticsearch call failed, serving fallback: {}", e.getMessage());
+            onResult(OUTCOME_FAILURE, probe);
+            return fallback.get();
+        } finally {
+            if (probe) {
+                probeInFlight.set(false);
+            }
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // ============================================================================
+    // STATE TRANSITIONS
+    // ============================================================================
+
+    private boolean tryAcquireProbe() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            log.info("Elasticsearch circuit HALF_OPEN - probing");
+        }
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    private synchronized void onResult(byte outcome, boolean probe) {
+        if (probe) {
+            if (outcome == OUTCOME_FAILURE) {
+                open("probe failed");
+            } else {
+                resetWindow();
+                state = State.CLOSED;
+                log.info("Elasticsearch circuit CLOSED - probe succeeded");
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+
+        record(outcome);
+        if (recorded < minimumCalls) {
+            return;
+        }
+
+        int failureRate = failures * 100 / recorded;
+        int slowRate = slowCalls * 100 / recorded;
+        if (failureRate >= failureRateThreshold) {
+            open("failure rate " + failureRate + "%");
+        } else if (slowRate >= slowCallRateThreshold) {
+            open("slow call rate " + slowRate + "%");
+        }
+    }
+
+    private void record(byte outcome) {
+        if (outcomes == null) {
+            outcomes = new byte[Math.max(1, windowSize)];
+        }
+        if (recorded == outcomes.length) {
+            byte evicted = outcomes[position];
+            if (evicted == OUTCOME_FAILURE) failures--;
+            if (evicted == OUTCOME_SLOW) slowCalls--;
+        } else {
+            recorded++;
+        }
+        outcomes[position] = outcome;
+        position = (position + 1) % outcomes.length;
+        if (outcome == OUTCOME_FAILURE) failures++;
+        if (outcome == OUTCOME_SLOW) slowCalls++;
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        resetWindow();
+        log.warn("Elasticsearch circuit OPEN ({}) - routing search to in-memory index for {} ms",
+                reason, openDurationMs);
+    }
+
+    private void resetWindow() {
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
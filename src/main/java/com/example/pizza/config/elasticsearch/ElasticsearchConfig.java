@@ -1,15 +1,23 @@
 package com.example.pizza.config.elasticsearch;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
+import co.elastic.clients.transport.rest_client.RestClientOptions;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
 import org.springframework.data.elasticsearch.repository.config.EnableElasticsearchRepositories;
 
 @Slf4j
@@ -17,6 +25,9 @@ import org.springframework.data.elasticsearch.repository.config.EnableElasticsea
 @EnableElasticsearchRepositories(basePackages = "com.example.pizza.repository.search")
 public class ElasticsearchConfig {
 
+    /** Arama okumaları için ElasticsearchOperations (per-request search timeout'ları ile) */
+    public static final String SEARCH_OPERATIONS = "searchElasticsearchOperations";
+
     @Value("${spring.elasticsearch.uris}")
     private String elasticsearchUri;
 
@@ -29,11 +40,32 @@ public class ElasticsearchConfig {
     @Value("${elasticsearch.sync.enabled:true}")
     private boolean syncEnabled;
 
+    @Value("${elasticsearch.client.max-connections:60}")
+    private int maxConnections;
+
+    @Value("${elasticsearch.client.max-connections-per-route:30}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${elasticsearch.client.io-threads:2}")
+    private int ioThreads;
+
+    @Value("${elasticsearch.client.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${elasticsearch.search.request-timeout-ms:2000}")
+    private int searchRequestTimeoutMs;
+
+    @Value("${elasticsearch.search.connection-request-timeout-ms:200}")
+    private int searchConnectionRequestTimeoutMs;
+
     /**
      * Creates RestClient bean for low-level Elasticsearch communication
      *
      * Best Practices:
-     * - Connection pooling (default: 30 connections per route)
+     * - Connection pooling: toplam ve route başına limit açıkça boyutlandırılır
+     *   (elasticsearch.client.max-connections / max-connections-per-route)
+     * - Az sayıda IO reactor thread'i: istekler non-blocking gönderilir, thread başına bağlantı yok
+     * - Request/response gzip sıkıştırma (elasticsearch.client.compression-enabled)
      * - Configurable timeouts
      * - Supports authentication (if needed)
      * - Health check ready
@@ -56,6 +88,7 @@ public class ElasticsearchConfig {
             log.debug("Elasticsearch connection details - Host: {}, Port: {}, Scheme: {}", host, port, scheme);
 
             RestClient client = RestClient.builder(new HttpHost(host, port, scheme))
+                    .setCompressionEnabled(compressionEnabled)
                     .setRequestConfigCallback(requestConfigBuilder ->
                             requestConfigBuilder
                                     .setConnectTimeout(parseTimeoutToMillis(connectionTimeout))
@@ -66,11 +99,17 @@ public class ElasticsearchConfig {
                         // credentialsProvider.setCredentials(AuthScope.ANY,
                         //     new UsernamePasswordCredentials("username", "password"));
                         // return httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
-                        return httpClientBuilder;
+                        return httpClientBuilder
+                                .setMaxConnTotal(maxConnections)
+                                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                                .setDefaultIOReactorConfig(IOReactorConfig.custom()
+                                        .setIoThreadCount(ioThreads)
+                                        .build());
                     })
                     .build();
 
-            log.info("Elasticsearch RestClient initialized successfully");
+            log.info("Elasticsearch RestClient initialized successfully (maxConn={}, perRoute={}, ioThreads={}, "
+                    + "compression={})", maxConnections, maxConnectionsPerRoute, ioThreads, compressionEnabled);
             return client;
 
         } catch (Exception e) {
@@ -104,6 +143,52 @@ public class ElasticsearchConfig {
         return client;
     }
 
+    /**
+     * Varsayılan ElasticsearchOperations: indexleme, sync, drift kontrolü ve repository'ler
+     * (Spring Boot'un otomatik oluşturduğu template ile aynı; arama template'i eklendiği için açıkça tanımlanır)
+     */
+    @Bean
+    @Primary
+    public ElasticsearchTemplate elasticsearchTemplate(ElasticsearchClient elasticsearchClient,
+                                                       ElasticsearchConverter elasticsearchConverter) {
+        return new ElasticsearchTemplate(elasticsearchClient, elasticsearchConverter);
+    }
+
+    /**
+     * Arama ve öneri endpoint'leri için async client (aynı transport ve connection pool)
+     *
+     * Çağrılar CompletableFuture döner; ES yanıtı beklenirken hiçbir thread bloklanmaz.
+     * Per-request timeout'lar: havuzdan bağlantı bekleme (connection-request-timeout-ms)
+     * ve yanıt bekleme (request-timeout-ms). Sipariş/ödeme akışları bu timeout'lardan etkilenmez.
+     */
+    @Bean
+    public ElasticsearchAsyncClient elasticsearchAsyncClient(ElasticsearchTransport transport) {
+        return new ElasticsearchAsyncClient(transport, new RestClientOptions(searchRequestOptions()));
+    }
+
+    /**
+     * searchTaskExecutor'da çalışan sync arama okumaları (ürün/facet/_msearch, kategori araması) için
+     * async client ile aynı per-request timeout'lara sahip template. Varsayılan 30s socket timeout
+     * yerine request-timeout-ms sonunda çağrı kesilir ve executor thread'i serbest kalır
+     * (SearchRequestExecutor'daki orTimeout sadece future'ı sonlandırır, thread'i değil).
+     */
+    @Bean(SEARCH_OPERATIONS)
+    public ElasticsearchTemplate searchElasticsearchOperations(ElasticsearchTransport transport,
+                                                               ElasticsearchConverter elasticsearchConverter) {
+        ElasticsearchClient searchClient = new ElasticsearchClient(transport, new RestClientOptions(searchRequestOptions()));
+        return new ElasticsearchTemplate(searchClient, elasticsearchConverter);
+    }
+
+    private RequestOptions searchRequestOptions() {
+        return RequestOptions.DEFAULT.toBuilder()
+                .setRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(parseTimeoutToMillis(connectionTimeout))
+                        .setConnectionRequestTimeout(searchConnectionRequestTimeoutMs)
+                        .setSocketTimeout(searchRequestTimeoutMs)
+                        .build())
+                .build();
+    }
+
     private int parseTimeoutToMillis(String timeout) {
         if (timeout.endsWith("s")) {
             return Integer.parseInt(timeout.replace("s", "")) * 1000;
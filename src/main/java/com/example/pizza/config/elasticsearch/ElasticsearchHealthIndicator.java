@@ -14,6 +14,7 @@ import org.springframework.stereotype.Component;
 public class ElasticsearchHealthIndicator implements HealthIndicator {
 
     private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchCircuitBreaker elasticsearchCircuitBreaker;
 
     @Override
     public Health health() {
@@ -77,6 +78,7 @@ public class ElasticsearchHealthIndicator implements HealthIndicator {
                     .withDetail("relocatingShards", relocatingShards)
                     .withDetail("initializingShards", initializingShards)
                     .withDetail("unassignedShards", unassignedShards)
+                    .withDetail("searchCircuit", elasticsearchCircuitBreaker.getState())
                     .build();
 
         } catch (Exception e) {
@@ -84,6 +86,7 @@ public class ElasticsearchHealthIndicator implements HealthIndicator {
             return Health.down()
                     .withDetail("error", e.getMessage())
                     .withDetail("errorType", e.getClass().getSimpleName())
+                    .withDetail("searchCircuit", elasticsearchCircuitBreaker.getState())
                     .build();
         }
     }
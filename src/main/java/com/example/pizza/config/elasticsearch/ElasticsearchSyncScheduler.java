@@ -0,0 +1,32 @@
+package com.example.pizza.config.elasticsearch;
+
+import com.example.pizza.service.logic.SearchIndexSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Elasticsearch delta sync zamanlayıcısı
+ *
+ * elasticsearch.sync.schedule.enabled=true ise elasticsearch.sync.schedule.cron
+ * ifadesine göre SearchIndexSyncService.syncAll() çalıştırılır.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "elasticsearch.sync.schedule.enabled", havingValue = "true")
+public class ElasticsearchSyncScheduler {
+
+    private final SearchIndexSyncService searchIndexSyncService;
+
+    @Scheduled(cron = "${elasticsearch.sync.schedule.cron:0 */5 * * * ?}")
+    public void runDeltaSync() {
+        try {
+            searchIndexSyncService.syncAll();
+        } catch (Exception e) {
+            log.error("Scheduled Elasticsearch delta sync failed", e);
+        }
+    }
+}
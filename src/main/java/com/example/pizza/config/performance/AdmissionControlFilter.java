@@ -0,0 +1,123 @@
+package com.example.pizza.config.performance;
+
+import com.example.pizza.logic.admission.AdmissionController;
+import com.example.pizza.logic.admission.EndpointClass;
+import com.example.pizza.logic.admission.GradientConcurrencyLimit;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control: aşırı yükte düşük öncelikli endpoint sınıflarını hızlı 503 ile reddeder
+ *
+ * - Security filter chain'den önce çalışır: reddedilen istek token doğrulama, DB veya thread maliyeti üretmez
+ * - Sınıflandırma EndpointClass.classify, karar AdmissionController (sınıf başına adaptif limit + öncelik)
+ * - Async istekler (search endpoint'leri) slotu async tamamlanana kadar tutar; süre de o ana kadar ölçülür
+ * - Ret: 503 + Retry-After, hazır JSON gövde; /api dışı yollar (actuator, upload) kontrol edilmez
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final byte[] OVERLOADED_BODY = ("{\"error\": \"Service Unavailable\", "
+            + "\"message\": \"Server is busy. Please retry shortly.\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final AdmissionController admissionController;
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(AdmissionController admissionController,
+                                  @Value("${admission.enabled:true}") boolean enabled,
+                                  @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.admissionController = admissionController;
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        EndpointClass endpointClass = EndpointClass.classify(request.getMethod(), request.getRequestURI());
+        GradientConcurrencyLimit limit = admissionController.tryAdmit(endpointClass);
+        if (limit == null) {
+            reject(response);
+            log.debug("Shed {} request {} (overloaded)", endpointClass, request.getRequestURI());
+            return;
+        }
+
+        long start = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limit, start, released));
+            } else if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(OVERLOADED_BODY.length);
+        response.getOutputStream().write(OVERLOADED_BODY);
+    }
+
+    /**
+     * Async isteğin slotunu tamamlanma, hata veya timeout'ta bir kez bırakır
+     */
+    private record ReleasingListener(GradientConcurrencyLimit limit, long start, AtomicBoolean released)
+            implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this); // Yeniden başlatılan async'te dinlemeye devam et
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+}
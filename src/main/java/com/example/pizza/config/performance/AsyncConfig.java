@@ -2,6 +2,7 @@ package com.example.pizza.config.performance;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -10,6 +11,7 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  *
@@ -83,6 +85,36 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Arama endpoint'leri için bulkhead executor
+     * - Tomcat thread'i hemen serbest kalır; ES yavaşladığında sadece bu havuz dolar
+     * - Havuz + kuyruk doluysa görev reddedilir (AbortPolicy) ve istek 503 ile biter,
+     *   sipariş/ödeme istekleri için thread tükenmez
+     */
+    @Bean(name = "searchTaskExecutor")
+    public ThreadPoolTaskExecutor searchTaskExecutor(
+            @Value("${search.executor.core-pool-size:4}") int corePoolSize,
+            @Value("${search.executor.max-pool-size:16}") int maxPoolSize,
+            @Value("${search.executor.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("search-");
+        executor.setKeepAliveSeconds(60);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+
+        executor.initialize();
+
+        log.info("Search Task Executor initialized: core={}, max={}, queue={}",
+                corePoolSize, maxPoolSize, queueCapacity);
+
+        return executor;
+    }
 
     @Override
     public Executor getAsyncExecutor() {
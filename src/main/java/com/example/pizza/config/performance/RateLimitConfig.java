@@ -1,26 +1,62 @@
 package com.example.pizza.config.performance;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import lombok.Getter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Rate limit ayarları (app.rate-limit.*)
+ *
+ * Bucket'lar burada değil RateLimiter'da tutulur (boyut ve boşta kalma süresiyle sınırlı store).
+ * endpoints anahtarları route şablonudur: "/api/orders" hem kendisini hem alt yollarını ("/api/orders/123")
+ * kapsar; "/api/orders/{id}/items" gibi şablonlar da yazılabilir. Birden fazla eşleşmede en spesifik olan kullanılır.
+ */
 @Configuration
 @ConfigurationProperties(prefix = "app.rate-limit")
 @Getter
 public class RateLimitConfig {
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
     private boolean enabled = true;
     private int capacity = 100;
     private int refillTokens = 100;
     private long refillDurationMinutes = 1;
 
+    /**
+     * local: bucket'lar node başına (N replica = N x limit)
+     * distributed: bucket'lar Redis'te, tüm node'lar paylaşır; node'lar küçük token lease'leri alır
+     */
+    private Mode mode = Mode.LOCAL;
+
+    /** Dağıtık modda bir Redis çağrısında alınan en fazla token (limit bu kadar sapabilir) */
+    private int leaseSize = 5;
+
+    /** Kullanılmayan lease token'larının yerelde geçerli kalma süresi */
+    private long leaseTtlMillis = 1000;
+
+    /**
+     * Redis hatasından sonra bu süre boyunca Redis denenmez, doğrudan yerel bucket kullanılır:
+     * kesinti sırasında her istek Redis timeout'unu (anahtar kilidi tutulurken) beklemez
+     */
+    private long redisRetryMillis = 2000;
+
+    /** Bellekte tutulan en fazla bucket (istemci x route); aşılırsa en az kullanılanlar atılır */
+    private long maxBuckets = 100_000;
+
+    /**
+     * Bu süre boyunca kullanılmayan bucket atılır. Refill süresinden uzun olmalı:
+     * o kadar boşta kalan bucket zaten dolmuştur, atmak limiti değiştirmez.
+     */
+    private long idleTimeoutMinutes = 5;
+
+    /**
+     * İstemci anahtarlarını (kullanıcı adı / IP) hash'leyen HMAC secret'ı. Dağıtık modda tüm node'larda
+     * aynı olmalı (Redis bucket'ları paylaşılır) ve boş bırakılırsa uygulama açılmaz; yerel modda boşsa
+     * açılışta rastgele, process'e özel bir secret üretilir.
+     */
+    private String keySecret;
+
     private Map<String, EndpointLimit> endpoints = Map.of(
             "/api/auth/login", new EndpointLimit(10, 1),
             "/api/auth/register", new EndpointLimit(5, 1),
@@ -29,32 +65,6 @@ public class RateLimitConfig {
             "/api/category", new EndpointLimit(200, 1)
     );
 
-    public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket(capacity, refillTokens, refillDurationMinutes));
-    }
-
-    public Bucket resolveBucket(String key, String endpoint) {
-        EndpointLimit limit = endpoints.get(endpoint);
-        if (limit != null) {
-            String bucketKey = key + ":" + endpoint;
-            return cache.computeIfAbsent(bucketKey,
-                    k -> createNewBucket(limit.getCapacity(), limit.getCapacity(), limit.getRefillMinutes()));
-        }
-        return resolveBucket(key);
-    }
-
-
-    private Bucket createNewBucket(int capacity, int refillTokens, long refillMinutes) {
-        Bandwidth limit = Bandwidth.builder()
-                .capacity(capacity)
-                .refillGreedy(refillTokens, Duration.ofMinutes(refillMinutes))
-                .build();
-
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
-    }
-
     public EndpointLimit getEndpointLimit(String endpoint) {
         return endpoints.get(endpoint);
     }
@@ -63,6 +73,15 @@ public class RateLimitConfig {
         return enabled;
     }
 
+    public boolean isDistributed() {
+        return mode == Mode.DISTRIBUTED;
+    }
+
+    public enum Mode {
+        LOCAL,
+        DISTRIBUTED
+    }
+
     @Getter
     public static class EndpointLimit {
         private final int capacity;
@@ -93,4 +112,32 @@ public class RateLimitConfig {
     public void setEndpoints(Map<String, EndpointLimit> endpoints) {
         this.endpoints = endpoints;
     }
-}
\ No newline at end of file
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public void setLeaseSize(int leaseSize) {
+        this.leaseSize = leaseSize;
+    }
+
+    public void setLeaseTtlMillis(long leaseTtlMillis) {
+        this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    public void setRedisRetryMillis(long redisRetryMillis) {
+        this.redisRetryMillis = redisRetryMillis;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public void setIdleTimeoutMinutes(long idleTimeoutMinutes) {
+        this.idleTimeoutMinutes = idleTimeoutMinutes;
+    }
+
+    public void setKeySecret(String keySecret) {
+        this.keySecret = keySecret;
+    }
+}
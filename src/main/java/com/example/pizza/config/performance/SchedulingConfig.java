@@ -0,0 +1,56 @@
+package com.example.pizza.config.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Spring @Scheduled için scheduler yapılandırması.
+ * - Arka plan job'ları (Elasticsearch delta sync, drift, activity flush, revocation purge, JWKS refresh vb.)
+ * - Tek thread yerine küçük bir pool: uzun süren bir job diğerlerini bekletmez
+ * - Token purge (dakikalarca sürebilen chunk'lı DELETE) kendi tek thread'li scheduler'ında çalışır
+ *   (@Scheduled(scheduler = TOKEN_PURGE_SCHEDULER)); paylaşılan pool'u hiç meşgul etmez
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    public static final String TOKEN_PURGE_SCHEDULER = "tokenPurgeTaskScheduler";
+
+    @Value("${app.scheduling.pool-size:4}")
+    private int poolSize;
+
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduler-");
+
+        // Graceful shutdown
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+
+        scheduler.initialize();
+
+        log.info("Task Scheduler initialized: poolSize={}", poolSize);
+
+        return scheduler;
+    }
+
+    @Bean(name = TOKEN_PURGE_SCHEDULER)
+    public ThreadPoolTaskScheduler tokenPurgeTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("token-purge-");
+
+        // Purge her chunk'ta kesintiyi kontrol eder; kapanışta beklemeye gerek yok
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+
+        scheduler.initialize();
+        return scheduler;
+    }
+}
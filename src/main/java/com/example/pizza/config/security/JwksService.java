@@ -1,21 +1,37 @@
 package com.example.pizza.config.security;
 
 import com.auth0.jwk.Jwk;
-import com.auth0.jwk.JwkProvider;
 import com.auth0.jwk.UrlJwkProvider;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.net.URL;
 import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JWKS (JSON Web Key Set) Service
  *
  * Supabase'den public key'leri alır ve JWT validation için kullanır.
  *
+ * In-memory key store:
+ * - Parse edilmiş RSAPublicKey'ler kid → key olarak bellekte tutulur; istek yolunda network I/O yok
+ * - Key set arka planda refresh-interval-ms'de bir yenilenir (açılışta bir kez yüklenir)
+ * - Bilinmeyen kid (key rotation): tek, birleştirilmiş (coalesced) refetch; eş zamanlı istekler aynı
+ *   fetch'i bekler ve iki fetch arasında en az min-refetch-interval-ms olur (sahte kid'lerle Supabase'e
+ *   istek yağdırılamaz)
+ * - Supabase erişilemezse son başarılı key set'i kullanılmaya devam eder
+ *
  * CONDITIONAL: Sadece app.supabase.enabled=true olduğunda aktif
  *
  * Dev ortamında: Bu service devre dışı (app.supabase.enabled=false)
@@ -31,27 +47,134 @@ import java.security.interfaces.RSAPublicKey;
 )
 public class JwksService {
 
-    private final JwkProvider jwkProvider;
+    private final UrlJwkProvider jwkProvider;
+    private final long minRefetchIntervalNanos;
+    private final Counter refreshSuccessCounter;
+    private final Counter refreshFailureCounter;
+    private final Counter rateLimitedCounter;
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /** Son başarılı key set'i (immutable snapshot) */
+    private volatile Map<String, RSAPublicKey> keys = Map.of();
 
-    public JwksService(@Value("${app.supabase.url}") String supabaseUrl) {
+    /** Tamamlanan fetch denemesi sayısı: bekleyen thread'ler başka bir fetch'in bittiğini buradan anlar */
+    private volatile long fetchGeneration;
+    private volatile long lastFetchAttemptNanos;
+    private volatile boolean fetchAttempted;
+
+    public JwksService(@Value("${app.supabase.url}") String supabaseUrl,
+                       @Value("${app.supabase.jwks.connect-timeout-ms:2000}") int connectTimeoutMs,
+                       @Value("${app.supabase.jwks.read-timeout-ms:2000}") int readTimeoutMs,
+                       @Value("${app.supabase.jwks.min-refetch-interval-ms:30000}") long minRefetchIntervalMs,
+                       MeterRegistry meterRegistry) {
         try {
             String jwksUrl = supabaseUrl + "/auth/v1/jwks";
             log.info("Initializing JWKS provider with URL: {}", jwksUrl);
-            this.jwkProvider = new UrlJwkProvider(new URL(jwksUrl));
+            this.jwkProvider = new UrlJwkProvider(new URL(jwksUrl), connectTimeoutMs, readTimeoutMs);
             log.info("JWKS Service initialized successfully");
         } catch (Exception e) {
             log.error("Failed to initialize JWKS provider", e);
             throw new RuntimeException("JWKS initialization failed", e);
         }
+        this.minRefetchIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minRefetchIntervalMs);
+        this.refreshSuccessCounter = meterRegistry.counter("security.jwks.refresh", "result", "success");
+        this.refreshFailureCounter = meterRegistry.counter("security.jwks.refresh", "result", "failure");
+        this.rateLimitedCounter = meterRegistry.counter("security.jwks.refetch.rate-limited");
+    }
+
+    /**
+     * Açılışta key set'i önceden yükler; Supabase erişilemezse ilk bilinmeyen kid'de tekrar denenir
+     */
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Key set'i süresi dolmadan arka planda yeniler (istek yolunu bekletmez)
+     */
+    @Scheduled(fixedDelayString = "${app.supabase.jwks.refresh-interval-ms:600000}",
+            initialDelayString = "${app.supabase.jwks.refresh-interval-ms:600000}")
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            fetch();
+        } finally {
+            refreshLock.unlock();
+        }
     }
 
     public RSAPublicKey getPublicKey(String kid) {
+        RSAPublicKey key = keys.get(kid);
+        if (key != null) {
+            return key;
+        }
+
+        refetchForUnknownKid(kid);
+
+        key = keys.get(kid);
+        if (key == null) {
+            throw new RuntimeException("Failed to get public key for kid: " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * Bilinmeyen kid için tek bir refetch: lock'u bekleyen thread'ler, bekledikleri sürede
+     * tamamlanan fetch'in sonucunu kullanır; son denemeden bu yana min-refetch-interval-ms
+     * geçmediyse fetch yapılmaz.
+     */
+    private void refetchForUnknownKid(String kid) {
+        long observedGeneration = fetchGeneration;
+        refreshLock.lock();
+        try {
+            if (keys.containsKey(kid) || fetchGeneration != observedGeneration) {
+                return;
+            }
+            if (fetchAttempted && System.nanoTime() - lastFetchAttemptNanos < minRefetchIntervalNanos) {
+                rateLimitedCounter.increment();
+                log.debug("JWKS refetch for unknown kid {} rate-limited", kid);
+                return;
+            }
+            log.info("Unknown JWKS kid {} - refetching key set", kid);
+            fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * refreshLock tutulurken çağrılır; hata durumunda mevcut key set'i korunur
+     */
+    private void fetch() {
+        lastFetchAttemptNanos = System.nanoTime();
+        fetchAttempted = true;
         try {
-            Jwk jwk = jwkProvider.get(kid);
-            return (RSAPublicKey) jwk.getPublicKey();
+            List<Jwk> jwks = jwkProvider.getAll();
+            Map<String, RSAPublicKey> current = keys;
+            Map<String, RSAPublicKey> parsed = new HashMap<>();
+            for (Jwk jwk : jwks) {
+                if (jwk.getId() == null || !"RSA".equals(jwk.getType())) {
+                    continue;
+                }
+                try {
+                    RSAPublicKey key = (RSAPublicKey) jwk.getPublicKey();
+                    // Değişmeyen key'ler aynı instance olarak kalır (verifier cache'i geçerli kalsın)
+                    RSAPublicKey existing = current.get(jwk.getId());
+                    parsed.put(jwk.getId(), key.equals(existing) ? existing : key);
+                } catch (Exception e) {
+                    log.warn("Skipping unparseable JWKS key {}: {}", jwk.getId(), e.getMessage());
+                }
+            }
+            keys = Map.copyOf(parsed);
+            refreshSuccessCounter.increment();
+            log.debug("JWKS key set refreshed: {} keys", parsed.size());
         } catch (Exception e) {
-            log.error("Failed to get public key for kid: {}", kid, e);
-            throw new RuntimeException("Failed to get public key", e);
+            refreshFailureCounter.increment();
+            log.warn("JWKS refresh failed, keeping last known {} keys: {}", keys.size(), e.getMessage());
+        } finally {
+            fetchGeneration++;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.example.pizza.config.security;
 
+import com.example.pizza.service.logic.AccessTokenRevocationService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +31,7 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final CorsConfigurationSource corsConfigurationSource;
     private final UnifiedTokenProvider tokenProvider;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
     @Bean
     public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
@@ -36,6 +39,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(auth -> auth
+                        // Async (CompletableFuture) yanıtların ikinci dispatch'i: istek ilk dispatch'te yetkilendirildi
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // ================================================================
                         // 1. PUBLIC ENDPOINTS (AUTH, SYSTEM, UPLOADS)
                         // ================================================================
@@ -66,6 +72,7 @@ public class SecurityConfig {
 
                         // Phase 6: Search Suggestions (Autocomplete, Fuzzy) -> PUBLIC
                         .requestMatchers(HttpMethod.GET, "/api/search/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/search/multi").permitAll()
 
                         // ================================================================
                         // 4. PRODUCT & CATEGORY
@@ -124,7 +131,7 @@ public class SecurityConfig {
 
     @Bean
     public UnifiedAuthenticationFilter unifiedAuthenticationFilter() {
-        return new UnifiedAuthenticationFilter(tokenProvider, userDetailsService);
+        return new UnifiedAuthenticationFilter(tokenProvider, userDetailsService, accessTokenRevocationService);
     }
 
     @Bean
@@ -1,5 +1,6 @@
 package com.example.pizza.config.security;
 
+import com.example.pizza.service.logic.AccessTokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,11 +25,14 @@ public class UnifiedAuthenticationFilter extends OncePerRequestFilter {
 
     private final UnifiedTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final AccessTokenRevocationService revocationService;
 
     @Autowired
-    public UnifiedAuthenticationFilter(UnifiedTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public UnifiedAuthenticationFilter(UnifiedTokenProvider tokenProvider, UserDetailsService userDetailsService,
+                                       AccessTokenRevocationService revocationService) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.revocationService = revocationService;
         logger.info("UnifiedAuthenticationFilter initialized");
     }
 
@@ -48,8 +52,14 @@ public class UnifiedAuthenticationFilter extends OncePerRequestFilter {
 
                 try {
                     // validateToken will throw an exception if invalid
-                    tokenProvider.validateToken(jwt);
-                    String email = tokenProvider.getEmailFromToken(jwt);
+                    // Tek parse: doğrulanmış claim'ler isteğin geri kalanı için request attribute'ta tutulur
+                    VerifiedToken verifiedToken = tokenProvider.validateToken(jwt);
+                    // İptal kontrolü: Bloom filter'da yoksa sadece bellek okuması, Redis'e gidilmez
+                    if (revocationService.isRevoked(verifiedToken.tokenId())) {
+                        throw new RuntimeException("Access token has been revoked");
+                    }
+                    request.setAttribute(VerifiedToken.REQUEST_ATTRIBUTE, verifiedToken);
+                    String email = verifiedToken.subject();
 
                     if (email != null) {
                         logger.debug("Email extracted from token: {}", email);
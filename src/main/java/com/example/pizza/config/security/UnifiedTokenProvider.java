@@ -1,12 +1,21 @@
 package com.example.pizza.config.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.pizza.constants.security.TokenType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,11 +25,21 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -78,6 +97,26 @@ public class UnifiedTokenProvider {
     @Value("${app.supabase.enabled:true}")
     private boolean supabaseEnabled;
 
+    /**
+     * Verified-token cache (SHA-256 of token → claims), bounded by size and min(exp, ttl)
+     */
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private long verifiedCacheMaxEntries;
+
+    @Value("${jwt.verified-cache.ttl-seconds:60}")
+    private long verifiedCacheTtlSeconds;
+
+    private static final ObjectReader HEADER_READER = new ObjectMapper().readerFor(Map.class);
+
+    private SecretKey signingKey;
+    private JwtParser applicationParser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private final Map<String, SupabaseVerifier> supabaseVerifiers = new ConcurrentHashMap<>();
+
+    /** kid başına verifier; JWKS key'i değişirse (rotation) yeniden oluşturulur */
+    private record SupabaseVerifier(RSAPublicKey key, JWTVerifier verifier) {
+    }
+
     /**
      * CRITICAL FIX: Manual constructor to handle optional JwksService
      *
@@ -93,9 +132,19 @@ public class UnifiedTokenProvider {
         }
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Signing key, parser and verified-token cache are built once (all thread-safe)
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.applicationParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxEntries)
+                .expireAfter(tokenExpiry())
+                .build();
     }
 
     // ============================================================================
@@ -129,12 +178,13 @@ public class UnifiedTokenProvider {
                 .collect(Collectors.toList());
 
         String token = Jwts.builder()
+                .setId(UUID.randomUUID().toString()) // jti: logout'ta iptal listesine girer
                 .setSubject(email)
                 .claim("roles", roles)
                 .claim("type", TokenType.ACCESS.getValue())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
         log.info("Access token generated for user: {} (expires in {} minutes)",
@@ -184,12 +234,13 @@ public class UnifiedTokenProvider {
                 .collect(Collectors.toList());
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("roles", roles)
                 .claim("type", "application")
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -211,37 +262,71 @@ public class UnifiedTokenProvider {
     // ============================================================================
 
     /**
-     * Validate and parse JWT token
+     * Validate JWT token (single parse, no exception-driven fallback)
      *
      * Supports:
-     * - Application JWT tokens (access tokens)
-     * - Supabase OAuth tokens
+     * - Application JWT tokens (HS*: access tokens and legacy tokens)
+     * - Supabase OAuth tokens (RS256 + kid, only if Supabase is enabled)
      *
-     * Works with both access tokens and legacy tokens
+     * Routing is done by the header's alg/kid, so a Supabase token never pays for a
+     * failed HMAC attempt. Successfully verified tokens are cached by SHA-256 hash
+     * until min(exp, jwt.verified-cache.ttl-seconds); repeated validations of the
+     * same token skip signature verification entirely.
      *
      * @param token - JWT token string
-     * @return Claims object containing token data
+     * @return Immutable verified claims
      * @throws RuntimeException if token is invalid
      */
-    public Claims validateToken(String token) {
-        try {
-            // Try application JWT first (most common)
+    public VerifiedToken validateToken(String token) {
+        String cacheKey = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = verify(token);
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
+    }
+
+    /**
+     * Signature + expiration check without the verified-token cache (also used by benchmarks)
+     */
+    VerifiedToken verify(String token) {
+        Map<?, ?> header = readHeader(token);
+        Object alg = header.get("alg");
+
+        if (alg instanceof String algorithm && algorithm.startsWith("HS")) {
             return validateApplicationToken(token);
-        } catch (Exception e) {
-            log.debug("Application JWT validation failed, trying Supabase JWT", e);
-
-            // Only try Supabase validation if enabled and JwksService is available
-            if (supabaseEnabled && jwksService != null) {
-                try {
-                    return validateSupabaseToken(token);
-                } catch (Exception supabaseEx) {
-                    log.error("Both application and Supabase JWT validation failed", supabaseEx);
-                    throw new RuntimeException("Invalid token", supabaseEx);
-                }
-            } else {
-                log.debug("Supabase JWT validation skipped (disabled or JwksService not available)");
-                throw new RuntimeException("Invalid application JWT token", e);
+        }
+
+        if ("RS256".equals(alg)) {
+            if (!supabaseEnabled || jwksService == null) {
+                throw new RuntimeException("Supabase JWT validation disabled (JwksService not available)");
             }
+            Object kid = header.get("kid");
+            if (!(kid instanceof String keyId)) {
+                throw new RuntimeException("Token missing 'kid' (Key ID)");
+            }
+            return validateSupabaseToken(token, keyId);
+        }
+
+        // "none" and any other algorithm are rejected up front
+        throw new RuntimeException("Unsupported token algorithm: " + alg);
+    }
+
+    /**
+     * Decode only the JOSE header (alg, kid); the payload is parsed once by the verifier
+     */
+    private Map<?, ?> readHeader(String token) {
+        int dot = token != null ? token.indexOf('.') : -1;
+        if (dot <= 0) {
+            throw new RuntimeException("Malformed JWT token");
+        }
+        try {
+            return HEADER_READER.readValue(Base64.getUrlDecoder().decode(token.substring(0, dot)));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Malformed JWT header", e);
         }
     }
 
@@ -249,72 +334,105 @@ public class UnifiedTokenProvider {
      * Validate application-generated JWT
      *
      * Validates access tokens and legacy tokens.
-     * Checks signature, expiration, and structure.
+     * Checks signature, expiration, and structure with the shared (thread-safe) parser.
      *
      * @param token - JWT token string
-     * @return Claims object
+     * @return Verified claims
      */
-    private Claims validateApplicationToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private VerifiedToken validateApplicationToken(String token) {
+        Claims claims;
+        try {
+            claims = applicationParser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid application JWT token", e);
+        }
+
+        List<String> roles = claims.get("roles") instanceof List<?> list
+                ? list.stream().map(String::valueOf).toList()
+                : List.of();
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                roles,
+                claims.get("type", String.class),
+                claims.getIssuer(),
+                claims.getId(),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()));
     }
 
     /**
      * Validate Supabase-generated JWT
      *
-     * Only called if Supabase is enabled and JwksService exists
+     * Only called for RS256 tokens if Supabase is enabled and JwksService exists.
+     * Public keys come from JwksService's in-memory store (no network I/O per request);
+     * one JWTVerifier is built per key and reused.
      */
-    private Claims validateSupabaseToken(String token) {
-        if (jwksService == null) {
-            throw new RuntimeException("JwksService not available - Supabase JWT validation disabled");
-        }
-
+    private VerifiedToken validateSupabaseToken(String token, String kid) {
+        DecodedJWT jwt;
         try {
-            DecodedJWT decodedJWT = JWT.decode(token);
-            String kid = decodedJWT.getKeyId();
-
-            if (kid == null) {
-                throw new RuntimeException("Token missing 'kid' (Key ID)");
-            }
-
             RSAPublicKey publicKey = jwksService.getPublicKey(kid);
-            Algorithm algorithm = Algorithm.RSA256(publicKey, null);
+            SupabaseVerifier cached = supabaseVerifiers.get(kid);
+            if (cached == null || cached.key() != publicKey) {
+                cached = new SupabaseVerifier(publicKey, JWT.require(Algorithm.RSA256(publicKey, null)).build());
+                supabaseVerifiers.put(kid, cached);
+            }
+            jwt = cached.verifier().verify(token);
+        } catch (Exception e) {
+            log.debug("Supabase JWT validation failed: {}", e.getMessage());
+            throw new RuntimeException("Invalid Supabase token", e);
+        }
 
-            JWT.require(algorithm)
-                    .build()
-                    .verify(token);
+        // Convert to application claims format
+        String role = jwt.getClaim("user_role").asString();
+        return new VerifiedToken(
+                jwt.getClaim("email").asString(),
+                role != null ? List.of("ROLE_" + role.toUpperCase()) : List.of("ROLE_CUSTOMER"),
+                "supabase",
+                jwt.getIssuer(),
+                jwt.getId(),
+                toInstant(jwt.getIssuedAt()),
+                toInstant(jwt.getExpiresAt()));
+    }
 
-            // Convert to Claims format
-            return convertSupabaseToApplicationClaims(decodedJWT);
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
 
-        } catch (Exception e) {
-            log.error("Supabase JWT validation failed", e);
-            throw new RuntimeException("Invalid Supabase token", e);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
     /**
-     * Convert Supabase JWT claims to application Claims format
+     * Cache entry lives until the token expires or the TTL elapses, whichever comes first
      */
-    private Claims convertSupabaseToApplicationClaims(DecodedJWT jwt) {
-        Claims claims = Jwts.claims();
-
-        claims.setSubject(jwt.getClaim("email").asString());
-        claims.setIssuer(jwt.getIssuer());
-        claims.setExpiration(jwt.getExpiresAt());
-        claims.setNotBefore(jwt.getNotBefore());
-        claims.setIssuedAt(jwt.getIssuedAt());
-        claims.setId(jwt.getId());
+    private Expiry<String, VerifiedToken> tokenExpiry() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                long ttlNanos = TimeUnit.SECONDS.toNanos(verifiedCacheTtlSeconds);
+                if (token.expiresAt() == null) {
+                    return ttlNanos;
+                }
+                long untilExpiry = Duration.between(Instant.now(), token.expiresAt()).toNanos();
+                return Math.max(0, Math.min(ttlNanos, untilExpiry));
+            }
 
-        String role = jwt.getClaim("user_role").asString();
-        claims.put("roles", role != null ?
-                List.of("ROLE_" + role.toUpperCase()) : List.of("ROLE_CUSTOMER"));
-        claims.put("type", "supabase");
+            @Override
+            public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, token, currentTime);
+            }
 
-        return claims;
+            @Override
+            public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
     }
 
     // ============================================================================
@@ -330,8 +448,7 @@ public class UnifiedTokenProvider {
      * @return User email
      */
     public String getEmailFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims.getSubject();
+        return validateToken(token).subject();
     }
 
     /**
@@ -343,9 +460,7 @@ public class UnifiedTokenProvider {
      * @return Collection of authorities
      */
     public Collection<SimpleGrantedAuthority> getAuthoritiesFromToken(String token) {
-        Claims claims = validateToken(token);
-        @SuppressWarnings("unchecked")
-        List<String> roles = (List<String>) claims.get("roles");
+        List<String> roles = validateToken(token).roles();
 
         if (roles == null || roles.isEmpty()) {
             return List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
@@ -366,9 +481,7 @@ public class UnifiedTokenProvider {
      */
     public boolean isAccessToken(String token) {
         try {
-            Claims claims = validateToken(token);
-            String type = (String) claims.get("type");
-            return TokenType.ACCESS.getValue().equals(type);
+            return TokenType.ACCESS.getValue().equals(validateToken(token).type());
         } catch (Exception e) {
             return false;
         }
@@ -384,8 +497,7 @@ public class UnifiedTokenProvider {
      */
     public String getTokenType(String token) {
         try {
-            Claims claims = validateToken(token);
-            return (String) claims.get("type");
+            return validateToken(token).type();
         } catch (Exception e) {
             return "unknown";
         }
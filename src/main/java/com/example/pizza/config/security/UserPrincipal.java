@@ -19,6 +19,11 @@ public class UserPrincipal implements UserDetails {
     private Collection<? extends GrantedAuthority> authorities;
     private Map<String, Object> attributes;
 
+    /**
+     * Yüklendiği andaki users.security_version (bkz. UserPrincipalCache)
+     */
+    private long securityVersion;
+
     public UserPrincipal(Long id, String name, String surname, String email, String password, Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.name = name;
@@ -32,7 +37,7 @@ public class UserPrincipal implements UserDetails {
         List<GrantedAuthority> authorities = Collections.singletonList(
                 new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
 
-        return new UserPrincipal(
+        UserPrincipal principal = new UserPrincipal(
                 user.getId(),
                 user.getName(),
                 user.getSurname(),
@@ -40,6 +45,8 @@ public class UserPrincipal implements UserDetails {
                 user.getPassword(),
                 authorities
         );
+        principal.securityVersion = user.getSecurityVersion();
+        return principal;
     }
 
     public Long getId() {
@@ -73,6 +80,10 @@ public class UserPrincipal implements UserDetails {
         return email;
     }
 
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
     @Override
     public boolean isAccountNonExpired() {
         return true;
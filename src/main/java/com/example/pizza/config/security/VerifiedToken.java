@@ -0,0 +1,34 @@
+package com.example.pizza.config.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * İmzası ve süresi doğrulanmış JWT'nin değiştirilemez claim'leri
+ *
+ * UnifiedTokenProvider.validateToken() istek başına bir kez üretir; filtre bunu
+ * REQUEST_ATTRIBUTE altında saklar, isteğin geri kalanı token'ı tekrar parse etmez.
+ *
+ * @param subject   Kullanıcı email'i (Supabase token'larında "email" claim'i)
+ * @param roles     "ROLE_..." formatında roller
+ * @param type      access_token / application / supabase
+ * @param tokenId   jti (varsa)
+ * @param issuedAt  iat (varsa)
+ * @param expiresAt exp (varsa)
+ */
+public record VerifiedToken(
+        String subject,
+        List<String> roles,
+        String type,
+        String issuer,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedToken.class.getName();
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+}
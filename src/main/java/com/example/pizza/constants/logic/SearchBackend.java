@@ -0,0 +1,13 @@
+package com.example.pizza.constants.logic;
+
+/**
+ * Entity bazında arama backend'i (search.backend.product / category / user)
+ *
+ * ELASTICSEARCH: ES index'i (varsayılan)
+ * POSTGRES: pg_trgm + Turkish tsvector (PHASE 7.5) ile doğrudan veritabanı;
+ * küçük kurulumlar ES olmadan çalışabilir
+ */
+public enum SearchBackend {
+    ELASTICSEARCH,
+    POSTGRES
+}
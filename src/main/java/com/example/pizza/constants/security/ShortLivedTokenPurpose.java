@@ -0,0 +1,35 @@
+package com.example.pizza.constants.security;
+
+/**
+ * Short-lived (email link) token purposes
+ *
+ * Each purpose is a separate namespace in ShortLivedTokenStore:
+ * a password-reset token cannot be used to verify an email and vice versa.
+ */
+public enum ShortLivedTokenPurpose {
+
+    /**
+     * Email verification link sent on registration (24 hours)
+     */
+    EMAIL_VERIFICATION("verify"),
+
+    /**
+     * Password reset link (1 hour)
+     */
+    PASSWORD_RESET("reset");
+
+    private final String value;
+
+    ShortLivedTokenPurpose(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -3,10 +3,15 @@ package com.example.pizza.controller;
 import com.example.pizza.constants.user.Role;
 import com.example.pizza.constants.user.UserStatus;
 import com.example.pizza.dto.admin.DashboardResponseDTO;
+import com.example.pizza.dto.admin.SearchDriftReport;
+import com.example.pizza.dto.admin.SearchIndexDeadLetterResponse;
 import com.example.pizza.dto.paginate.PagedResponse;
 import com.example.pizza.dto.user.UserResponse;
 import com.example.pizza.logic.mapper.UserMapper;
 import com.example.pizza.service.admin.AdminService;
+import com.example.pizza.service.logic.SearchIndexDeadLetterService;
+import com.example.pizza.service.logic.SearchIndexDriftDetector;
+import com.example.pizza.service.logic.SearchIndexQueue;
 import com.example.pizza.service.user.UserSearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +24,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,6 +37,9 @@ public class AdminRestController {
     private final AdminService adminService;
     private final UserMapper userMapper;
     private final UserSearchService userSearchService;
+    private final SearchIndexQueue searchIndexQueue;
+    private final SearchIndexDeadLetterService searchIndexDeadLetterService;
+    private final SearchIndexDriftDetector searchIndexDriftDetector;
 
     // ============================================================================
     // DASHBOARD & LEGACY
@@ -153,6 +162,8 @@ public class AdminRestController {
      * - /api/admin/users/search?query=Ahmet
      * - /api/admin/users/search?role=CUSTOMER&status=ACTIVE
      * - /api/admin/users/search?email=test@mail.com
+     * - /api/admin/users/search?role=CUSTOMER&scroll=true (cursor modu, yanıtta nextCursor)
+     * - /api/admin/users/search?role=CUSTOMER&cursor=eyJwaXRJZCI6... (sonraki sayfa)
      */
     @GetMapping("/users/search")
     public ResponseEntity<PagedResponse<UserResponse>> searchUsers(
@@ -160,8 +171,15 @@ public class AdminRestController {
             @RequestParam(required = false) String email, // Tam eşleşme (opsiyonel)
             @RequestParam(required = false) Role role,
             @RequestParam(required = false) UserStatus status,
+            @RequestParam(defaultValue = "false") boolean scroll,
+            @RequestParam(required = false) String cursor,
             @PageableDefault(size = 20, sort = "id") Pageable pageable) {
 
+        if (scroll || cursor != null) {
+            return ResponseEntity.ok(PagedResponse.of(userSearchService.searchUsersAfter(
+                    query, email, role, status, pageable.getSort(), pageable.getPageSize(), cursor)));
+        }
+
         Page<UserResponse> page = userSearchService.searchUsersDynamic(
                 query, email, role, status, pageable);
 
@@ -174,6 +192,49 @@ public class AdminRestController {
         return ResponseEntity.ok("All users reindexed successfully");
     }
 
+    // ============================================================================
+    // SEARCH INDEX QUEUE & DEAD-LETTERS
+    // ============================================================================
+
+    /**
+     * Index kuyruğu istatistikleri
+     * GET /api/admin/search-index/stats
+     */
+    @GetMapping("/search-index/stats")
+    public ResponseEntity<Map<String, Long>> getSearchIndexStats() {
+        return ResponseEntity.ok(searchIndexQueue.getStats());
+    }
+
+    /**
+     * Kalıcı olarak başarısız olan index yazmaları
+     * GET /api/admin/search-index/dead-letters?limit=100
+     */
+    @GetMapping("/search-index/dead-letters")
+    public ResponseEntity<List<SearchIndexDeadLetterResponse>> getSearchIndexDeadLetters(
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(searchIndexDeadLetterService.getDeadLetters(limit));
+    }
+
+    /**
+     * Dead-letter kayıtlarını güncel DB durumuyla tekrar kuyruğa ekler
+     * POST /api/admin/search-index/dead-letters/replay?limit=500
+     */
+    @PostMapping("/search-index/dead-letters/replay")
+    public ResponseEntity<String> replaySearchIndexDeadLetters(
+            @RequestParam(defaultValue = "500") int limit) {
+        int replayed = searchIndexDeadLetterService.replay(limit);
+        return ResponseEntity.ok(replayed + " dead-letter index writes replayed");
+    }
+
+    /**
+     * Product index için DB ↔ ES drift kontrolü (ve onarım)
+     * POST /api/admin/search-index/drift-check
+     */
+    @PostMapping("/search-index/drift-check")
+    public ResponseEntity<SearchDriftReport> checkSearchIndexDrift() {
+        return ResponseEntity.ok(searchIndexDriftDetector.checkProducts());
+    }
+
     // ============================================================================
     // DASHBOARD ANALYTICS ENDPOINTS
     // ============================================================================
@@ -1,6 +1,7 @@
 package com.example.pizza.controller;
 
 import com.example.pizza.config.security.UnifiedTokenProvider;
+import com.example.pizza.config.security.VerifiedToken;
 import com.example.pizza.constants.user.Role;
 import com.example.pizza.dto.exceptions.ApiResponse;
 import com.example.pizza.dto.user.*;
@@ -11,6 +12,7 @@ import com.example.pizza.exceptions.token.RefreshTokenExpiredException;
 import com.example.pizza.exceptions.token.RefreshTokenNotFoundException;
 import com.example.pizza.exceptions.token.RefreshTokenRevokedException;
 import com.example.pizza.exceptions.user.UserRegistrationException;
+import com.example.pizza.service.logic.AccessTokenRevocationService;
 import com.example.pizza.service.logic.RefreshTokenService;
 import com.example.pizza.service.user.SupabaseUserService;
 import com.example.pizza.service.user.UserService;
@@ -43,6 +45,7 @@ public class AuthController {
     private final UnifiedTokenProvider tokenProvider;
     private final SupabaseUserService supabaseUserService;
     private final RefreshTokenService refreshTokenService;
+    private final AccessTokenRevocationService accessTokenRevocationService;
 
     @Value("${app.supabase.url}")
     private String supabaseUrl;
@@ -173,7 +176,8 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest refreshRequest) {
+    public ResponseEntity<?> logout(@RequestBody(required = false) RefreshTokenRequest refreshRequest,
+                                    HttpServletRequest request) {
         try {
             // Get current user from security context
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -192,6 +196,11 @@ public class AuthController {
                     logger.info("All refresh tokens revoked for user: {} (count: {})", email, revokedCount);
                 }
 
+                // Mevcut access token'ı süresi dolmadan iptal et (jti iptal listesine girer)
+                if (request.getAttribute(VerifiedToken.REQUEST_ATTRIBUTE) instanceof VerifiedToken accessToken) {
+                    accessTokenRevocationService.revoke(accessToken.tokenId(), accessToken.expiresAt());
+                }
+
                 // Clear security context
                 SecurityContextHolder.clearContext();
 
@@ -6,6 +6,7 @@ import com.example.pizza.dto.paginate.PagedResponse;
 import com.example.pizza.entity.category.Category;
 import com.example.pizza.service.category.CategorySearchService;
 import com.example.pizza.service.category.CategoryService;
+import com.example.pizza.service.logic.SearchRequestExecutor;
 import com.example.pizza.service.product.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -18,6 +19,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/category")
@@ -28,6 +30,7 @@ public class CategoryRestController {
     private final CategoryService categoryService;
     private final ProductService productService;
     private final CategorySearchService categorySearchService;
+    private final SearchRequestExecutor searchRequestExecutor;
 
     // ============================================================================
     // LEGACY ENDPOINTS (Backward Compatibility)
@@ -168,14 +171,22 @@ public class CategoryRestController {
      * Elasticsearch ile kategori arama
      */
     @GetMapping("/search")
-    public ResponseEntity<PagedResponse<CategoryResponse>> searchCategories(
-            @RequestParam String query,
+    public CompletableFuture<ResponseEntity<PagedResponse<CategoryResponse>>> searchCategories(
+            @RequestParam(required = false) String query,
             @PageableDefault(size = 10, sort = "id") Pageable pageable) {
 
-        Page<CategoryResponse> page = categorySearchService.searchCategories(query, pageable);
+        // Validation (eksik parametre global handler'da 500'e düşmesin)
+        if (query == null || query.isBlank()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        // searchTaskExecutor'da çalışır (ES yavaşlığı Tomcat thread'lerini tüketmez)
+        return searchRequestExecutor.submit(() -> {
+            Page<CategoryResponse> page = categorySearchService.searchCategories(query, pageable);
 
-        // PagedResponse.of() static metodunu kullan (en kolay yöntem)
-        return ResponseEntity.ok(PagedResponse.of(page));
+            // PagedResponse.of() static metodunu kullan (en kolay yöntem)
+            return ResponseEntity.ok(PagedResponse.of(page));
+        });
     }
 
     /**
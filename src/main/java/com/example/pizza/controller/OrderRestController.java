@@ -1,8 +1,11 @@
 package com.example.pizza.controller;
 
 import com.example.pizza.constants.order.OrderStatus;
+import com.example.pizza.constants.order.PaymentMethod;
+import com.example.pizza.constants.order.PaymentStatus;
 import com.example.pizza.dto.order.OrderCreateRequest;
 import com.example.pizza.dto.order.OrderResponse;
+import com.example.pizza.dto.order.OrderSearchFilter;
 import com.example.pizza.dto.order.OrderStatusUpdateRequest;
 import com.example.pizza.dto.order.StockErrorResponse;
 import com.example.pizza.dto.paginate.PagedResponse;
@@ -25,6 +28,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -370,6 +374,13 @@ public class OrderRestController {
                 return ResponseEntity.ok("Siparişler yeniden indeksleniyor...");
         }
 
+        /**
+         * Admin sipariş araması
+         * Ürün (productId/productName), teslimat (city/district), ödeme ve tarih aralığı filtreleri
+         * denormalize sipariş dokümanından cevaplanır
+         * scroll=true veya cursor verilirse PIT + search_after ile cursor sayfalama yapılır
+         * (yanıttaki nextCursor bir sonraki isteğe aynı filtrelerle eklenir)
+         */
         @GetMapping("/admin/search")
         @PreAuthorize("hasAnyRole('ADMIN', 'PERSONAL')")
         public ResponseEntity<PagedResponse<OrderDocument>> searchOrders(
@@ -377,10 +388,27 @@ public class OrderRestController {
                         @RequestParam(required = false) OrderStatus status,
                         @RequestParam(required = false) Double minPrice,
                         @RequestParam(required = false) Double maxPrice,
+                        @RequestParam(required = false) Long productId,
+                        @RequestParam(required = false) String productName,
+                        @RequestParam(required = false) String city,
+                        @RequestParam(required = false) String district,
+                        @RequestParam(required = false) PaymentMethod paymentMethod,
+                        @RequestParam(required = false) PaymentStatus paymentStatus,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                        @RequestParam(defaultValue = "false") boolean scroll,
+                        @RequestParam(required = false) String cursor,
                         @PageableDefault(size = 20, sort = "orderDate", direction = Sort.Direction.DESC) Pageable pageable) {
 
-                Page<OrderDocument> page = orderSearchService.searchOrdersDynamic(userEmail, status, minPrice, maxPrice,
-                                pageable);
+                OrderSearchFilter filter = new OrderSearchFilter(userEmail, status, minPrice, maxPrice, productId,
+                                productName, city, district, paymentMethod, paymentStatus, from, to);
+
+                if (scroll || cursor != null) {
+                        return ResponseEntity.ok(PagedResponse.of(orderSearchService.searchOrdersAfter(
+                                        filter, pageable.getSort(), pageable.getPageSize(), cursor)));
+                }
+
+                Page<OrderDocument> page = orderSearchService.searchOrdersDynamic(filter, pageable);
 
                 return ResponseEntity.ok(PagedResponse.of(page));
         }
@@ -4,11 +4,16 @@ import com.example.pizza.dto.product.CustomPizzaRequest;
 import com.example.pizza.exceptions.common.ResourceNotFoundException;
 import com.example.pizza.dto.paginate.PagedResponse;
 import com.example.pizza.dto.product.ProductResponse;
+import com.example.pizza.dto.product.ProductSearchResponse;
+import com.example.pizza.dto.product.ProductSearchResult;
 import com.example.pizza.entity.category.Category;
 import com.example.pizza.entity.product.Product;
+import com.example.pizza.service.admin.SearchAnalyticsService;
 import com.example.pizza.service.category.CategoryService;
+import com.example.pizza.service.logic.SearchRequestExecutor;
 import com.example.pizza.service.product.ProductSearchService;
 import com.example.pizza.service.product.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -23,6 +28,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -34,6 +41,8 @@ public class ProductRestController {
     private final ProductService productService;
     private final CategoryService categoryService;
     private final ProductSearchService productSearchService;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final SearchRequestExecutor searchRequestExecutor;
 
     private static final String CUSTOM_CATEGORY_NAME = "CUSTOM_BASE";
 
@@ -267,20 +276,45 @@ public class ProductRestController {
      * - /api/product/search?query=pizza
      * - /api/product/search?categoryId=1&minPrice=100
      * - /api/product/search?query=acılı&inStock=true&sort=price,desc
+     * - /api/product/search?query=pizza&facets=true (kategori / fiyat aralığı / stok facet'leri)
      */
     @GetMapping("/search")
-    public ResponseEntity<PagedResponse<ProductResponse>> searchProducts(
+    public CompletableFuture<ResponseEntity<ProductSearchResponse>> searchProducts(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) Boolean inStock,
-            @PageableDefault(size = 10, sort = "id") Pageable pageable) {
-
-        Page<ProductResponse> page = productSearchService.searchProductsDynamic(
-                query, categoryId, minPrice, maxPrice, inStock, pageable);
+            @RequestParam(defaultValue = "false") boolean facets,
+            @PageableDefault(size = 10, sort = "id") Pageable pageable,
+            HttpServletRequest request) {
+
+        long start = System.nanoTime();
+        SearchAnalyticsService.RequestInfo requestInfo = searchAnalyticsService.captureRequest(request);
+        String searchType = facets
+                ? SearchAnalyticsService.SEARCH_TYPE_FACETED
+                : SearchAnalyticsService.SEARCH_TYPE_PRODUCT;
+
+        // Arama searchTaskExecutor'da çalışır: ES yavaşlarsa Tomcat thread'leri değil arama havuzu dolar
+        return searchRequestExecutor.submit(() -> {
+            ProductSearchResponse response;
+            if (facets) {
+                ProductSearchResult result = productSearchService.searchProductsWithFacets(
+                        query, categoryId, minPrice, maxPrice, inStock, pageable);
+                Page<ProductResponse> page = new PageImpl<>(result.content(), pageable, result.totalHits());
+                response = ProductSearchResponse.of(page, result.facets());
+            } else {
+                Page<ProductResponse> page = productSearchService.searchProductsDynamic(
+                        query, categoryId, minPrice, maxPrice, inStock, pageable);
+                response = ProductSearchResponse.of(page, null);
+            }
+
+            searchAnalyticsService.logSearch(query, (int) response.getPage().getTotalElements(), searchType,
+                    categoryId, minPrice, maxPrice, requestInfo,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
 
-        return ResponseEntity.ok(PagedResponse.of(page));
+            return ResponseEntity.ok(response);
+        });
     }
 
     @PostMapping("/reindex")
@@ -1,12 +1,23 @@
 package com.example.pizza.controller;
 
+import com.example.pizza.dto.product.ProductMultiSearchRequest;
+import com.example.pizza.dto.product.ProductMultiSearchResult;
+import com.example.pizza.exceptions.base.ApiException;
+import com.example.pizza.service.admin.SearchAnalyticsService;
+import com.example.pizza.service.logic.SearchRequestExecutor;
 import com.example.pizza.service.product.ProductSearchService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @RestController
@@ -16,21 +27,30 @@ import java.util.List;
 public class SearchController {
 
     private final ProductSearchService productSearchService;
+    private final SearchAnalyticsService searchAnalyticsService;
+    private final SearchRequestExecutor searchRequestExecutor;
+
+    @Value("${search.multi.max-queries:10}")
+    private int maxQueries;
 
     /**
      * Autocomplete endpoint (Prefix matching)
+     * Async ES client ile çalışır; ES yanıtı beklenirken Tomcat thread'i serbesttir.
      *
      * GET /api/search/suggestions?query=piz
      * Response: ["pizza", "pizza margherita", "pizza pepperoni"]
      */
     @GetMapping("/suggestions")
-    public ResponseEntity<List<String>> getSuggestions(
+    public CompletableFuture<ResponseEntity<List<String>>> getSuggestions(
             @RequestParam String query,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            HttpServletRequest request) {
+
+        long start = System.nanoTime();
 
         // Validation
         if (query == null || query.trim().length() < 2) {
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         if (limit < 1 || limit > 10) {
@@ -39,9 +59,13 @@ public class SearchController {
 
         log.debug("Autocomplete request: query={}, limit={}", query, limit);
 
-        List<String> suggestions = productSearchService.getSuggestions(query, limit);
+        SearchAnalyticsService.RequestInfo requestInfo = searchAnalyticsService.captureRequest(request);
 
-        return ResponseEntity.ok(suggestions);
+        return productSearchService.getSuggestions(query, limit).thenApply(suggestions -> {
+            searchAnalyticsService.logSearch(query, suggestions.size(), SearchAnalyticsService.SEARCH_TYPE_SUGGESTION,
+                    null, null, null, requestInfo, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return ResponseEntity.ok(suggestions);
+        });
     }
 
     /**
@@ -51,14 +75,17 @@ public class SearchController {
      * Response: ["pizza", "pizza margherita"]
      */
     @GetMapping("/suggestions/fuzzy")
-    public ResponseEntity<List<String>> getFuzzySuggestions(
+    public CompletableFuture<ResponseEntity<List<String>>> getFuzzySuggestions(
             @RequestParam String query,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(defaultValue = "5") int limit,
+            HttpServletRequest request) {
+
+        long start = System.nanoTime();
 
         // Validation
         if (query == null || query.trim().length() < 3) {
             // Fuzzy matching requires minimum 3 characters
-            return ResponseEntity.badRequest().build();
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
 
         if (limit < 1 || limit > 10) {
@@ -67,8 +94,68 @@ public class SearchController {
 
         log.debug("Fuzzy suggestions request: query={}, limit={}", query, limit);
 
-        List<String> suggestions = productSearchService.getFuzzySuggestions(query, limit);
+        SearchAnalyticsService.RequestInfo requestInfo = searchAnalyticsService.captureRequest(request);
+
+        return productSearchService.getFuzzySuggestions(query, limit).thenApply(suggestions -> {
+            searchAnalyticsService.logSearch(query, suggestions.size(),
+                    SearchAnalyticsService.SEARCH_TYPE_FUZZY_SUGGESTION, null, null, null, requestInfo,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return ResponseEntity.ok(suggestions);
+        });
+    }
+
+    /**
+     * Composite arama endpoint'i: isimli alt sorgular tek _msearch isteğinde çalışır
+     * Her alt sorgu kendi cache'ini kullanır; sadece cache'te olmayanlar ES'e gider.
+     *
+     * POST /api/search/multi
+     * Body: {"queries": {"suggest": {"type": "SUGGESTIONS", "query": "piz"},
+     *                    "topRated": {"type": "SEARCH", "sort": "rating,desc", "size": 8}}}
+     * Response: {"suggest": {"suggestions": [...]}, "topRated": {"search": {"content": [...], "page": {...}}}}
+     */
+    @PostMapping("/multi")
+    public CompletableFuture<ResponseEntity<Map<String, ProductMultiSearchResult>>> multiSearch(
+            @RequestBody ProductMultiSearchRequest body,
+            HttpServletRequest request) {
+
+        long start = System.nanoTime();
+
+        // Validation
+        Map<String, ProductMultiSearchRequest.SubQuery> queries = body.queries();
+        if (queries == null || queries.isEmpty()) {
+            throw new ApiException("En az bir alt sorgu gerekli", HttpStatus.BAD_REQUEST);
+        }
+        if (queries.size() > maxQueries) {
+            throw new ApiException("En fazla " + maxQueries + " alt sorgu gönderilebilir", HttpStatus.BAD_REQUEST);
+        }
+        queries.forEach((name, sub) -> {
+            if (sub == null || sub.type() == null) {
+                throw new ApiException("Alt sorgu tipi gerekli: " + name, HttpStatus.BAD_REQUEST);
+            }
+        });
+
+        log.debug("Multi search request: {} sub-queries", queries.size());
+
+        SearchAnalyticsService.RequestInfo requestInfo = searchAnalyticsService.captureRequest(request);
+
+        return searchRequestExecutor.submit(() -> {
+            Map<String, ProductMultiSearchResult> results = productSearchService.multiSearch(queries);
+
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            queries.forEach((name, sub) -> searchAnalyticsService.logSearch(sub.query(),
+                    results.get(name).resultCount(), searchType(sub.type()),
+                    sub.categoryId(), sub.minPrice(), sub.maxPrice(), requestInfo, elapsedMs));
+
+            return ResponseEntity.ok(results);
+        });
+    }
 
-        return ResponseEntity.ok(suggestions);
+    private static String searchType(ProductMultiSearchRequest.Type type) {
+        return switch (type) {
+            case SEARCH -> SearchAnalyticsService.SEARCH_TYPE_PRODUCT;
+            case FACETS -> SearchAnalyticsService.SEARCH_TYPE_FACETED;
+            case SUGGESTIONS -> SearchAnalyticsService.SEARCH_TYPE_SUGGESTION;
+            case FUZZY_SUGGESTIONS -> SearchAnalyticsService.SEARCH_TYPE_FUZZY_SUGGESTION;
+        };
     }
 }
@@ -51,5 +51,8 @@ public class SearchAnalyticsResponse implements Serializable {
         private Double averageResponseTime;
         private Long slowestQuery;
         private Long fastestQuery;
+        private Long p50ResponseTime;
+        private Long p95ResponseTime;
+        private Long p99ResponseTime;
     }
 }
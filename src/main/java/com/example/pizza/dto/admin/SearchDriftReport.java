@@ -0,0 +1,18 @@
+package com.example.pizza.dto.admin;
+
+import java.io.Serializable;
+
+public record SearchDriftReport(
+        String indexName,
+        int chunksChecked,
+        int chunksMismatched,
+        int missingInIndex,
+        int extraInIndex,
+        int staleInIndex,
+        long durationMs
+) implements Serializable {
+
+    public int totalDrift() {
+        return missingInIndex + extraInIndex + staleInIndex;
+    }
+}
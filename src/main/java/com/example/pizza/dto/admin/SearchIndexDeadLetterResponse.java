@@ -0,0 +1,14 @@
+package com.example.pizza.dto.admin;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public record SearchIndexDeadLetterResponse(
+        Long id,
+        String indexName,
+        String documentId,
+        String operation,
+        int attempts,
+        String lastError,
+        LocalDateTime createdAt
+) implements Serializable {}
@@ -0,0 +1,31 @@
+package com.example.pizza.dto.order;
+
+import com.example.pizza.constants.order.OrderStatus;
+import com.example.pizza.constants.order.PaymentMethod;
+import com.example.pizza.constants.order.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Admin sipariş araması filtreleri (null alanlar uygulanmaz)
+ *
+ * @param productId   Bu ürünü içeren siparişler (nested items)
+ * @param productName Ürün adında geçen metin (nested items)
+ * @param from        orderDate >= from
+ * @param to          orderDate <= to
+ */
+public record OrderSearchFilter(
+        String userEmail,
+        OrderStatus status,
+        Double minPrice,
+        Double maxPrice,
+        Long productId,
+        String productName,
+        String deliveryCity,
+        String deliveryDistrict,
+        PaymentMethod paymentMethod,
+        PaymentStatus paymentStatus,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
@@ -0,0 +1,26 @@
+package com.example.pizza.dto.paginate;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * search_after ile okunan tek sayfa
+ *
+ * @param nextCursor Sonraki sayfa için opak cursor (son sayfada null)
+ * @param pageNumber Cursor zincirindeki sayfa numarası (0 tabanlı, sadece bilgi amaçlı)
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        int pageNumber,
+        int size,
+        long totalHits,
+        Sort sort
+) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor, pageNumber, size, totalHits, sort);
+    }
+}
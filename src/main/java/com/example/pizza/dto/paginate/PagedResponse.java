@@ -1,6 +1,7 @@
 package com.example.pizza.dto.paginate;
 
 import com.example.pizza.dto.order.OrderResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,28 +22,18 @@ public class PagedResponse<T> implements Serializable {
     private PageMetadata page;
     private SortMetadata sort;
 
+    /**
+     * Cursor (search_after) modunda sonraki sayfanın opak cursor'ı; offset modunda yazılmaz
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public PagedResponse(List<OrderResponse> content, int number, int size, long totalElements, int totalPages, boolean last) {
     }
 
     public static <T> PagedResponse<T> of(Page<T> page) {
         // Sort metadata oluştur
-        SortMetadata sortMetadata = null;
-        if (page.getSort().isSorted()) {
-            Sort.Order order = page.getSort().iterator().next();
-            sortMetadata = SortMetadata.builder()
-                    .sorted(true)
-                    .unsorted(false)
-                    .property(order.getProperty())
-                    .direction(order.getDirection().name())
-                    .build();
-        } else {
-            sortMetadata = SortMetadata.builder()
-                    .sorted(false)
-                    .unsorted(true)
-                    .property(null)
-                    .direction(null)
-                    .build();
-        }
+        SortMetadata sortMetadata = toSortMetadata(page.getSort());
 
         // Page metadata oluştur
         PageMetadata pageMetadata = PageMetadata.builder()
@@ -62,4 +53,50 @@ public class PagedResponse<T> implements Serializable {
                 .sort(sortMetadata)
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * search_after (cursor) sayfasından yanıt oluşturur
+     * last: sonraki cursor yoksa true
+     */
+    public static <T> PagedResponse<T> of(CursorPage<T> page) {
+        int totalPages = page.size() == 0 ? 1 : (int) Math.ceil((double) page.totalHits() / page.size());
+
+        PageMetadata pageMetadata = PageMetadata.builder()
+                .number(page.pageNumber())
+                .size(page.size())
+                .totalElements(page.totalHits())
+                .totalPages(totalPages)
+                .first(page.pageNumber() == 0)
+                .last(page.nextCursor() == null)
+                .empty(page.content().isEmpty())
+                .build();
+
+        return PagedResponse.<T>builder()
+                .content(page.content())
+                .page(pageMetadata)
+                .sort(toSortMetadata(page.sort()))
+                .nextCursor(page.nextCursor())
+                .build();
+    }
+
+    private static SortMetadata toSortMetadata(Sort sort) {
+        SortMetadata sortMetadata = null;
+        if (sort.isSorted()) {
+            Sort.Order order = sort.iterator().next();
+            sortMetadata = SortMetadata.builder()
+                    .sorted(true)
+                    .unsorted(false)
+                    .property(order.getProperty())
+                    .direction(order.getDirection().name())
+                    .build();
+        } else {
+            sortMetadata = SortMetadata.builder()
+                    .sorted(false)
+                    .unsorted(true)
+                    .property(null)
+                    .direction(null)
+                    .build();
+        }
+        return sortMetadata;
+    }
+}
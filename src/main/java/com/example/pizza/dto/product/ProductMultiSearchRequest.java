@@ -0,0 +1,44 @@
+package com.example.pizza.dto.product;
+
+import java.util.Map;
+
+/**
+ * /api/search/multi isteği: isim → alt sorgu (tek _msearch ile çalışır)
+ *
+ * Örnek (storefront ana sayfa):
+ * {
+ *   "queries": {
+ *     "suggest":  { "type": "SUGGESTIONS", "query": "piz", "limit": 5 },
+ *     "category": { "type": "SEARCH", "categoryId": 3, "inStock": true, "size": 12 },
+ *     "topRated": { "type": "SEARCH", "sort": "rating,desc", "size": 8 }
+ *   }
+ * }
+ */
+public record ProductMultiSearchRequest(
+        Map<String, SubQuery> queries
+) {
+
+    public enum Type {
+        SEARCH,
+        FACETS,
+        SUGGESTIONS,
+        FUZZY_SUGGESTIONS
+    }
+
+    /**
+     * Arama alanları (query, categoryId, minPrice, maxPrice, inStock, page, size, sort) /api/product/search ile,
+     * limit ise öneri endpoint'leri ile aynı anlamdadır. sort: "alan[,asc|desc]"
+     */
+    public record SubQuery(
+            Type type,
+            String query,
+            Long categoryId,
+            Double minPrice,
+            Double maxPrice,
+            Boolean inStock,
+            Integer page,
+            Integer size,
+            String sort,
+            Integer limit
+    ) {}
+}
@@ -0,0 +1,32 @@
+package com.example.pizza.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * /api/search/multi yanıtındaki tek bir alt sorgunun sonucu
+ * Arama alt sorgularında search, öneri alt sorgularında suggestions dolu olur.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductMultiSearchResult(
+        ProductSearchResponse search,
+        List<String> suggestions
+) {
+
+    public static ProductMultiSearchResult of(Page<ProductResponse> page, ProductSearchFacets facets) {
+        return new ProductMultiSearchResult(ProductSearchResponse.of(page, facets), null);
+    }
+
+    public static ProductMultiSearchResult ofSuggestions(List<String> suggestions) {
+        return new ProductMultiSearchResult(null, suggestions);
+    }
+
+    /**
+     * Analytics için sonuç sayısı (arama: toplam hit, öneri: öneri sayısı)
+     */
+    public int resultCount() {
+        return search != null ? (int) search.getPage().getTotalElements() : suggestions.size();
+    }
+}
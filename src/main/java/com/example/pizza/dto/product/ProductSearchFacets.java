@@ -0,0 +1,21 @@
+package com.example.pizza.dto.product;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Ürün arama facet'leri (tek ES isteğinde aggregation olarak hesaplanır)
+ *
+ * Her facet kendi boyutunun filtresi HARİÇ diğer tüm filtreler uygulanarak sayılır
+ * (disjunctive faceting): kategori seçiliyken diğer kategorilerin sayıları da görünür.
+ */
+public record ProductSearchFacets(
+        List<CategoryFacet> categories,
+        List<PriceRangeFacet> priceRanges,
+        long inStockCount
+) implements Serializable {
+
+    public record CategoryFacet(Long categoryId, String categoryName, long count) implements Serializable {}
+
+    public record PriceRangeFacet(String key, Double from, Double to, long count) implements Serializable {}
+}
@@ -0,0 +1,31 @@
+package com.example.pizza.dto.product;
+
+import com.example.pizza.dto.paginate.PagedResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+/**
+ * /api/product/search yanıtı: PagedResponse + (facets=true ise) facet'ler
+ * facets alanı istenmediğinde JSON'a yazılmaz; mevcut client'lar için yanıt değişmez.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ProductSearchResponse extends PagedResponse<ProductResponse> {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ProductSearchFacets facets;
+
+    public static ProductSearchResponse of(Page<ProductResponse> page, ProductSearchFacets facets) {
+        PagedResponse<ProductResponse> base = PagedResponse.of(page);
+        ProductSearchResponse response = new ProductSearchResponse();
+        response.setContent(base.getContent());
+        response.setPage(base.getPage());
+        response.setSort(base.getSort());
+        response.setFacets(facets);
+        return response;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.pizza.dto.product;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Cache'lenebilir ürün arama sonucu (hits + toplam + opsiyonel facet'ler)
+ */
+public record ProductSearchResult(
+        List<ProductResponse> content,
+        long totalHits,
+        ProductSearchFacets facets
+) implements Serializable {}
@@ -8,12 +8,12 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
+/**
+ * Ham arama olayı. Tablo created_at üzerinden aylık RANGE partition'lıdır (PHASE 7.4);
+ * yazım SearchLogBuffer (JDBC), analitik okuma pizza.search_analytics_rollups üzerinden yapılır.
+ */
 @Entity
-@Table(name = "search_logs", indexes = {
-        @Index(name = "idx_search_query", columnList = "query"),
-        @Index(name = "idx_search_created", columnList = "createdAt"),
-        @Index(name = "idx_search_category", columnList = "categoryId")
-})
+@Table(name = "search_logs")
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
@@ -51,8 +51,8 @@ public class SearchLog {
     @Column(length = 45) // IPv6 support
     private String ipAddress;
 
-    @Column(length = 500)
-    private String userAgent;
+    @Column(name = "user_agent_id")
+    private Integer userAgentId; // pizza.search_user_agents.id
 
     @Column(name = "response_time_ms")
     private Long responseTimeMs;
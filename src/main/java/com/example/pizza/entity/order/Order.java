@@ -69,6 +69,12 @@ public class Order {
     @Column(name = "notes")
     private String notes;
 
+    /**
+     * Son güncellenme zamanı (Elasticsearch delta sync watermark'ı)
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference(value = "order-items")
     @ToString.Exclude
@@ -110,6 +116,9 @@ public class Order {
                 throw new IllegalStateException("Misafir siparişi için alıcı adı gereklidir");
             }
         }
+
+        // 3. Delta sync için updated_at
+        this.updatedAt = LocalDateTime.now();
     }
 
     public String getOrderEmail() {
@@ -1,6 +1,8 @@
 package com.example.pizza.entity.order;
 
 import com.example.pizza.constants.order.OrderStatus;
+import com.example.pizza.constants.order.PaymentMethod;
+import com.example.pizza.constants.order.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -10,8 +12,15 @@ import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Denormalize sipariş dokümanı
+ *
+ * Admin filtreleri (ürün, teslimat ilçesi, ödeme durumu, tarih aralığı) tamamen ES'ten
+ * cevaplanır; OrderRepository JOIN FETCH sorgularına düşülmez.
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -23,6 +32,9 @@ public class OrderDocument {
     @Field(type = FieldType.Long)
     private Long id;
 
+    @Field(type = FieldType.Long)
+    private Long userId;
+
     @Field(type = FieldType.Text, analyzer = "standard")
     private String userEmail;
 
@@ -33,5 +45,23 @@ public class OrderDocument {
     private Double totalAmount;
 
     @Field(type = FieldType.Date)
-    private LocalDate orderDate;
+    private LocalDateTime orderDate;
+
+    @Field(type = FieldType.Keyword)
+    private String deliveryCity;
+
+    @Field(type = FieldType.Keyword)
+    private String deliveryDistrict;
+
+    @Field(type = FieldType.Keyword)
+    private PaymentMethod paymentMethod;
+
+    @Field(type = FieldType.Keyword)
+    private PaymentStatus paymentStatus;
+
+    @Field(type = FieldType.Integer)
+    private Integer itemCount;
+
+    @Field(type = FieldType.Nested)
+    private List<OrderItemDocument> items;
 }
@@ -0,0 +1,31 @@
+package com.example.pizza.entity.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.elasticsearch.annotations.Field;
+import org.springframework.data.elasticsearch.annotations.FieldType;
+
+/**
+ * OrderDocument içindeki nested sipariş kalemi
+ * ("X ürününü içeren siparişler" sorguları için ürün id/adı sipariş dokümanında tutulur)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemDocument {
+
+    @Field(type = FieldType.Long)
+    private Long productId;
+
+    @Field(type = FieldType.Text, analyzer = "standard")
+    private String productName;
+
+    @Field(type = FieldType.Integer)
+    private Integer quantity;
+
+    @Field(type = FieldType.Double)
+    private Double price;
+}
@@ -25,7 +25,8 @@ import java.time.LocalDateTime;
  * - Automatic timestamps with JPA Auditing
  *
  * Security Considerations:
- * - Tokens are stored as plain strings (UUID-based)
+ * - Only the SHA-256 hash of the token is stored (fixed-width 32 byte bytea, PHASE 7.8);
+ *   the raw token is returned to the client once and never persisted
  * - Can be revoked at any time (logout, security breach)
  * - Expired tokens are cleaned up via scheduled task
  * - One-time use enforced by deletion after refresh
@@ -35,7 +36,7 @@ import java.time.LocalDateTime;
         schema = "pizza",
         name = "refresh_tokens",
         indexes = {
-                @Index(name = "idx_refresh_token", columnList = "token"),
+                @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash", unique = true),
                 @Index(name = "idx_refresh_token_user_id", columnList = "user_id"),
                 @Index(name = "idx_refresh_token_expiry", columnList = "expiry_date")
         }
@@ -51,7 +52,18 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "token", nullable = false, unique = true, length = 255)
+    /**
+     * SHA-256(token) - lookups, rotation and revocation use this column
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    /**
+     * Raw token string (UUID)
+     * - Only populated on a newly created token so it can be returned to the client
+     * - Not persisted; null on tokens loaded from the database
+     */
+    @Transient
     private String token;
 
     /**
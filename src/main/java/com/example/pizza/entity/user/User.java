@@ -69,6 +69,20 @@ public class User implements UserDetails {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
+    /**
+     * Rol, durum veya şifre değiştiğinde artar; cache'lenmiş UserPrincipal'ları geçersiz kılar
+     */
+    @JsonIgnore
+    @Column(name = "security_version", nullable = false)
+    private long securityVersion = 0;
+
+    /**
+     * Son güncellenme zamanı (Elasticsearch delta sync watermark'ı)
+     * DB tarafında trigger ile de güncellenir (JPQL/JDBC bulk update'ler için)
+     */
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @Column(name = "google_id")
     private String googleId;
 
@@ -92,6 +106,12 @@ public class User implements UserDetails {
     @EqualsAndHashCode.Exclude
     private List<Order> orders = new ArrayList<>();
 
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
     @Override
     @JsonIgnore
     public Collection<? extends GrantedAuthority> getAuthorities() {
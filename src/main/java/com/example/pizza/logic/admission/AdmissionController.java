@@ -0,0 +1,80 @@
+package com.example.pizza.logic.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Endpoint sınıfı başına adaptif eş zamanlılık limiti + öncelikli yük atma
+ *
+ * Bir istek kabul edilir eğer:
+ * 1. Kendi sınıfının öğrenilmiş limitinin altındaysa (GradientConcurrencyLimit), ve
+ * 2. Kendisinden yüksek öncelikli, baskı kaynağı olan hiçbir sınıf baskı altında değilse
+ *    (inflight ≥ limit · utilization-threshold, veya limitin yarısı kullanılırken latency gradient'i
+ *    gradient-threshold'un altında)
+ *
+ * Böylece checkout yüklenip yavaşlamaya başladığında önce admin, sonra search, sonra catalog yeni istek almaz;
+ * Tomcat thread'leri ve Hikari bağlantıları checkout'a kalır. Checkout ve payment sadece kendi limitleriyle
+ * sınırlıdır; payment (dış ödeme servisi) baskı kaynağı sayılmaz.
+ */
+@Component
+public class AdmissionController {
+
+    private static final EndpointClass[] CLASSES = EndpointClass.values();
+
+    private final Map<EndpointClass, GradientConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+
+    private final double utilizationThreshold;
+    private final double gradientThreshold;
+    private final long pressureWindowNanos;
+
+    public AdmissionController(@Value("${admission.initial-limit:20}") int initialLimit,
+                               @Value("${admission.min-limit:4}") int minLimit,
+                               @Value("${admission.max-limit:200}") int maxLimit,
+                               @Value("${admission.utilization-threshold:0.9}") double utilizationThreshold,
+                               @Value("${admission.gradient-threshold:0.8}") double gradientThreshold,
+                               @Value("${admission.pressure-window-ms:1000}") long pressureWindowMs,
+                               MeterRegistry meterRegistry) {
+        this.utilizationThreshold = utilizationThreshold;
+        this.gradientThreshold = gradientThreshold;
+        this.pressureWindowNanos = TimeUnit.MILLISECONDS.toNanos(pressureWindowMs);
+
+        for (EndpointClass endpointClass : CLASSES) {
+            GradientConcurrencyLimit limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit);
+            limits.put(endpointClass, limit);
+            rejections.put(endpointClass,
+                    meterRegistry.counter("admission.rejected", "class", endpointClass.getValue()));
+            Gauge.builder("admission.limit", limit, GradientConcurrencyLimit::getLimit)
+                    .tag("class", endpointClass.getValue()).register(meterRegistry);
+            Gauge.builder("admission.inflight", limit, GradientConcurrencyLimit::getInflight)
+                    .tag("class", endpointClass.getValue()).register(meterRegistry);
+            Gauge.builder("admission.gradient", limit, GradientConcurrencyLimit::getGradient)
+                    .tag("class", endpointClass.getValue()).register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return Slot alındıysa limit (bitince release(rtt) çağrılmalı), reddedildiyse null
+     */
+    public GradientConcurrencyLimit tryAdmit(EndpointClass endpointClass) {
+        for (int i = 0; i < endpointClass.ordinal(); i++) {
+            if (CLASSES[i].isPressureSource() && limits.get(CLASSES[i]).isUnderPressure(utilizationThreshold, gradientThreshold, pressureWindowNanos)) {
+                rejections.get(endpointClass).increment();
+                return null;
+            }
+        }
+        GradientConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            rejections.get(endpointClass).increment();
+            return null;
+        }
+        return limit;
+    }
+}
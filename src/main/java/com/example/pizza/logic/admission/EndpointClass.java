@@ -0,0 +1,97 @@
+package com.example.pizza.logic.admission;
+
+/**
+ * Admission control için endpoint sınıfları (öncelik sırasıyla, en yüksek önce)
+ *
+ * Aşırı yükte düşük öncelikli sınıflar önce reddedilir: baskı kaynağı olan bir yüksek öncelikli sınıf
+ * baskı altındayken (limitine yaklaştı veya yüklüyken latency artıyor) ondan düşük sınıflar yeni istek almaz.
+ *
+ * Ödeme ayrı bir sınıftır: latency'si dış ödeme sağlayıcısına bağlıdır, checkout'un RTT referansını bozmaz
+ * ve yavaşladığında diğer sınıfları reddettirmez (yerel yük atmak dış servisi hızlandırmaz).
+ */
+public enum EndpointClass {
+
+    /** Ödeme sağlayıcısı çağrıları - hiçbir zaman başka sınıf yüzünden reddedilmez, baskı kaynağı değildir */
+    PAYMENT("payment", false),
+
+    /** Sipariş - gelir kritik, hiçbir zaman başka sınıf yüzünden reddedilmez */
+    CHECKOUT("checkout", true),
+
+    /** Katalog okumaları ve diğer etkileşimli istekler (auth, kullanıcı profili...) */
+    CATALOG("catalog", true),
+
+    /** Arama, öneri, facet */
+    SEARCH("search", true),
+
+    /** Admin paneli, raporlama, reindex - ertelenebilir */
+    ADMIN("admin", true);
+
+    private final String value;
+    private final boolean pressureSource;
+
+    EndpointClass(String value, boolean pressureSource) {
+        this.value = value;
+        this.pressureSource = pressureSource;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return Bu sınıf baskı altındayken daha düşük öncelikli sınıflar reddedilir mi
+     */
+    public boolean isPressureSource() {
+        return pressureSource;
+    }
+
+    /**
+     * İlk eşleşen kural kazanır (admin alt yolları checkout/search prefix'lerinden önce kontrol edilir)
+     *
+     * @param method HTTP metodu: aynı yol (/api/orders) POST'ta sipariş verme, GET'te tüm siparişlerin listesidir
+     */
+    public static EndpointClass classify(String method, String requestUri) {
+        if (requestUri.startsWith("/api/admin/") || requestUri.endsWith("/reindex")) {
+            return ADMIN;
+        }
+        if (requestUri.startsWith("/api/search/") || requestUri.startsWith("/api/product/search")
+                || requestUri.startsWith("/api/category/search")) {
+            return SEARCH;
+        }
+        if (requestUri.startsWith("/api/payment/")) {
+            return PAYMENT;
+        }
+        if (requestUri.equals("/api/orders") || requestUri.startsWith("/api/orders/")) {
+            return classifyOrders(method, requestUri.substring("/api/orders".length()));
+        }
+        return CATALOG;
+    }
+
+    /**
+     * Checkout sadece müşterinin kendi sipariş akışıdır: sipariş verme, kendi siparişleri, sipariş detayı
+     * ve iptal. Personel/admin uçları (tüm siparişler, duruma göre liste, durum güncelleme, /admin/**) ADMIN.
+     */
+    private static EndpointClass classifyOrders(String method, String subPath) {
+        String path = subPath.endsWith("/") ? subPath.substring(0, subPath.length() - 1) : subPath;
+        if (path.isEmpty()) {
+            return "POST".equals(method) ? CHECKOUT : ADMIN;
+        }
+        if (path.equals("/my-orders")) {
+            return CHECKOUT;
+        }
+        int slash = path.indexOf('/', 1);
+        String first = slash < 0 ? path.substring(1) : path.substring(1, slash);
+        if (first.equals("admin") || first.equals("status")) {
+            return ADMIN;
+        }
+        if (slash < 0 || path.substring(slash).equals("/cancel")) {
+            return CHECKOUT; // /{id}, /{id}/cancel
+        }
+        return ADMIN;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
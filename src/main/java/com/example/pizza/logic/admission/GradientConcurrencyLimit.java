@@ -0,0 +1,130 @@
+package com.example.pizza.logic.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gözlenen latency'den öğrenilen eş zamanlılık limiti (gradient tabanlı, Netflix Gradient2 benzeri)
+ *
+ * - shortRtt: son isteklerin latency EWMA'sı; longRtt: yavaş EWMA (sistemin "sağlıklı" referansı)
+ * - gradient = clamp(1.5 · longRtt / shortRtt, 0.5, 1.0): %50 RTT toleransı; latency referansın 1.5 katını
+ *   geçtikçe 1'in altına düşer (normal jitter ve tek tük yavaş istekler limiti küçültmez)
+ * - yeni limit = limit · gradient + sqrt(limit) (kuyruk payı), smoothing ile yumuşatılır, [min, max] aralığında
+ * - Limit sadece gerçekten kullanılıyorsa (inflight ≥ limit/2) değişir: boştayken artan latency kuyruk/yük
+ *   kaynaklı değildir (ör. yavaş bir dış servis), limit ne büyür ne küçülür
+ * - Baskı sinyali de aynı koşula bağlıdır: limite yakın çalışmayan sınıf baskı altında sayılmaz
+ * - longRtt, shortRtt'nin 2 katından fazlaysa yavaşça düşürülür (uzun yük sonrası referans kayması)
+ *
+ * tryAcquire/release kilitsizdir (CAS); örnek güncellemesi tryLock ile yapılır, yarışta örnek atlanır.
+ */
+public final class GradientConcurrencyLimit {
+
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double UTILIZED_FRACTION = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private volatile double limit;
+    private volatile double gradient = 1.0;
+    private volatile long lastSampleNanos;
+
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * @return Limitin altındaysa true (slot alındı; release() çağrılmalı)
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos İsteğin süresi
+     */
+    public void release(long rttNanos) {
+        int inflightAtCompletion = inflight.getAndDecrement();
+        sample(rttNanos, inflightAtCompletion);
+    }
+
+    private void sample(long rttNanos, int inflightAtCompletion) {
+        if (rttNanos <= 0 || !updateLock.tryLock()) {
+            return;
+        }
+        try {
+            lastSampleNanos = System.nanoTime();
+            if (longRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+                return;
+            }
+            shortRttNanos += SHORT_ALPHA * (rttNanos - shortRttNanos);
+            longRttNanos += LONG_ALPHA * (rttNanos - longRttNanos);
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double currentLimit = limit;
+            double newGradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+            gradient = newGradient;
+
+            if (inflightAtCompletion < currentLimit * UTILIZED_FRACTION) {
+                return; // Limit kullanılmıyor: ne büyütmek ne küçültmek için kanıt var
+            }
+            double target = currentLimit * newGradient + Math.sqrt(currentLimit);
+            double smoothed = currentLimit * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Baskı altında: limite yakın çalışıyor (inflight ≥ limit · utilizationThreshold) veya limitin en az
+     * yarısı kullanılırken latency referansın belirgin üstünde. Son windowNanos içinde örnek yoksa
+     * gradient sinyali yok sayılır.
+     */
+    public boolean isUnderPressure(double utilizationThreshold, double gradientThreshold, long windowNanos) {
+        int current = inflight.get();
+        double currentLimit = limit;
+        if (current >= currentLimit * utilizationThreshold) {
+            return true;
+        }
+        return current >= currentLimit * UTILIZED_FRACTION
+                && System.nanoTime() - lastSampleNanos < windowNanos
+                && gradient < gradientThreshold;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public double getGradient() {
+        return gradient;
+    }
+}
@@ -1,24 +1,40 @@
 package com.example.pizza.logic.interceptor;
 
 import com.example.pizza.config.performance.RateLimitConfig;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.ConsumptionProbe;
+import com.example.pizza.logic.ratelimit.RateLimitDecision;
+import com.example.pizza.logic.ratelimit.RateLimiter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.nio.charset.StandardCharsets;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
+    /**
+     * 0..3600 saniyelik bekleme süreleri için hazır 429 gövdeleri: dakikalık limitlerin kullandığı
+     * 0..120 açılışta üretilir, daha uzunları ilk kullanımda
+     */
+    private static final byte[][] REJECTION_BODIES = new byte[3601][];
+
+    static {
+        for (int seconds = 0; seconds <= 120; seconds++) {
+            REJECTION_BODIES[seconds] = buildRejectionBody(seconds);
+        }
+    }
+
     private final RateLimitConfig rateLimitConfig;
+    private final RateLimiter rateLimiter;
 
     @Override
     public boolean preHandle(HttpServletRequest request,
@@ -36,43 +52,60 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        // Get rate limit key (userId or IP)
-        String key = getRateLimitKey(request);
-
-        // Resolve bucket (endpoint-specific or default)
-        Bucket bucket = rateLimitConfig.resolveBucket(key, requestURI);
+        // Get rate limit key (hashed userId or IP)
+        long key = getRateLimitKey(request);
 
-        // Try to consume 1 token
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        // Try to consume 1 token (endpoint-specific or default bucket, local or distributed)
+        RateLimitDecision decision = rateLimiter.tryConsume(key, requestURI);
 
-        if (probe.isConsumed()) {
+        if (decision.consumed()) {
             // Request allowed - add rate limit headers
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(decision.remainingTokens()));
             log.debug("Rate limit check passed for key: {} on endpoint: {} (remaining: {})",
-                    key, requestURI, probe.getRemainingTokens());
+                    key, requestURI, decision.remainingTokens());
             return true;
         } else {
             // Rate limit exceeded
-            long waitForRefill = probe.getNanosToWaitForRefill() / 1_000_000_000; // Convert to seconds
+            long waitForRefill = decision.nanosToWaitForRefill() / 1_000_000_000; // Convert to seconds
 
+            byte[] body = rejectionBody(waitForRefill);
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
             response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
-            response.setContentType("application/json");
-            response.getWriter().write(String.format(
-                    "{\"error\": \"Too Many Requests\", " +
-                            "\"message\": \"Rate limit exceeded. Please try again in %d seconds.\", " +
-                            "\"retryAfter\": %d}",
-                    waitForRefill, waitForRefill
-            ));
-
-            log.warn("Rate limit exceeded for key: {} on endpoint: {} (retry after: {}s)",
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+
+            // Scraping altında her ret için WARN log'u basılmaz
+            log.debug("Rate limit exceeded for key: {} on endpoint: {} (retry after: {}s)",
                     key, requestURI, waitForRefill);
 
             return false;
         }
     }
 
-    private String getRateLimitKey(HttpServletRequest request) {
+    /**
+     * 429 gövdesi: bekleme süresi başına bir kez üretilir ve tekrar kullanılır (istek başına formatlama yok)
+     */
+    private static byte[] rejectionBody(long retryAfterSeconds) {
+        if (retryAfterSeconds < 0 || retryAfterSeconds >= REJECTION_BODIES.length) {
+            return buildRejectionBody(retryAfterSeconds);
+        }
+        int index = (int) retryAfterSeconds;
+        byte[] body = REJECTION_BODIES[index];
+        if (body == null) {
+            body = buildRejectionBody(retryAfterSeconds);
+            REJECTION_BODIES[index] = body; // Yarış zararsız: aynı içerik
+        }
+        return body;
+    }
+
+    private static byte[] buildRejectionBody(long retryAfterSeconds) {
+        return ("{\"error\": \"Too Many Requests\", "
+                + "\"message\": \"Rate limit exceeded. Please try again in " + retryAfterSeconds + " seconds.\", "
+                + "\"retryAfter\": " + retryAfterSeconds + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long getRateLimitKey(HttpServletRequest request) {
         // Try to get authenticated user
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -81,20 +114,21 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             // Use userId for authenticated users
             String userId = authentication.getName();
             log.debug("Rate limit key: userId={}", userId);
-            return "user:" + userId;
+            return rateLimiter.userKey(userId);
         }
 
         // Use IP address for anonymous users
         String ipAddress = getClientIP(request);
         log.debug("Rate limit key: IP={}", ipAddress);
-        return "ip:" + ipAddress;
+        return rateLimiter.ipKey(ipAddress);
     }
 
     private String getClientIP(HttpServletRequest request) {
         String xForwardedFor = request.getHeader("X-Forwarded-For");
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
             // X-Forwarded-For can contain multiple IPs, take the first one
-            return xForwardedFor.split(",")[0].trim();
+            int comma = xForwardedFor.indexOf(',');
+            return (comma >= 0 ? xForwardedFor.substring(0, comma) : xForwardedFor).trim();
         }
 
         String xRealIP = request.getHeader("X-Real-IP");
@@ -0,0 +1,19 @@
+package com.example.pizza.logic.ratelimit;
+
+/**
+ * Tek bir rate limit kontrolünün sonucu (yerel Bucket4j veya dağıtık limiter)
+ *
+ * @param consumed          İstek kabul edildiyse true
+ * @param remainingTokens   Kalan token (dağıtık modda yaklaşık: yerel lease + son görülen Redis değeri)
+ * @param nanosToWaitForRefill Reddedildiyse bir sonraki token'a kadar bekleme süresi
+ */
+public record RateLimitDecision(boolean consumed, long remainingTokens, long nanosToWaitForRefill) {
+
+    public static RateLimitDecision allowed(long remainingTokens) {
+        return new RateLimitDecision(true, remainingTokens, 0);
+    }
+
+    public static RateLimitDecision rejected(long nanosToWaitForRefill) {
+        return new RateLimitDecision(false, 0, nanosToWaitForRefill);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.pizza.logic.ratelimit;
+
+import com.example.pizza.config.performance.RateLimitConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit kararı: app.rate-limit.mode'a göre yerel Bucket4j veya Redis'te paylaşılan bucket
+ *
+ * Bucket store:
+ * - Anahtar sabit genişlikli long: 64-bit istemci hash'i (kullanıcı adı / IP) ile route numarasının karışımı;
+ *   istek başına "ip:...:/api/..." gibi string üretilmez ve ham IP/email bellekte anahtar olarak tutulmaz
+ * - İstemci hash'i secret anahtarlı HMAC-SHA256'dır (app.rate-limit.key-secret): secret'ı bilmeyen biri
+ *   başka bir kullanıcının bucket'ına düşen bir email/IP seçip onun limitini tüketemez
+ * - Caffeine ile boyut (max-buckets) ve boşta kalma süresi (idle-timeout-minutes) sınırlı: istemci sayısı ne
+ *   olursa olsun bellek sınırlı kalır (scraping altında sızıntı yok)
+ * - Route eşleşmesi önceden derlenmiş şablon/prefix'lerle (RouteLimits): /api/orders/123, /api/orders limitini alır
+ *
+ * Dağıtık mod (lease prefetch):
+ * - Her node, anahtar başına Redis bucket'ından küçük bir token grubu (lease) alır; lease bitene kadar
+ *   istekler sadece bellekte sayılır, Redis'e gidilmez
+ * - Lease boyutu min(lease-size, capacity/10) (en az 1): düşük limitli endpoint'lerde (ör. register 5/dk)
+ *   tek node bütün bucket'ı kapmaz
+ * - Kullanılmayan lease token'ları lease-ttl-millis sonra atılır; limit en fazla node başına lease boyutu kadar
+ *   aşılabilir (Redis'te zaten tüketilmiş sayılırlar)
+ * - Limit dolduğunda ret kararı bir sonraki token zamanına kadar (en fazla lease-ttl) yerelde tekrarlanır:
+ *   sınırı zorlayan istemci her istekte Redis'e gitmez
+ * - Aynı anahtar için eş zamanlı istekler tek Redis çağrısını bekler (anahtar başına kilit)
+ * - Redis erişilemezse yerel Bucket4j bucket'ına düşülür (node başına limit); hatadan sonra redis-retry-millis
+ *   boyunca Redis hiç denenmez (devre açık): kesinti sırasında istekler Redis timeout'unu beklemez
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final byte USER_DOMAIN = 'u';
+    private static final byte IP_DOMAIN = 'i';
+    private static final long ROUTE_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private static final class LeaseState {
+        long tokens;
+        long remoteRemaining;
+        long expiresAtNanos;
+        long deniedUntilNanos;
+    }
+
+    private final RateLimitConfig rateLimitConfig;
+    private final RedisTokenBucket redisTokenBucket;
+    private final MeterRegistry meterRegistry;
+
+    private final Counter leaseCounter;
+    private final Counter fallbackCounter;
+
+    private RouteLimits routeLimits;
+    private Cache<Long, Bucket> localBuckets;
+    private Cache<Long, LeaseState> leases;
+    private ThreadLocal<Mac> clientKeyMac;
+
+    /** Bu zamana (System.nanoTime) kadar Redis denenmez */
+    private volatile long redisRetryAtNanos = System.nanoTime();
+
+    public RateLimiter(RateLimitConfig rateLimitConfig, RedisTokenBucket redisTokenBucket, MeterRegistry meterRegistry) {
+        this.rateLimitConfig = rateLimitConfig;
+        this.redisTokenBucket = redisTokenBucket;
+        this.meterRegistry = meterRegistry;
+        this.leaseCounter = meterRegistry.counter("rate-limit.distributed.leases");
+        this.fallbackCounter = meterRegistry.counter("rate-limit.distributed.fallbacks");
+    }
+
+    @PostConstruct
+    public void init() {
+        clientKeyMac = clientKeyMac(rateLimitConfig.getKeySecret());
+        routeLimits = new RouteLimits(rateLimitConfig);
+        localBuckets = boundedStore();
+        leases = boundedStore();
+        CaffeineCacheMetrics.monitor(meterRegistry, localBuckets, "rate-limit-buckets");
+        CaffeineCacheMetrics.monitor(meterRegistry, leases, "rate-limit-leases");
+    }
+
+    /**
+     * @return Kimliği doğrulanmış kullanıcı için istemci anahtarı
+     */
+    public long userKey(String username) {
+        return clientKey(USER_DOMAIN, username);
+    }
+
+    /**
+     * @return Anonim istemci (IP) için istemci anahtarı
+     */
+    public long ipKey(String ipAddress) {
+        return clientKey(IP_DOMAIN, ipAddress);
+    }
+
+    /**
+     * HMAC-SHA256(secret, domain || value)'nun ilk 64 biti; domain byte'ı kullanıcı adı ile IP'yi ayırır
+     */
+    private long clientKey(byte domain, String value) {
+        Mac mac = clientKeyMac.get();
+        mac.update(domain);
+        return ByteBuffer.wrap(mac.doFinal(value.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private ThreadLocal<Mac> clientKeyMac(String configuredSecret) {
+        byte[] secret;
+        if (configuredSecret == null || configuredSecret.isBlank()) {
+            // Node'a özel secret'la her node ayrı Redis bucket'ına yazar: limit node sayısıyla çarpılır
+            if (rateLimitConfig.isDistributed()) {
+                throw new IllegalStateException(
+                        "app.rate-limit.key-secret must be set when app.rate-limit.mode=distributed");
+            }
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = configuredSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        SecretKeySpec key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    public RateLimitDecision tryConsume(long clientKey, String requestUri) {
+        RouteLimits.Route route = routeLimits.resolve(requestUri);
+        long bucketKey = clientKey ^ (route.id() * ROUTE_MULTIPLIER);
+
+        if (rateLimitConfig.isDistributed()) {
+            if (System.nanoTime() - redisRetryAtNanos >= 0) {
+                try {
+                    return tryConsumeDistributed(bucketKey, route);
+                } catch (Exception e) {
+                    redisRetryAtNanos = System.nanoTime()
+                            + TimeUnit.MILLISECONDS.toNanos(rateLimitConfig.getRedisRetryMillis());
+                    log.warn("Distributed rate limit unavailable, using node-local buckets for {} ms: {}",
+                            rateLimitConfig.getRedisRetryMillis(), e.getMessage());
+                }
+            }
+            fallbackCounter.increment();
+        }
+        Bucket bucket = localBuckets.get(bucketKey, k -> newBucket(route));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        return probe.isConsumed()
+                ? RateLimitDecision.allowed(probe.getRemainingTokens())
+                : RateLimitDecision.rejected(probe.getNanosToWaitForRefill());
+    }
+
+    private RateLimitDecision tryConsumeDistributed(long bucketKey, RouteLimits.Route route) {
+        LeaseState state = leases.get(bucketKey, k -> new LeaseState());
+
+        synchronized (state) {
+            long now = System.nanoTime();
+            if (state.tokens > 0 && now - state.expiresAtNanos < 0) {
+                state.tokens--;
+                return RateLimitDecision.allowed(state.tokens + state.remoteRemaining);
+            }
+            if (now - state.deniedUntilNanos < 0) {
+                return RateLimitDecision.rejected(state.deniedUntilNanos - now);
+            }
+
+            long leaseSize = Math.max(1, Math.min(rateLimitConfig.getLeaseSize(), route.capacity() / 10));
+            RedisTokenBucket.Lease lease = redisTokenBucket.lease(Long.toHexString(bucketKey), route.capacity(),
+                    route.refillTokens(), route.refillPeriod().toMillis(), leaseSize);
+            leaseCounter.increment();
+
+            long leaseTtlNanos = TimeUnit.MILLISECONDS.toNanos(rateLimitConfig.getLeaseTtlMillis());
+            if (lease.granted() > 0) {
+                state.tokens = lease.granted() - 1;
+                state.remoteRemaining = lease.remaining();
+                state.expiresAtNanos = now + leaseTtlNanos;
+                return RateLimitDecision.allowed(state.tokens + state.remoteRemaining);
+            }
+
+            state.tokens = 0;
+            long waitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, lease.millisToNextToken()));
+            state.deniedUntilNanos = now + Math.min(waitNanos, leaseTtlNanos);
+            return RateLimitDecision.rejected(waitNanos);
+        }
+    }
+
+    private <V> Cache<Long, V> boundedStore() {
+        return Caffeine.newBuilder()
+                .maximumSize(rateLimitConfig.getMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(rateLimitConfig.getIdleTimeoutMinutes()))
+                .recordStats()
+                .build();
+    }
+
+    private static Bucket newBucket(RouteLimits.Route route) {
+        Bandwidth limit = Bandwidth.builder()
+                .capacity(route.capacity())
+                .refillGreedy(route.refillTokens(), route.refillPeriod())
+                .build();
+        return Bucket.builder()
+                .addLimit(limit)
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.pizza.logic.ratelimit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis'te tutulan, tüm node'ların paylaştığı token bucket (Lua script ile atomik)
+ *
+ * - State: hash {tokens, ts}; refill sürekli (Bucket4j refillGreedy ile aynı), saat olarak Redis TIME
+ *   kullanılır (node saat farkları limiti bozmaz)
+ * - Bir çağrıda en fazla requested token alınır (lease); yetersizse olan kadar verilir
+ * - Anahtar, bucket tekrar dolana kadar yaşar (PEXPIRE): boşta kalan istemciler Redis'te yer tutmaz
+ */
+@Component
+public class RedisTokenBucket {
+
+    static final String KEY_PREFIX = "pizza:rate-limit:";
+
+    /** Lua integer reply'leri Long olarak döner */
+    @SuppressWarnings("unchecked")
+    private static final Class<List<Long>> LONG_LIST = (Class<List<Long>>) (Class<?>) List.class;
+
+    /**
+     * KEYS[1] = bucket; ARGV = capacity, refillTokens, refillPeriodMs, requested
+     * Dönüş: {granted, remaining, msUntilNextToken}
+     */
+    private static final RedisScript<List<Long>> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill = tonumber(ARGV[2])
+            local period = tonumber(ARGV[3])
+            local requested = tonumber(ARGV[4])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            if now > ts then
+                tokens = math.min(capacity, tokens + (now - ts) * refill / period)
+                ts = now
+            end
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))
+            redis.call('PEXPIRE', KEYS[1], math.max(1000, math.ceil((capacity - tokens) * period / refill)))
+            local wait = 0
+            if tokens < 1 then
+                wait = math.ceil((1 - tokens) * period / refill)
+            end
+            return {granted, math.floor(tokens), wait}
+            """, LONG_LIST);
+
+    /**
+     * @param granted          Alınan token sayısı (0 = limit doldu)
+     * @param remaining        Redis'te kalan token
+     * @param millisToNextToken Bir sonraki token'a kadar süre (remaining = 0 iken anlamlı)
+     */
+    public record Lease(long granted, long remaining, long millisToNextToken) {
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    public RedisTokenBucket(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    public Lease lease(String bucketKey, long capacity, long refillTokens, long refillPeriodMillis, long requested) {
+        List<Long> result = stringRedisTemplate.execute(LEASE_SCRIPT, List.of(KEY_PREFIX + bucketKey),
+                String.valueOf(capacity), String.valueOf(refillTokens), String.valueOf(refillPeriodMillis),
+                String.valueOf(requested));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Unexpected rate limit script result: " + result);
+        }
+        return new Lease(result.get(0), result.get(1), result.get(2));
+    }
+}
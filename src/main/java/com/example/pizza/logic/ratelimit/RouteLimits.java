@@ -0,0 +1,123 @@
+package com.example.pizza.logic.ratelimit;
+
+import com.example.pizza.config.performance.RateLimitConfig;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Önceden derlenmiş endpoint limitleri (istek başına string birleştirme / map araması yok)
+ *
+ * - Düz yol ("/api/orders"): prefix olarak eşleşir - kendisi ve "/api/orders/..." (ama "/api/ordersX" değil);
+ *   kontrol iki String karşılaştırması
+ * - Şablon ("/api/orders/{id}", "/api/**"): PathPattern olarak bir kez parse edilir
+ * - Route numarası yapılandırılmış yolun sabit hash'idir (String.hashCode, JLS'te tanımlı): Map sırası
+ *   JVM'den JVM'e değişse de her replica aynı Redis bucket anahtarını üretir
+ * - Sıralama: şablonlar ve prefix'ler birlikte, literal kısmın (ilk '{' / '*' öncesi) uzunluğuna göre;
+ *   böylece "/api/**" gibi geniş bir şablon "/api/auth/login" limitini gölgelemez. Eşitlikte şablon
+ *   (açıkça yazılmış, daha spesifik) önce, şablonlar kendi içinde SPECIFICITY_COMPARATOR ile;
+ *   hiçbiri eşleşmezse varsayılan limit
+ */
+final class RouteLimits {
+
+    /**
+     * @param id Bucket anahtarına karışan route numarası (0 = varsayılan limit)
+     */
+    record Route(int id, String name, int capacity, int refillTokens, Duration refillPeriod) {
+    }
+
+    /**
+     * @param literal Yolun ilk '{' / '*' öncesi kısmı, sondaki '/' olmadan
+     * @param pattern Şablon route'larında derlenmiş PathPattern; düz yollarda null
+     */
+    private record Candidate(String literal, String literalWithSlash, PathPattern pattern, Route route) {
+
+        boolean isTemplate() {
+            return pattern != null;
+        }
+    }
+
+    private static final Comparator<Candidate> PRECEDENCE =
+            Comparator.comparingInt((Candidate c) -> c.literal().length()).reversed()
+                    .thenComparing(c -> !c.isTemplate())
+                    .thenComparing((a, b) -> a.isTemplate()
+                            ? PathPattern.SPECIFICITY_COMPARATOR.compare(a.pattern(), b.pattern())
+                            : 0);
+
+    private final Candidate[] candidates;
+    private final Route defaultRoute;
+
+    RouteLimits(RateLimitConfig config) {
+        Map<Integer, String> ids = new HashMap<>();
+        this.defaultRoute = new Route(0, "default", config.getCapacity(), config.getRefillTokens(),
+                Duration.ofMinutes(config.getRefillDurationMinutes()));
+
+        PathPatternParser parser = new PathPatternParser();
+        List<Candidate> routes = new ArrayList<>();
+        for (Map.Entry<String, RateLimitConfig.EndpointLimit> entry : config.getEndpoints().entrySet()) {
+            String path = entry.getKey();
+            RateLimitConfig.EndpointLimit limit = entry.getValue();
+            int id = routeId(path);
+            String clash = ids.putIfAbsent(id, path);
+            if (clash != null) {
+                throw new IllegalStateException("Rate limit routes '" + clash + "' and '" + path
+                        + "' hash to the same route id; rename one of them");
+            }
+            Route route = new Route(id, path, limit.getCapacity(), limit.getCapacity(),
+                    Duration.ofMinutes(limit.getRefillMinutes()));
+            boolean template = path.contains("{") || path.contains("*");
+            String literal = stripTrailingSlash(template ? path.substring(0, firstVariable(path)) : path);
+            routes.add(new Candidate(literal, literal + "/", template ? parser.parse(path) : null, route));
+        }
+        routes.sort(PRECEDENCE);
+        this.candidates = routes.toArray(new Candidate[0]);
+    }
+
+    /**
+     * Yolun sabit, sıfırdan farklı numarası (0 varsayılan limite ayrılmıştır)
+     */
+    static int routeId(String path) {
+        int hash = path.hashCode();
+        return hash != 0 ? hash : 1;
+    }
+
+    Route resolve(String requestUri) {
+        PathContainer path = null;
+        for (Candidate candidate : candidates) {
+            if (!candidate.isTemplate()) {
+                if (requestUri.startsWith(candidate.literalWithSlash()) || requestUri.equals(candidate.literal())) {
+                    return candidate.route();
+                }
+                continue;
+            }
+            // Literal kısmı tutmayan şablon için yol parse edilmez
+            if (!requestUri.startsWith(candidate.literal())) {
+                continue;
+            }
+            if (path == null) {
+                path = PathContainer.parsePath(requestUri);
+            }
+            if (candidate.pattern().matches(path)) {
+                return candidate.route();
+            }
+        }
+        return defaultRoute;
+    }
+
+    private static int firstVariable(String path) {
+        int brace = path.indexOf('{');
+        int star = path.indexOf('*');
+        return brace < 0 ? star : star < 0 ? brace : Math.min(brace, star);
+    }
+
+    private static String stripTrailingSlash(String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.pizza.logic.sketch;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Silmeyi destekleyen Bloom filter (her bit yerine 8 bit'lik sayaç)
+ *
+ * - mightContain(): k sayaç okuması, kilit yok; false ise eleman kesinlikle eklenmemiştir
+ * - add()/remove(): tek kilit altında sayaç artırma/azaltma; sadece eklenmiş elemanlar silinmelidir
+ * - Sayaç 255'e ulaşırsa doygun kalır ve bir daha azaltılmaz (false negative üretmemek için)
+ *
+ * Boyut: m = -n·ln(p) / ln(2)², k = (m/n)·ln(2); n=100k, p=0.001 için ~1.4 MB ve k=10.
+ * Hash: HyperLogLog ile aynı 64-bit hash, k indeks double hashing (h1 + i·h2) ile üretilir.
+ */
+public final class CountingBloomFilter {
+
+    private static final VarHandle COUNTERS = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final int SATURATED = 0xFF;
+
+    private final byte[] counters;
+    private final int hashFunctions;
+
+    public CountingBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long size = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Counting Bloom filter too large: " + size + " counters");
+        }
+        this.counters = new byte[(int) Math.max(64, size)];
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters.length / expectedInsertions * Math.log(2)));
+    }
+
+    public boolean mightContain(String value) {
+        long hash = HyperLogLog.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            if ((byte) COUNTERS.getAcquire(counters, index(h1, h2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized void add(String value) {
+        long hash = HyperLogLog.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(h1, h2, i);
+            int count = counters[index] & 0xFF;
+            if (count < SATURATED) {
+                COUNTERS.setRelease(counters, index, (byte) (count + 1));
+            }
+        }
+    }
+
+    public synchronized void remove(String value) {
+        long hash = HyperLogLog.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashFunctions; i++) {
+            int index = index(h1, h2, i);
+            int count = counters[index] & 0xFF;
+            if (count > 0 && count < SATURATED) {
+                COUNTERS.setRelease(counters, index, (byte) (count - 1));
+            }
+        }
+    }
+
+    public int size() {
+        return counters.length;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private int index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % counters.length;
+    }
+
+    @Override
+    public String toString() {
+        return "CountingBloomFilter{counters=" + counters.length + ", hashFunctions=" + hashFunctions + "}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.pizza.logic.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * En sık görülen K eleman (Space-Saving, Metwally et al.)
+ *
+ * En fazla capacity sayaç tutulur. Yeni bir eleman geldiğinde tablo doluysa en küçük
+ * sayaç bu elemana devredilir: count = min + 1, error = min. Gerçek frekans
+ * [count - error, count] aralığındadır; capacity >= K ise top-K doğru listelenir.
+ *
+ * Saatlik rollup'lar sayaçlar toplanarak birleştirilir (merge). Thread-safe değildir.
+ */
+public final class SpaceSavingTopK {
+
+    public record Entry(String item, long count, long error) {
+    }
+
+    private static final class Counter {
+        long count;
+        long error;
+
+        Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+
+    public SpaceSavingTopK(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public static SpaceSavingTopK fromEntries(int capacity, List<Entry> entries) {
+        SpaceSavingTopK sketch = new SpaceSavingTopK(capacity);
+        for (Entry entry : entries) {
+            sketch.counters.put(entry.item(), new Counter(entry.count(), entry.error()));
+        }
+        sketch.trim();
+        return sketch;
+    }
+
+    public void add(String item) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(1, 0));
+            return;
+        }
+
+        // Tablo dolu: en küçük sayacı yeni elemana devret (capacity küçük, doğrusal tarama yeterli)
+        String minItem = null;
+        Counter min = null;
+        for (Map.Entry<String, Counter> e : counters.entrySet()) {
+            if (min == null || e.getValue().count < min.count) {
+                minItem = e.getKey();
+                min = e.getValue();
+            }
+        }
+        counters.remove(minItem);
+        counters.put(item, new Counter(min.count + 1, min.count));
+    }
+
+    public void merge(SpaceSavingTopK other) {
+        for (Map.Entry<String, Counter> e : other.counters.entrySet()) {
+            counters.merge(e.getKey(), new Counter(e.getValue().count, e.getValue().error), (a, b) -> {
+                a.count += b.count;
+                a.error += b.error;
+                return a;
+            });
+        }
+        trim();
+    }
+
+    /**
+     * Sayaca göre azalan sırada ilk k eleman
+     */
+    public List<Entry> top(int k) {
+        return entries().stream().limit(k).toList();
+    }
+
+    public List<Entry> entries() {
+        List<Entry> result = new ArrayList<>(counters.size());
+        counters.forEach((item, c) -> result.add(new Entry(item, c.count, c.error)));
+        result.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::item));
+        return result;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void trim() {
+        if (counters.size() <= capacity) {
+            return;
+        }
+        List<Entry> sorted = entries();
+        for (int i = capacity; i < sorted.size(); i++) {
+            counters.remove(sorted.get(i).item());
+        }
+    }
+}
@@ -95,4 +95,24 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
          */
         @Query("SELECT c FROM Category c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
         Page<Category> searchByName(@Param("name") String name, Pageable pageable);
+
+        /**
+         * PostgreSQL arama backend'i: substring + yazım hatası toleranslı isim araması
+         *
+         * İkisi de idx_category_name_trgm kullanır. Benzerliğe göre sıralanır,
+         * Pageable unsorted geçilmelidir.
+         */
+        @Query(value = """
+                SELECT c.* FROM pizza.category c
+                WHERE lower(c.name) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(CAST(:query AS text)) <% lower(c.name)
+                ORDER BY word_similarity(lower(CAST(:query AS text)), lower(c.name)) DESC, c.id
+                """,
+                countQuery = """
+                SELECT COUNT(*) FROM pizza.category c
+                WHERE lower(c.name) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(CAST(:query AS text)) <% lower(c.name)
+                """,
+                nativeQuery = true)
+        Page<Category> searchFuzzy(@Param("query") String query, Pageable pageable);
 }
\ No newline at end of file
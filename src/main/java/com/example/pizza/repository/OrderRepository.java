@@ -189,4 +189,35 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             @Param("maxPrice") Double maxPrice,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // ============================================================================
+    // ELASTICSEARCH DELTA SYNC
+    // ============================================================================
+
+    /**
+     * (updatedAt, id) keyset'ine göre değişen siparişler (delta sync)
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.user " +
+            "WHERE o.updatedAt > :since OR (o.updatedAt = :since AND o.id > :lastId) " +
+            "ORDER BY o.updatedAt ASC, o.id ASC")
+    List<Order> findChangedSince(
+            @Param("since") LocalDateTime since,
+            @Param("lastId") Long lastId,
+            Pageable pageable
+    );
+
+    /**
+     * Search index dokümanı için gereken tüm ilişkilerle siparişler
+     * (user, payment, items + product tek sorguda; OrderDocument denormalizasyonu)
+     */
+    @Query("SELECT DISTINCT o FROM Order o " +
+            "LEFT JOIN FETCH o.user " +
+            "LEFT JOIN FETCH o.payment " +
+            "LEFT JOIN FETCH o.items oi " +
+            "LEFT JOIN FETCH oi.product " +
+            "WHERE o.id IN :ids")
+    List<Order> findAllForSearchIndex(@Param("ids") List<Long> ids);
+
+    @Query("SELECT o.id FROM Order o ORDER BY o.id")
+    List<Long> findAllIds();
+}
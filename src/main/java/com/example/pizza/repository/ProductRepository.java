@@ -12,6 +12,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +28,9 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByCategory(Category category);
 
-    List<Product> findByNameContainingIgnoreCase(String keyword);
+    // LOWER(...) LIKE: idx_products_name_trgm ile index'lenir (derived IgnoreCase UPPER() üretir)
+    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    List<Product> findByNameContainingIgnoreCase(@Param("keyword") String keyword);
 
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
@@ -47,6 +50,12 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT COALESCE(SUM(p.stock), 0) FROM Product p")
     long calculateTotalStock();
 
+    /**
+     * Tüm ürünleri kategorileriyle tek sorguda getir (in-memory search index rebuild)
+     */
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category")
+    List<Product> findAllWithCategory();
+
     /**
      * Kategoriye göre ürünleri getir (WITHOUT PAGINATION)
      *
@@ -142,6 +151,49 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Page<Product> searchByName(@Param("name") String name, Pageable pageable);
 
+    /**
+     * PostgreSQL arama backend'i: Turkish full-text + trigram (typo toleranslı)
+     *
+     * - search_vector @@ websearch_to_tsquery('turkish', q): kök bulma ("pizzalar" → "pizza")
+     * - lower(name) LIKE '%q%': substring (idx_products_name_trgm)
+     * - q <% lower(name): yazım hatası toleransı (word similarity, idx_products_name_trgm)
+     * Sıralama: ts_rank, sonra isim benzerliği, sonra id. Pageable'ın sort'u kullanılmaz,
+     * unsorted geçilmelidir. query null ise sadece filtreler uygulanır.
+     */
+    @Query(value = """
+            SELECT p.* FROM pizza.product p
+            WHERE (CAST(:query AS text) IS NULL
+                   OR p.search_vector @@ websearch_to_tsquery('turkish', CAST(:query AS text))
+                   OR lower(p.name) LIKE '%' || CAST(:query AS text) || '%'
+                   OR CAST(:query AS text) <% lower(p.name))
+              AND (CAST(:categoryId AS bigint) IS NULL OR p.category_id = CAST(:categoryId AS bigint))
+              AND (CAST(:minPrice AS numeric) IS NULL OR p.price >= CAST(:minPrice AS numeric))
+              AND (CAST(:maxPrice AS numeric) IS NULL OR p.price <= CAST(:maxPrice AS numeric))
+              AND (:inStock = false OR p.stock > 0)
+            ORDER BY ts_rank(p.search_vector, websearch_to_tsquery('turkish', coalesce(CAST(:query AS text), ''))) DESC,
+                     word_similarity(coalesce(CAST(:query AS text), ''), lower(p.name)) DESC,
+                     p.id
+            """,
+            countQuery = """
+            SELECT COUNT(*) FROM pizza.product p
+            WHERE (CAST(:query AS text) IS NULL
+                   OR p.search_vector @@ websearch_to_tsquery('turkish', CAST(:query AS text))
+                   OR lower(p.name) LIKE '%' || CAST(:query AS text) || '%'
+                   OR CAST(:query AS text) <% lower(p.name))
+              AND (CAST(:categoryId AS bigint) IS NULL OR p.category_id = CAST(:categoryId AS bigint))
+              AND (CAST(:minPrice AS numeric) IS NULL OR p.price >= CAST(:minPrice AS numeric))
+              AND (CAST(:maxPrice AS numeric) IS NULL OR p.price <= CAST(:maxPrice AS numeric))
+              AND (:inStock = false OR p.stock > 0)
+            """,
+            nativeQuery = true)
+    Page<Product> searchFullText(
+            @Param("query") String query,
+            @Param("categoryId") Long categoryId,
+            @Param("minPrice") Double minPrice,
+            @Param("maxPrice") Double maxPrice,
+            @Param("inStock") boolean inStock,
+            Pageable pageable);
+
     /**
      * Fiyat aralığına göre ürün arama (sayfalı)
      *
@@ -169,4 +221,29 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "CASE WHEN :inStock = true THEN p.stock > 0 " +
             "ELSE p.stock = 0 END = true")
     Page<Product> findByStockAvailability(@Param("inStock") boolean inStock, Pageable pageable);
-}
\ No newline at end of file
+
+    // ============================================================================
+    // ELASTICSEARCH DELTA SYNC
+    // ============================================================================
+
+    /**
+     * (updatedAt, id) keyset'ine göre değişen ürünler (delta sync)
+     *
+     * @param since  Watermark zamanı
+     * @param lastId Aynı updatedAt içindeki son işlenen ID
+     * @param pageable Batch boyutu (sadece size kullanılır)
+     */
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category " +
+            "WHERE p.updatedAt > :since OR (p.updatedAt = :since AND p.id > :lastId) " +
+            "ORDER BY p.updatedAt ASC, p.id ASC")
+    List<Product> findChangedSince(
+            @Param("since") LocalDateTime since,
+            @Param("lastId") Long lastId,
+            Pageable pageable);
+
+    /**
+     * ID aralığındaki ürünler (search index drift drill-down)
+     */
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id BETWEEN :fromId AND :toId")
+    List<Product> findAllWithCategoryByIdBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
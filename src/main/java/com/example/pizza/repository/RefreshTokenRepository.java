@@ -16,7 +16,7 @@ import java.util.Optional;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
     List<RefreshToken> findByUser(User user);
     List<RefreshToken> findByUserId(Long userId);
 
@@ -33,12 +33,20 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     int deleteRevokedTokens();
 
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.token = :token")
-    int deleteByToken(@Param("token") String token);
+    @Query("DELETE FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") byte[] tokenHash);
 
     @Query("SELECT CASE WHEN COUNT(rt) > 0 THEN true ELSE false END " +
-            "FROM RefreshToken rt WHERE rt.token = :token AND rt.revoked = false")
-    boolean existsByTokenAndNotRevoked(@Param("token") String token);
+            "FROM RefreshToken rt WHERE rt.tokenHash = :tokenHash AND rt.revoked = false")
+    boolean existsByTokenHashAndNotRevoked(@Param("tokenHash") byte[] tokenHash);
+
+    /**
+     * Rotation: aktif token'ı tek statement'ta siler ve silinen satırı döner.
+     * Aynı token'la eş zamanlı iki refresh'ten sadece biri satır alır (row lock); diğeri boş döner.
+     */
+    @Query(value = "DELETE FROM pizza.refresh_tokens WHERE token_hash = :tokenHash AND revoked = false RETURNING *",
+            nativeQuery = true)
+    Optional<RefreshToken> deleteActiveByTokenHash(@Param("tokenHash") byte[] tokenHash);
 
     @Query("SELECT rt FROM RefreshToken rt " +
             "WHERE rt.user.id = :userId " +
@@ -63,6 +71,6 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     int revokeAllUserTokens(@Param("userId") Long userId);
 
     @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.token = :token")
-    int revokeToken(@Param("token") String token);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.tokenHash = :tokenHash")
+    int revokeToken(@Param("tokenHash") byte[] tokenHash);
 }
\ No newline at end of file
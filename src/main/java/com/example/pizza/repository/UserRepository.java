@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -121,6 +122,46 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE LOWER(u.name) LIKE LOWER(CONCAT('%', :name, '%'))")
     Page<User> searchByName(@Param("name") String name, Pageable pageable);
 
+    /**
+     * PostgreSQL arama backend'i (admin kullanıcı araması)
+     *
+     * query: isim veya soyisimde substring ya da yazım hatası toleranslı eşleşme,
+     * email: substring. Hepsi trigram index'leri (idx_users_*_trgm) kullanır.
+     * Null parametreler filtre uygulamaz. Benzerliğe göre sıralanır, Pageable unsorted geçilmelidir.
+     */
+    @Query(value = """
+            SELECT u.* FROM pizza.users u
+            WHERE (CAST(:query AS text) IS NULL
+                   OR lower(u.name) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(u.surname) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(CAST(:query AS text)) <% lower(u.name)
+                   OR lower(CAST(:query AS text)) <% lower(u.surname))
+              AND (CAST(:email AS text) IS NULL OR lower(u.email) LIKE '%' || lower(CAST(:email AS text)) || '%')
+              AND (CAST(:role AS text) IS NULL OR u.role = CAST(:role AS text))
+              AND (CAST(:status AS text) IS NULL OR u.status = CAST(:status AS text))
+            ORDER BY greatest(word_similarity(lower(coalesce(CAST(:query AS text), '')), lower(u.name)),
+                              word_similarity(lower(coalesce(CAST(:query AS text), '')), lower(u.surname))) DESC,
+                     u.id
+            """,
+            countQuery = """
+            SELECT COUNT(*) FROM pizza.users u
+            WHERE (CAST(:query AS text) IS NULL
+                   OR lower(u.name) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(u.surname) LIKE '%' || lower(CAST(:query AS text)) || '%'
+                   OR lower(CAST(:query AS text)) <% lower(u.name)
+                   OR lower(CAST(:query AS text)) <% lower(u.surname))
+              AND (CAST(:email AS text) IS NULL OR lower(u.email) LIKE '%' || lower(CAST(:email AS text)) || '%')
+              AND (CAST(:role AS text) IS NULL OR u.role = CAST(:role AS text))
+              AND (CAST(:status AS text) IS NULL OR u.status = CAST(:status AS text))
+            """,
+            nativeQuery = true)
+    Page<User> searchFuzzy(
+            @Param("query") String query,
+            @Param("email") String email,
+            @Param("role") String role,
+            @Param("status") String status,
+            Pageable pageable);
+
     /**
      * Role ve status'e göre kullanıcıları getir (sayfalı)
      *
@@ -135,4 +176,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
             @Param("status") UserStatus status,
             Pageable pageable
     );
-}
\ No newline at end of file
+
+    // ============================================================================
+    // ELASTICSEARCH DELTA SYNC
+    // ============================================================================
+
+    /**
+     * (updatedAt, id) keyset'ine göre değişen kullanıcılar (delta sync)
+     */
+    @Query("SELECT u FROM User u " +
+            "WHERE u.updatedAt > :since OR (u.updatedAt = :since AND u.id > :lastId) " +
+            "ORDER BY u.updatedAt ASC, u.id ASC")
+    List<User> findChangedSince(
+            @Param("since") LocalDateTime since,
+            @Param("lastId") Long lastId,
+            Pageable pageable
+    );
+}
@@ -1,19 +1,25 @@
 package com.example.pizza.service.admin;
 
 import com.example.pizza.dto.admin.SearchAnalyticsResponse;
-import com.example.pizza.entity.logic.SearchLog;
-import com.example.pizza.entity.user.User;
+import com.example.pizza.config.security.UserPrincipal;
+import com.example.pizza.entity.category.Category;
 import com.example.pizza.repository.CategoryRepository;
-import com.example.pizza.repository.SearchLogRepository;
+import com.example.pizza.service.logic.SearchAnalyticsAggregator;
+import com.example.pizza.service.logic.SearchAnalyticsRollup;
+import com.example.pizza.service.logic.SearchLogBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,106 +27,136 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SearchAnalyticsService {
 
-    private final SearchLogRepository searchLogRepository;
     private final CategoryRepository categoryRepository;
+    private final SearchLogBuffer searchLogBuffer;
+    private final SearchAnalyticsAggregator searchAnalyticsAggregator;
+
+    @Value("${search.analytics.top-query-limit:20}")
+    private int topQueryLimit;
+
+    @Value("${elasticsearch.features.analytics-enabled:true}")
+    private boolean analyticsEnabled;
 
     // ============================================================================
-    // SEARCH LOGGING (Async - Non-blocking)
+    // SEARCH LOGGING (Ring buffer - zero allocation, no DB round-trip)
     // ============================================================================
 
-    @Async
-    @Transactional
+    public static final String SEARCH_TYPE_PRODUCT = "PRODUCT";
+    public static final String SEARCH_TYPE_FACETED = "PRODUCT_FACETED";
+    public static final String SEARCH_TYPE_SUGGESTION = "SUGGESTION";
+    public static final String SEARCH_TYPE_FUZZY_SUGGESTION = "FUZZY_SUGGESTION";
+
+    /**
+     * Arama olayını SearchLogBuffer'a yazar; DB'ye toplu olarak search-log-writer thread'i yazar.
+     * Normalizasyon (lowercase/trim, X-Forwarded-For ayrıştırma) yazıcı thread'de yapılır.
+     * Buffer doluysa olay düşürülür ve sayılır - arama isteği asla etkilenmez.
+     */
     public void logSearch(
             String query,
-            Integer resultCount,
+            int resultCount,
             String searchType,
-            User user,
             Long categoryId,
             Double minPrice,
             Double maxPrice,
             HttpServletRequest request,
-            Long responseTimeMs) {
-
-        try {
-            SearchLog searchLog = SearchLog.builder()
-                    .query(query != null ? query.toLowerCase().trim() : "")
-                    .resultCount(resultCount)
-                    .searchType(searchType)
-                    .user(user)
-                    .categoryId(categoryId)
-                    .minPrice(minPrice)
-                    .maxPrice(maxPrice)
-                    .ipAddress(getClientIpAddress(request))
-                    .userAgent(request.getHeader("User-Agent"))
-                    .responseTimeMs(responseTimeMs)
-                    .build();
-
-            searchLogRepository.save(searchLog);
-
-            log.debug("Search logged: query={}, results={}, type={}", query, resultCount, searchType);
-        } catch (Exception e) {
-            // Non-blocking: Do not throw exception
-            log.error("Failed to log search: query={}", query, e);
+            long responseTimeMs) {
+
+        logSearch(query, resultCount, searchType, categoryId, minPrice, maxPrice, captureRequest(request),
+                responseTimeMs);
+    }
+
+    /**
+     * Async arama endpoint'leri için: istek bilgisi (kullanıcı, IP, User-Agent) request thread'inde
+     * captureRequest ile alınır, log yanıt tamamlandığında başka bir thread'den yazılır.
+     */
+    public void logSearch(
+            String query,
+            int resultCount,
+            String searchType,
+            Long categoryId,
+            Double minPrice,
+            Double maxPrice,
+            RequestInfo requestInfo,
+            long responseTimeMs) {
+
+        if (!analyticsEnabled) {
+            return;
         }
+        searchLogBuffer.offer(query, resultCount, searchType, requestInfo.userId(), categoryId, minPrice, maxPrice,
+                requestInfo.ipAddress(), requestInfo.userAgent(), responseTimeMs);
+    }
+
+    /**
+     * SecurityContext ve request header'ları thread-local/istek kapsamlı olduğundan
+     * request thread'inde okunmalıdır
+     */
+    public RequestInfo captureRequest(HttpServletRequest request) {
+        return new RequestInfo(currentUserId(), getClientIpAddress(request), request.getHeader("User-Agent"));
+    }
+
+    public record RequestInfo(Long userId, String ipAddress, String userAgent) {
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
     }
 
     // ============================================================================
     // ANALYTICS GENERATION
     // ============================================================================
 
+    /**
+     * Saatlik rollup'ları birleştirerek analitik üretir (ham search_logs taranmaz)
+     * Maliyet: O(aralıktaki saat sayısı); son persist-interval-ms kadar veri henüz yansımamış olabilir.
+     */
     @Transactional(readOnly = true)
     public SearchAnalyticsResponse getSearchAnalytics(int days) {
         LocalDateTime startDate = LocalDateTime.now().minusDays(days);
+        SearchAnalyticsRollup rollup = searchAnalyticsAggregator.loadMerged(startDate);
 
-        // 1. Total Stats
-        Long totalSearches = searchLogRepository.countSearchesSince(startDate);
-        Double avgResponseTime = searchLogRepository.findAverageResponseTime(startDate);
+        long totalSearches = rollup.getTotalSearches();
 
+        // 1. Total Stats
         SearchAnalyticsResponse.TotalStats totalStats = new SearchAnalyticsResponse.TotalStats(
                 totalSearches,
-                0L, // TODO: Calculate unique queries
-                0.0 // TODO: Calculate average result count
-        );
+                rollup.isEmpty() ? 0L : rollup.getUniqueQueries().estimate(),
+                totalSearches > 0 ? (double) rollup.getResultCountSum() / totalSearches : 0.0);
 
         // 2. Top Search Queries
-        List<SearchAnalyticsResponse.QueryStat> topQueries = searchLogRepository
-                .findTopSearchQueries(startDate)
-                .stream()
-                .map(row -> new SearchAnalyticsResponse.QueryStat(
-                        (String) row[0],
-                        ((Number) row[1]).longValue()))
+        List<SearchAnalyticsResponse.QueryStat> topQueries = rollup.getTopQueries().top(topQueryLimit).stream()
+                .map(entry -> new SearchAnalyticsResponse.QueryStat(entry.item(), entry.count()))
                 .collect(Collectors.toList());
 
         // 3. Zero-Result Queries
-        List<SearchAnalyticsResponse.QueryStat> zeroResultQueries = searchLogRepository
-                .findZeroResultQueries(startDate)
-                .stream()
-                .map(row -> new SearchAnalyticsResponse.QueryStat(
-                        (String) row[0],
-                        ((Number) row[1]).longValue()))
+        List<SearchAnalyticsResponse.QueryStat> zeroResultQueries = rollup.getZeroResultQueries()
+                .top(topQueryLimit).stream()
+                .map(entry -> new SearchAnalyticsResponse.QueryStat(entry.item(), entry.count()))
                 .collect(Collectors.toList());
 
-        // 4. Searches by Category
-        List<SearchAnalyticsResponse.CategoryStat> categoryStats = searchLogRepository
-                .findSearchCountByCategory(startDate)
+        // 4. Searches by Category (isimler tek sorguda)
+        Map<Long, String> categoryNames = categoryRepository.findAllById(rollup.getCategoryCounts().keySet())
                 .stream()
-                .map(row -> {
-                    Long categoryId = ((Number) row[0]).longValue();
-                    String categoryName = categoryRepository.findById(categoryId)
-                            .map(cat -> cat.getName())
-                            .orElse("Unknown");
-                    Long count = ((Number) row[1]).longValue();
-
-                    return new SearchAnalyticsResponse.CategoryStat(categoryId, categoryName, count);
-                })
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+
+        List<SearchAnalyticsResponse.CategoryStat> categoryStats = rollup.getCategoryCounts().entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .map(e -> new SearchAnalyticsResponse.CategoryStat(
+                        e.getKey(), categoryNames.getOrDefault(e.getKey(), "Unknown"), e.getValue()))
                 .collect(Collectors.toList());
 
         // 5. Performance Stats
+        Histogram latency = rollup.getResponseTimes();
         SearchAnalyticsResponse.PerformanceStats performanceStats = new SearchAnalyticsResponse.PerformanceStats(
-                avgResponseTime != null ? avgResponseTime : 0.0,
-                0L, // TODO: Calculate slowest query
-                0L // TODO: Calculate fastest query
-        );
+                totalSearches > 0 ? (double) rollup.getResponseTimeSum() / totalSearches : 0.0,
+                rollup.isEmpty() ? 0L : rollup.getMaxResponseMs(),
+                rollup.isEmpty() ? 0L : rollup.getMinResponseMs(),
+                latency.getValueAtPercentile(50),
+                latency.getValueAtPercentile(95),
+                latency.getValueAtPercentile(99));
 
         return new SearchAnalyticsResponse(
                 totalStats,
@@ -134,25 +170,26 @@ public class SearchAnalyticsService {
     // HELPER METHODS
     // ============================================================================
 
+    private static final String[] IP_HEADER_NAMES = {
+            "X-Forwarded-For",
+            "Proxy-Client-IP",
+            "WL-Proxy-Client-IP",
+            "HTTP_X_FORWARDED_FOR",
+            "HTTP_X_FORWARDED",
+            "HTTP_X_CLUSTER_CLIENT_IP",
+            "HTTP_CLIENT_IP",
+            "HTTP_FORWARDED_FOR",
+            "HTTP_FORWARDED",
+            "HTTP_VIA",
+            "REMOTE_ADDR"
+    };
+
     private String getClientIpAddress(HttpServletRequest request) {
-        String[] headerNames = {
-                "X-Forwarded-For",
-                "Proxy-Client-IP",
-                "WL-Proxy-Client-IP",
-                "HTTP_X_FORWARDED_FOR",
-                "HTTP_X_FORWARDED",
-                "HTTP_X_CLUSTER_CLIENT_IP",
-                "HTTP_CLIENT_IP",
-                "HTTP_FORWARDED_FOR",
-                "HTTP_FORWARDED",
-                "HTTP_VIA",
-                "REMOTE_ADDR"
-        };
-
-        for (String header : headerNames) {
+        // Ham header değeri döner; "a, b, c" listesinin ilk elemanı SearchLogBuffer'da ayrıştırılır
+        for (String header : IP_HEADER_NAMES) {
             String ip = request.getHeader(header);
             if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-                return ip.split(",")[0].trim();
+                return ip;
             }
         }
 
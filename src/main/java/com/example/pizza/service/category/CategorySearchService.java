@@ -1,5 +1,7 @@
 package com.example.pizza.service.category;
 
+import com.example.pizza.config.elasticsearch.ElasticsearchConfig;
+import com.example.pizza.constants.logic.SearchBackend;
 import com.example.pizza.dto.category.CategoryResponse;
 import com.example.pizza.entity.category.Category;
 import com.example.pizza.repository.CategoryRepository;
@@ -7,12 +9,22 @@ import com.example.pizza.entity.category.CategoryDocument;
 import com.example.pizza.repository.search.CategorySearchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +33,11 @@ public class CategorySearchService {
 
     private final CategorySearchRepository categorySearchRepository;
     private final CategoryRepository categoryRepository;
+    @Qualifier(ElasticsearchConfig.SEARCH_OPERATIONS)
+    private final ElasticsearchOperations searchOperations;
+
+    @Value("${search.backend.category:ELASTICSEARCH}")
+    private SearchBackend backend;
 
     @Transactional
     public void indexCategory(Category category) {
@@ -54,17 +71,39 @@ public class CategorySearchService {
         log.info("Bulk indexing completed: {} categories in {}ms", count, duration);
     }
 
+    /**
+     * search.backend.category=POSTGRES ise trigram (substring + typo toleranslı) DB araması yapılır,
+     * sonuçlar benzerliğe göre sıralanır. Boş/null sorgu boş sayfa döner (controller 400 ile reddeder).
+     */
     @Transactional(readOnly = true)
     public Page<CategoryResponse> searchCategories(String query, Pageable pageable) {
         log.debug("Searching categories: query='{}', page={}, size={}",
                 query, pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<CategoryDocument> documents = categorySearchRepository
-                .findByNameContainingIgnoreCase(query, pageable);
+        if (query == null || query.isBlank()) {
+            return Page.empty(pageable);
+        }
+        String q = query.trim();
+
+        if (backend == SearchBackend.POSTGRES) {
+            Pageable unsorted = pageable.isPaged()
+                    ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                    : Pageable.unpaged();
+            return categoryRepository.searchFuzzy(q, unsorted)
+                    .map(category -> new CategoryResponse(category.getId(), category.getName(), category.getImg()));
+        }
+
+        // findByNameContainingIgnoreCase ile aynı sorgu; arama template'i request-timeout-ms ile sınırlı
+        CriteriaQuery criteriaQuery = new CriteriaQuery(new Criteria("name").contains(q)).setPageable(pageable);
+        SearchHits<CategoryDocument> hits = searchOperations.search(criteriaQuery, CategoryDocument.class);
 
-        log.debug("Found {} categories", documents.getTotalElements());
+        log.debug("Found {} categories", hits.getTotalHits());
 
-        return documents.map(this::toResponse);
+        List<CategoryResponse> content = hits.stream()
+                .map(SearchHit::getContent)
+                .map(this::toResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, hits.getTotalHits());
     }
 
     public void deleteCategoryFromIndex(Long categoryId) {
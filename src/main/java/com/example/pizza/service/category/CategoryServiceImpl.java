@@ -7,6 +7,7 @@ import com.example.pizza.exceptions.common.FileOperationException;
 import com.example.pizza.exceptions.common.ResourceNotFoundException;
 import com.example.pizza.repository.CategoryRepository;
 import com.example.pizza.service.logic.FileUploadImpl;
+import com.example.pizza.service.product.InMemoryProductIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -30,6 +31,7 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final FileUploadImpl fileUploadImpl;
     private final CategorySearchService categorySearchService;
+    private final InMemoryProductIndex inMemoryProductIndex;
 
     // ============================================================================
     // LEGACY METHODS (Backward Compatibility)
@@ -112,6 +114,7 @@ public class CategoryServiceImpl implements CategoryService {
 
         Category updatedCategory = categoryRepository.save(existingCategory);
         categorySearchService.indexCategory(updatedCategory);
+        inMemoryProductIndex.renameCategory(updatedCategory.getId(), updatedCategory.getName());
         log.info("Category updated successfully: {}", updatedCategory.getId());
         return updatedCategory;
     }
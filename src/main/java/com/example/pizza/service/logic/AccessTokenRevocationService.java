@@ -0,0 +1,196 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.logic.sketch.CountingBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token iptal listesi (jti bazlı)
+ *
+ * - Kaynak: Redis'te pizza:auth:revoked-jti:{jti} anahtarı, TTL = token'ın kalan ömrü
+ * - Her node iptal edilmiş jti'leri bir counting Bloom filter'da tutar; iptaller Redis pub/sub ile yayılır
+ *   ve açılışta Redis'ten yüklenir. Süresi dolan jti'ler filtreden silinir (filtre sadece access-token
+ *   TTL penceresindeki iptalleri içerir)
+ * - Hot path (isRevoked): birkaç bellek okuması. Bloom hit'inde önce yerel iptal tablosuna bakılır: bu node'un
+ *   bildiği bir iptal Redis'ten bağımsız olarak kesindir. Redis'e sadece yerel tabloda olmayan Bloom hit'lerinde
+ *   (false positive) gidilir
+ * - Redis'e yazılamayan iptal bu node'da yine reddedilir, ancak revoke() hata fırlatır (diğer node'lar bilmez;
+ *   logout başarılı dönmez)
+ * - Açılış yüklemesi başarısızsa filtre eksiktir: yükleme tamamlanana kadar her token Redis'e sorulur ve
+ *   yükleme purge turlarında tekrar denenir. Redis erişilemezse token iptal edilmiş sayılır (fail-closed)
+ */
+@Slf4j
+@Service
+public class AccessTokenRevocationService {
+
+    private static final String KEY_PREFIX = "pizza:auth:revoked-jti:";
+    private static final String CHANNEL = "pizza:auth:revoked-jti:changed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CountingBloomFilter filter;
+    private final Counter bloomHitCounter;
+    private final Counter confirmedCounter;
+
+    /** Filtreye eklenmiş jti → son geçerlilik (epoch ms); süresi dolanları filtreden silmek için */
+    private final Map<String, Long> revocations = new ConcurrentHashMap<>();
+
+    /** Açılışta Redis'teki iptaller filtreye yüklendi mi; false iken filtre miss'i "iptal değil" anlamına gelmez */
+    private volatile boolean loaded = false;
+
+    public AccessTokenRevocationService(StringRedisTemplate stringRedisTemplate,
+                                        RedisMessageListenerContainer redisMessageListenerContainer,
+                                        @Value("${jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+                                        @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+                                        MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.filter = new CountingBloomFilter(expectedRevocations, falsePositiveRate);
+        this.bloomHitCounter = meterRegistry.counter("security.revocation.bloom-hits");
+        this.confirmedCounter = meterRegistry.counter("security.revocation.rejected");
+        meterRegistry.gauge("security.revocation.entries", revocations, Map::size);
+    }
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(':');
+            try {
+                track(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed token revocation message");
+            }
+        }, new ChannelTopic(CHANNEL));
+
+        loadFromRedis();
+    }
+
+    /**
+     * Access token'ı iptal eder (tüm node'larda hemen geçerli)
+     *
+     * @param jti       Token id
+     * @param expiresAt Token'ın exp değeri; süresi dolmuş token için işlem yapılmaz
+     * @throws IllegalStateException İptal Redis'e yazılamadıysa (token sadece bu node'da reddedilir)
+     */
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return;
+        }
+        long ttlMillis = Duration.between(Instant.now(), expiresAt).toMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+
+        track(jti, expiresAt.toEpochMilli());
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + jti, "1", ttlMillis, TimeUnit.MILLISECONDS);
+            stringRedisTemplate.convertAndSend(CHANNEL, expiresAt.toEpochMilli() + ":" + jti);
+        } catch (Exception e) {
+            log.error("Failed to store access token revocation in Redis, only this node rejects jti {}", jti, e);
+            throw new IllegalStateException("Access token revocation could not be stored", e);
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (filter.mightContain(jti)) {
+            bloomHitCounter.increment();
+            if (revocations.containsKey(jti)) {
+                confirmedCounter.increment();
+                return true;
+            }
+        } else if (loaded) {
+            return false;
+        }
+
+        // Bloom false positive'i veya filtre henüz yüklenmedi: Redis'e sor
+        boolean revoked;
+        try {
+            revoked = Boolean.TRUE.equals(stringRedisTemplate.hasKey(KEY_PREFIX + jti));
+        } catch (Exception e) {
+            log.warn("Revocation lookup failed for jti {}, rejecting token: {}", jti, e.getMessage());
+            revoked = true;
+        }
+        if (revoked) {
+            confirmedCounter.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Süresi dolan iptalleri filtreden siler (sayaçlar azaltılır)
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        if (!loaded) {
+            loadFromRedis();
+        }
+
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        Iterator<Map.Entry<String, Long>> it = revocations.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getValue() <= now && revocations.remove(entry.getKey(), entry.getValue())) {
+                filter.remove(entry.getKey());
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired access token revocations", purged);
+        }
+    }
+
+    /**
+     * Filtreye bir kez ekler (kendi yayınımız ve açılış yüklemesi tekrar eklemez)
+     */
+    private void track(String jti, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revocations.putIfAbsent(jti, expiresAtMillis) == null) {
+            filter.add(jti);
+        }
+    }
+
+    private void loadFromRedis() {
+        int count = 0;
+        try (Cursor<String> keys = stringRedisTemplate.scan(
+                ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(1000).build())) {
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Long ttlMillis = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                if (ttlMillis != null && ttlMillis > 0) {
+                    track(key.substring(KEY_PREFIX.length()), System.currentTimeMillis() + ttlMillis);
+                    count++;
+                }
+            }
+            loaded = true;
+            log.info("Loaded {} active access token revocations", count);
+        } catch (Exception e) {
+            log.warn("Could not load access token revocations from Redis, checking every token in Redis until loaded: {}",
+                    e.getMessage());
+        }
+    }
+}
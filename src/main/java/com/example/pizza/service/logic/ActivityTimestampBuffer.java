@@ -0,0 +1,153 @@
+package com.example.pizza.service.logic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * "Son kullanım" zaman damgaları için write-behind buffer
+ *
+ * - refresh_tokens.last_used_at (token id) ve users.last_login (email) istek yolunda DB'ye yazılmaz;
+ *   anahtar başına en yeni değer bellekte tutulur (aynı kullanıcının N girişi tek satır güncellemesi olur)
+ * - flush-interval-ms'de bir, batch-size'lık gruplar halinde tek UPDATE ... FROM (VALUES ...) ile yazılır
+ * - GREATEST(...): başka bir node'un yazdığı daha yeni değer geriye alınmaz
+ * - Kapanışta (graceful shutdown) kalanlar yazılır; yazım hatasında değerler bir sonraki flush'a kalır
+ *
+ * Bu alanlar sadece audit amaçlıdır: ani bir çökmede en fazla bir flush aralığı kaybolur.
+ */
+@Slf4j
+@Component
+public class ActivityTimestampBuffer {
+
+    private static final String REFRESH_TOKEN_UPDATE_PREFIX = """
+            UPDATE pizza.refresh_tokens t
+            SET last_used_at = GREATEST(t.last_used_at, v.ts)
+            FROM (VALUES\s""";
+    private static final String REFRESH_TOKEN_UPDATE_SUFFIX = ") AS v(id, ts) WHERE t.id = v.id";
+    private static final String REFRESH_TOKEN_ROW = "(?::bigint, ?::timestamp)";
+
+    private static final String USER_LOGIN_UPDATE_PREFIX = """
+            UPDATE pizza.users u
+            SET last_login = GREATEST(u.last_login, v.ts)
+            FROM (VALUES\s""";
+    private static final String USER_LOGIN_UPDATE_SUFFIX = ") AS v(email, ts) WHERE u.email = v.email";
+    private static final String USER_LOGIN_ROW = "(?::varchar, ?::timestamp)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    private final Map<Long, Long> refreshTokenLastUsed = new ConcurrentHashMap<>();
+    private final Map<String, Long> userLastLogin = new ConcurrentHashMap<>();
+
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    public ActivityTimestampBuffer(JdbcTemplate jdbcTemplate,
+                                   @Value("${auth.activity-buffer.batch-size:500}") int batchSize,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        meterRegistry.gauge("auth.activity.buffer.pending", this,
+                b -> b.refreshTokenLastUsed.size() + b.userLastLogin.size());
+        meterRegistry.more().counter("auth.activity.buffer.flushed", Tags.empty(), flushedRows);
+        meterRegistry.more().counter("auth.activity.buffer.failed", Tags.empty(), failedFlushes);
+    }
+
+    // ============================================================================
+    // HOT PATH
+    // ============================================================================
+
+    public void touchRefreshToken(Long tokenId) {
+        if (tokenId != null) {
+            refreshTokenLastUsed.merge(tokenId, System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    public void touchUserLogin(String email) {
+        if (email != null) {
+            userLastLogin.merge(email, System.currentTimeMillis(), Math::max);
+        }
+    }
+
+    // ============================================================================
+    // FLUSH
+    // ============================================================================
+
+    @Scheduled(fixedDelayString = "${auth.activity-buffer.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        log.info("Activity timestamp buffer flushed on shutdown");
+    }
+
+    /**
+     * Zamanlayıcı ve kapanış aynı anda çalışabilir: flush'lar sıralı yürür
+     */
+    public synchronized void flush() {
+        flush(refreshTokenLastUsed, REFRESH_TOKEN_UPDATE_PREFIX, REFRESH_TOKEN_ROW, REFRESH_TOKEN_UPDATE_SUFFIX);
+        flush(userLastLogin, USER_LOGIN_UPDATE_PREFIX, USER_LOGIN_ROW, USER_LOGIN_UPDATE_SUFFIX);
+    }
+
+    private <K> void flush(Map<K, Long> pending, String prefix, String row, String suffix) {
+        List<Map.Entry<K, Long>> batch = new ArrayList<>(Math.min(batchSize, 1024));
+        for (Map.Entry<K, Long> entry : pending.entrySet()) {
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            if (batch.size() == batchSize) {
+                write(pending, batch, prefix, row, suffix);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(pending, batch, prefix, row, suffix);
+        }
+    }
+
+    private <K> void write(Map<K, Long> pending, List<Map.Entry<K, Long>> batch,
+                           String prefix, String row, String suffix) {
+        Object[] args = new Object[batch.size() * 2];
+        for (int i = 0; i < batch.size(); i++) {
+            args[i * 2] = batch.get(i).getKey();
+            args[i * 2 + 1] = new Timestamp(batch.get(i).getValue());
+        }
+        try {
+            jdbcTemplate.update(valuesUpdate(prefix, row, suffix, batch.size()), args);
+            flushedRows.add(batch.size());
+            // Sadece yazılan değer silinir; arada gelen daha yeni dokunuş bir sonraki flush'a kalır
+            for (Map.Entry<K, Long> entry : batch) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        } catch (Exception e) {
+            failedFlushes.increment();
+            log.warn("Activity timestamp flush failed ({} rows), retrying next interval: {}",
+                    batch.size(), e.getMessage());
+        }
+    }
+
+    private static String valuesUpdate(String prefix, String row, String suffix, int rowCount) {
+        StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + rowCount * (row.length() + 2))
+                .append(prefix);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(row);
+        }
+        return sql.append(suffix).toString();
+    }
+}
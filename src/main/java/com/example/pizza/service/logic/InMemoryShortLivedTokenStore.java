@@ -0,0 +1,56 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.constants.security.ShortLivedTokenPurpose;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bellek içi ShortLivedTokenStore (auth.token-store.type=memory)
+ *
+ * Testler ve Redis'siz tek node geliştirme içindir: token'lar node'lar arasında paylaşılmaz
+ * ve yeniden başlatmada kaybolur. consume, remove ile atomiktir; süresi dolanlar okumada
+ * reddedilir ve periyodik olarak silinir.
+ */
+@Component
+@ConditionalOnProperty(name = "auth.token-store.type", havingValue = "memory")
+public class InMemoryShortLivedTokenStore implements ShortLivedTokenStore {
+
+    private record Entry(Long userId, long expiresAtMillis) {
+    }
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(ShortLivedTokenPurpose purpose, String token, Long userId, Duration ttl) {
+        tokens.put(key(purpose, token), new Entry(userId, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public Optional<Consumed> consume(ShortLivedTokenPurpose purpose, String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Entry entry = tokens.remove(key(purpose, token));
+        long now = System.currentTimeMillis();
+        if (entry == null || entry.expiresAtMillis() <= now) {
+            return Optional.empty();
+        }
+        return Optional.of(new Consumed(entry.userId(), Duration.ofMillis(entry.expiresAtMillis() - now)));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+    }
+
+    private static String key(ShortLivedTokenPurpose purpose, String token) {
+        return purpose.getValue() + ":" + token;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.constants.security.ShortLivedTokenPurpose;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Redis tabanlı ShortLivedTokenStore
+ *
+ * - Anahtar: pizza:auth:token:{purpose}:{SHA-256(token)} (ham token Redis'te tutulmaz), değer: user id
+ * - Süre aşımı Redis TTL'i ile: temizlik işi gerekmez
+ * - consume: GET + PTTL + DEL tek Lua script'inde (GETDEL gibi atomik) - aynı link'e gelen eş zamanlı iki
+ *   istekten sadece biri token'ı alır; kalan süre, işlem geri alınırsa token'ı geri koymak için döner
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.token-store.type", havingValue = "redis", matchIfMissing = true)
+public class RedisShortLivedTokenStore implements ShortLivedTokenStore {
+
+    private static final String KEY_PREFIX = "pizza:auth:token:";
+
+    @SuppressWarnings("unchecked")
+    private static final Class<List<String>> STRING_LIST = (Class<List<String>>) (Class<?>) List.class;
+
+    private static final RedisScript<List<String>> CONSUME_SCRIPT = new DefaultRedisScript<>("""
+            local userId = redis.call('GET', KEYS[1])
+            if not userId then
+                return nil
+            end
+            local ttl = redis.call('PTTL', KEYS[1])
+            redis.call('DEL', KEYS[1])
+            return {userId, tostring(ttl)}
+            """, STRING_LIST);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Override
+    public void put(ShortLivedTokenPurpose purpose, String token, Long userId, Duration ttl) {
+        stringRedisTemplate.opsForValue().set(key(purpose, token), String.valueOf(userId), ttl);
+    }
+
+    @Override
+    public Optional<Consumed> consume(ShortLivedTokenPurpose purpose, String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        List<String> result = stringRedisTemplate.execute(CONSUME_SCRIPT, List.of(key(purpose, token)));
+        if (result == null || result.size() < 2) {
+            return Optional.empty();
+        }
+        // PTTL: anahtarın süresi yoksa -1 (geri koyulmaz)
+        return Optional.of(new Consumed(Long.valueOf(result.get(0)), Duration.ofMillis(Long.parseLong(result.get(1)))));
+    }
+
+    private static String key(ShortLivedTokenPurpose purpose, String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + purpose.getValue() + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
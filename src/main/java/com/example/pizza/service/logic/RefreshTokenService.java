@@ -112,12 +112,11 @@ public interface RefreshTokenService {
      * Rotate refresh token (one-time use pattern)
      *
      * Token rotation process:
-     * 1. Validates old token
-     * 2. Deletes old token (one-time use)
-     * 3. Creates new token for same user
-     * 4. Returns new token
+     * 1. Deletes the old token if active, in a single DELETE ... RETURNING (one-time use, race-free)
+     * 2. Creates new token for same user
+     * 3. Returns new token
      *
-     * Security: If old token is already deleted/revoked, indicates reuse attack.
+     * Security: If old token was already rotated, indicates reuse attack and all user tokens are revoked.
      *
      * @param oldToken - The old refresh token string
      * @return New RefreshToken entity
@@ -12,7 +12,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -28,11 +33,12 @@ import java.util.UUID;
  * Key Features:
  * - Token creation with device tracking
  * - Token validation with comprehensive checks
- * - Token rotation (one-time use pattern)
- * - Reuse detection for security
+ * - Token rotation (one-time use pattern): single DELETE ... RETURNING, then insert
+ * - Reuse detection for security (recently rotated hashes, no DB hit on the same node)
  * - Cleanup operations for maintenance
  *
  * Security Measures:
+ * - Tokens are stored and looked up by SHA-256 hash only
  * - All user tokens revoked on reuse detection
  * - Device tracking (user agent, IP) for audit
  * - Automatic expiration validation
@@ -44,6 +50,8 @@ import java.util.UUID;
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final ActivityTimestampBuffer activityTimestampBuffer;
+    private final RotatedRefreshTokenCache rotatedRefreshTokenCache;
 
     /**
      * Refresh token expiration time in milliseconds
@@ -62,9 +70,11 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public RefreshToken createRefreshToken(User user) {
         log.debug("Creating refresh token for user: {}", user.getEmail());
 
+        String rawToken = UUID.randomUUID().toString();
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(rawToken)
+                .tokenHash(hash(rawToken))
                 .expiryDate(Instant.now().plusMillis(refreshTokenExpirationMs))
                 .revoked(false)
                 .build();
@@ -85,9 +95,11 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         String userAgent = extractUserAgent(request);
         String ipAddress = extractIpAddress(request);
 
+        String rawToken = UUID.randomUUID().toString();
         RefreshToken refreshToken = RefreshToken.builder()
                 .user(user)
-                .token(UUID.randomUUID().toString())
+                .token(rawToken)
+                .tokenHash(hash(rawToken))
                 .expiryDate(Instant.now().plusMillis(refreshTokenExpirationMs))
                 .revoked(false)
                 .userAgent(userAgent)
@@ -109,28 +121,27 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
         log.debug("Finding refresh token: {}", maskToken(token));
-        return refreshTokenRepository.findByToken(token);
+        return refreshTokenRepository.findByTokenHash(hash(token));
     }
 
     @Override
     @Transactional
     public RefreshToken verifyExpiration(RefreshToken token) {
-        log.debug("Verifying expiration for token: {}", maskToken(token.getToken()));
+        log.debug("Verifying expiration for token id: {}", token.getId());
 
         if (token.isExpired()) {
-            log.warn("Refresh token expired: {} (expired at: {})",
-                    maskToken(token.getToken()), token.getExpiryDate());
+            log.warn("Refresh token expired: id {} (expired at: {})",
+                    token.getId(), token.getExpiryDate());
             throw new RefreshTokenExpiredException(
-                    maskToken(token.getToken()),
+                    "id " + token.getId(),
                     "Refresh token expired. Please login again."
             );
         }
 
-        // Update last used timestamp
-        token.updateLastUsed();
-        refreshTokenRepository.save(token);
+        // Update last used timestamp (write-behind: entity değiştirilmez, istek yolunda UPDATE yok)
+        activityTimestampBuffer.touchRefreshToken(token.getId());
 
-        log.debug("Token verified successfully: {}", maskToken(token.getToken()));
+        log.debug("Token verified successfully: id {}", token.getId());
         return token;
     }
 
@@ -169,20 +180,46 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     // ============================================================================
 
     @Override
-    @Transactional
+    @Transactional(noRollbackFor = {RefreshTokenRevokedException.class, RefreshTokenExpiredException.class})
     public RefreshToken rotateToken(String oldToken) {
+        return rotate(oldToken, null);
+    }
+
+    @Override
+    @Transactional(noRollbackFor = {RefreshTokenRevokedException.class, RefreshTokenExpiredException.class})
+    public RefreshToken rotateToken(String oldToken, HttpServletRequest request) {
+        return rotate(oldToken, request);
+    }
+
+    /**
+     * 1. Bu node'da yakın zamanda rotate edildiyse: reuse (DB'ye gidilmez)
+     * 2. DELETE ... RETURNING: aktif token'ı atomik olarak tüketir; eş zamanlı ikinci refresh satır alamaz
+     * 3. Satır yoksa sebebi sınıflandırılır (başka node'da rotate edilmiş / iptal edilmiş / hiç yok)
+     * 4. Yeni token eklenir; eski hash commit sonrası reuse cache'ine yazılır
+     *
+     * Reuse ve expiry hataları rollback yapmaz: tüm oturumların iptali ve süresi dolmuş token'ın silinmesi kalıcıdır.
+     */
+    private RefreshToken rotate(String oldToken, HttpServletRequest request) {
         log.debug("Rotating refresh token: {}", maskToken(oldToken));
+        byte[] oldHash = hash(oldToken);
 
-        // 1. Validate old token
-        RefreshToken oldRefreshToken = validateToken(oldToken);
-        User user = oldRefreshToken.getUser();
+        Long reusedBy = rotatedRefreshTokenCache.findLocal(oldHash);
+        if (reusedBy != null) {
+            handleTokenReuse(oldToken, reusedBy);
+        }
 
-        // 2. Delete old token (one-time use)
-        refreshTokenRepository.delete(oldRefreshToken);
-        log.debug("Old token deleted: {}", maskToken(oldToken));
+        RefreshToken oldRefreshToken = refreshTokenRepository.deleteActiveByTokenHash(oldHash)
+                .orElseThrow(() -> rejectUnavailableToken(oldToken, oldHash));
 
-        // 3. Create new token
-        RefreshToken newToken = createRefreshToken(user);
+        if (oldRefreshToken.isExpired()) {
+            log.warn("Refresh token expired: {} (expired at: {})", maskToken(oldToken), oldRefreshToken.getExpiryDate());
+            throw new RefreshTokenExpiredException(maskToken(oldToken), "Refresh token expired. Please login again.");
+        }
+
+        User user = oldRefreshToken.getUser();
+        recordRotationAfterCommit(oldHash, user.getId());
+
+        RefreshToken newToken = request != null ? createRefreshToken(user, request) : createRefreshToken(user);
 
         log.info("Token rotation successful for user: {} (old: {}, new: {})",
                 user.getEmail(), maskToken(oldToken), maskToken(newToken.getToken()));
@@ -190,26 +227,44 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         return newToken;
     }
 
-    @Override
-    @Transactional
-    public RefreshToken rotateToken(String oldToken, HttpServletRequest request) {
-        log.debug("Rotating refresh token with device tracking: {}", maskToken(oldToken));
-
-        // 1. Validate old token
-        RefreshToken oldRefreshToken = validateToken(oldToken);
-        User user = oldRefreshToken.getUser();
-
-        // 2. Delete old token (one-time use)
-        refreshTokenRepository.delete(oldRefreshToken);
-        log.debug("Old token deleted: {}", maskToken(oldToken));
+    /**
+     * Rotation DELETE'i satır bulamadı: reuse ise tüm oturumlar iptal edilir, değilse uygun hata fırlatılır
+     */
+    private RuntimeException rejectUnavailableToken(String tokenString, byte[] tokenHash) {
+        Long reusedBy = rotatedRefreshTokenCache.find(tokenHash);
+        if (reusedBy != null) {
+            handleTokenReuse(tokenString, reusedBy);
+        }
 
-        // 3. Create new token with device tracking
-        RefreshToken newToken = createRefreshToken(user, request);
+        Optional<RefreshToken> existing = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (existing.isPresent() && existing.get().isRevoked()) {
+            log.error("SECURITY ALERT: Attempt to use revoked token: {} (User ID: {})",
+                    maskToken(tokenString), existing.get().getUser().getId());
+            return new RefreshTokenRevokedException(
+                    maskToken(tokenString),
+                    "Token has been revoked. Please login again.",
+                    true // Security breach flag
+            );
+        }
 
-        log.info("Token rotation with device tracking successful for user: {} (old: {}, new: {})",
-                user.getEmail(), maskToken(oldToken), maskToken(newToken.getToken()));
+        log.warn("Refresh token not found: {}", maskToken(tokenString));
+        return new RefreshTokenNotFoundException(
+                maskToken(tokenString),
+                "Token not found. It may have been used or deleted."
+        );
+    }
 
-        return newToken;
+    private void recordRotationAfterCommit(byte[] tokenHash, Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rotatedRefreshTokenCache.record(tokenHash, userId);
+                }
+            });
+        } else {
+            rotatedRefreshTokenCache.record(tokenHash, userId);
+        }
     }
 
     // ============================================================================
@@ -221,7 +276,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public boolean revokeToken(String tokenString) {
         log.debug("Revoking refresh token: {}", maskToken(tokenString));
 
-        int revokedCount = refreshTokenRepository.revokeToken(tokenString);
+        int revokedCount = refreshTokenRepository.revokeToken(hash(tokenString));
 
         if (revokedCount > 0) {
             log.info("Refresh token revoked: {}", maskToken(tokenString));
@@ -237,7 +292,7 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     public boolean deleteToken(String tokenString) {
         log.debug("Deleting refresh token: {}", maskToken(tokenString));
 
-        int deletedCount = refreshTokenRepository.deleteByToken(tokenString);
+        int deletedCount = refreshTokenRepository.deleteByTokenHash(hash(tokenString));
 
         if (deletedCount > 0) {
             log.info("Refresh token deleted: {}", maskToken(tokenString));
@@ -358,6 +413,17 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
     // HELPER METHODS
     // ============================================================================
 
+    /**
+     * SHA-256(token): DB'de sadece bu sabit uzunluklu (32 byte) değer tutulur
+     */
+    static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     /**
      * Extract user agent from HTTP request
      */
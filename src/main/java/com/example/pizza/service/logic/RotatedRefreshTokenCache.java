@@ -0,0 +1,86 @@
+package com.example.pizza.service.logic;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Yakın zamanda rotate edilmiş refresh token hash'leri (hash → user id)
+ *
+ * Rotate edilmiş bir token'ın tekrar kullanılması çalınma işaretidir (reuse detection).
+ * - Yerel Caffeine: aynı node'daki tekrar kullanım DB'ye gitmeden yakalanır
+ * - Redis (pizza:auth:rotated-refresh:{hash}, TTL = reuse-window): başka node'da rotate edilen token;
+ *   sadece rotation DELETE'i satır bulamadığında sorulur, başarılı refresh yolunda okunmaz
+ *
+ * Redis erişilemezse sadece yerel kayıt kullanılır; rotate edilmiş token yine de DB'de olmadığından
+ * kabul edilmez (sadece "reuse" yerine "not found" olarak sınıflanır).
+ */
+@Slf4j
+@Component
+public class RotatedRefreshTokenCache {
+
+    private static final String KEY_PREFIX = "pizza:auth:rotated-refresh:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, Long> rotated;
+    private final Duration reuseWindow;
+
+    public RotatedRefreshTokenCache(StringRedisTemplate stringRedisTemplate,
+                                    @Value("${jwt.refresh-token.reuse-cache.max-entries:100000}") long maxEntries,
+                                    @Value("${jwt.refresh-token.reuse-cache.window-seconds:86400}") long windowSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.reuseWindow = Duration.ofSeconds(windowSeconds);
+        this.rotated = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(reuseWindow)
+                .build();
+    }
+
+    /**
+     * Rotation commit edildikten sonra çağrılır
+     */
+    public void record(byte[] tokenHash, Long userId) {
+        String key = encode(tokenHash);
+        rotated.put(key, userId);
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + key, String.valueOf(userId), reuseWindow);
+        } catch (Exception e) {
+            log.warn("Could not share rotated refresh token with other nodes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Token bu node'da rotate edildiyse sahibinin id'si, değilse null (network I/O yok)
+     */
+    public Long findLocal(byte[] tokenHash) {
+        return rotated.getIfPresent(encode(tokenHash));
+    }
+
+    /**
+     * @return Token herhangi bir node'da rotate edildiyse sahibinin id'si, değilse null
+     */
+    public Long find(byte[] tokenHash) {
+        String key = encode(tokenHash);
+        Long userId = rotated.getIfPresent(key);
+        if (userId != null) {
+            return userId;
+        }
+        try {
+            String stored = stringRedisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return stored != null ? Long.valueOf(stored) : null;
+        } catch (Exception e) {
+            log.warn("Rotated refresh token lookup failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String encode(byte[] tokenHash) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenHash);
+    }
+}
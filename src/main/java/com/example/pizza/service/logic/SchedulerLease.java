@@ -0,0 +1,74 @@
+package com.example.pizza.service.logic;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * pizza.scheduler_leases tablosu üzerinden zamanlanmış işler için node lease'i
+ *
+ * - tryAcquire: lease boştaysa, süresi dolduysa veya zaten bizdeyse tek bir upsert ile alınır
+ * - Lease süre ile sınırlıdır: onu tutan node çökerse süre dolunca başka bir node devralır
+ *   (advisory lock'tan farkı: bağlantı/transaction açık tutmak gerekmez, uzun süren işler için uygun)
+ * - release: işi bitiren node lease'i hemen bırakır
+ */
+@Slf4j
+@Component
+public class SchedulerLease {
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO pizza.scheduler_leases (name, owner, lease_until)
+            VALUES (?, ?, LOCALTIMESTAMP + make_interval(secs => ?))
+            ON CONFLICT (name) DO UPDATE
+                SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until
+                WHERE pizza.scheduler_leases.lease_until < LOCALTIMESTAMP
+                   OR pizza.scheduler_leases.owner = EXCLUDED.owner
+            RETURNING owner
+            """;
+
+    private static final String RELEASE_SQL = """
+            UPDATE pizza.scheduler_leases SET lease_until = LOCALTIMESTAMP
+            WHERE name = ? AND owner = ?
+            """;
+
+    /** Bu node'un kimliği (host/pid + rastgele sonek: aynı host'ta iki instance çakışmasın) */
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName()
+            + "/" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchedulerLease(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return Lease bu node'daysa true (yeni alındı veya uzatıldı)
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        try {
+            List<String> acquired = jdbcTemplate.queryForList(ACQUIRE_SQL, String.class,
+                    name, owner, (double) duration.toSeconds());
+            return !acquired.isEmpty();
+        } catch (Exception e) {
+            log.warn("Could not acquire scheduler lease {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, name, owner);
+        } catch (Exception e) {
+            log.warn("Could not release scheduler lease {} (expires on its own): {}", name, e.getMessage());
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
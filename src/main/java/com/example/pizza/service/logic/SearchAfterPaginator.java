@@ -0,0 +1,176 @@
+package com.example.pizza.service.logic;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import com.example.pizza.dto.paginate.CursorPage;
+import com.example.pizza.exceptions.base.ApiException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Point-in-time + search_after tabanlı cursor sayfalama (admin aramaları)
+ *
+ * from/size derin sayfalarda shard başına from+size doküman sıralar ve max_result_window'a takılır.
+ * search_after ise her sayfada sadece size kadar doküman okur: 1000. sayfa 1. sayfa kadar ucuzdur.
+ *
+ * - İlk sayfa (cursor yok): PIT açılır, sorgu PIT üzerinde çalışır
+ * - Sıralamaya her zaman id tiebreaker'ı eklenir (eşit sort değerlerinde sabit sıra)
+ * - Cursor: {pitId, searchAfter, sayfa no, filtre parmak izi} → Base64 URL JSON (client için opak)
+ * - Son sayfada PIT kapatılır ve nextCursor null döner; terk edilen PIT'ler keep-alive sonunda düşer
+ *
+ * Aynı cursor farklı filtrelerle gönderilirse 400 döner (fingerprint kontrolü).
+ * PIT süresi dolmuşsa 410 döner; diğer ES hataları olduğu gibi yukarı iletilir.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchAfterPaginator {
+
+    private record CursorToken(String pitId, List<Object> searchAfter, int page, String fingerprint) {
+    }
+
+    private static final String SEARCH_CONTEXT_MISSING = "search_context_missing_exception";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ObjectMapper objectMapper;
+
+    @Value("${elasticsearch.search.cursor.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${elasticsearch.search.cursor.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * @param criteria    Filtreler (her istekte client tarafından aynen tekrar gönderilir)
+     * @param fingerprint Filtre + sıralama özeti; cursor'ın bu sorguya ait olduğunu doğrular
+     * @param cursor      Önceki yanıttaki nextCursor (ilk sayfa için null)
+     */
+    public <T> CursorPage<T> search(Criteria criteria, Class<T> documentClass, Sort sort, int size,
+                                    String fingerprint, String cursor) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        Sort stableSort = withTiebreaker(sort);
+        String fullFingerprint = fingerprint + "|" + stableSort;
+        Duration keepAlive = Duration.ofSeconds(keepAliveSeconds);
+
+        CursorToken token = cursor != null ? decode(cursor) : null;
+        if (token != null && !token.fingerprint().equals(fullFingerprint)) {
+            throw new ApiException("Cursor does not match the search filters", HttpStatus.BAD_REQUEST);
+        }
+
+        String pitId = token != null
+                ? token.pitId()
+                : elasticsearchOperations.openPointInTime(
+                        elasticsearchOperations.getIndexCoordinatesFor(documentClass), keepAlive);
+        int pageNumber = token != null ? token.page() + 1 : 0;
+
+        CriteriaQuery query = new CriteriaQuery(criteria);
+        query.addSort(stableSort);
+        query.setMaxResults(pageSize);
+        query.setPointInTime(new Query.PointInTime(pitId, keepAlive));
+        if (token != null) {
+            query.setSearchAfter(token.searchAfter());
+        }
+
+        SearchHits<T> searchHits;
+        try {
+            searchHits = elasticsearchOperations.search(query, documentClass);
+        } catch (RuntimeException e) {
+            // Sadece PIT süresi dolmuş / çözülemiyorsa 410: client ilk sayfadan yeniden başlar.
+            // ES kesintisi, mapping hatası vb. normal hata yolundan gider.
+            if (token != null && isPointInTimeUnavailable(e)) {
+                throw new ApiException("Cursor expired, restart the search from the first page", HttpStatus.GONE);
+            }
+            throw e;
+        }
+
+        List<SearchHit<T>> hits = searchHits.getSearchHits();
+        List<T> content = hits.stream().map(SearchHit::getContent).toList();
+        // ES her yanıtta PIT id'sini güncelleyebilir
+        String currentPitId = searchHits.getPointInTimeId() != null ? searchHits.getPointInTimeId() : pitId;
+
+        String nextCursor = null;
+        if (hits.size() == pageSize) {
+            List<Object> searchAfter = hits.get(hits.size() - 1).getSortValues();
+            nextCursor = encode(new CursorToken(currentPitId, searchAfter, pageNumber, fullFingerprint));
+        } else {
+            closeQuietly(currentPitId);
+        }
+
+        return new CursorPage<>(content, nextCursor, pageNumber, pageSize, searchHits.getTotalHits(), sort);
+    }
+
+    private Sort withTiebreaker(Sort sort) {
+        if (sort.getOrderFor("id") != null) {
+            return sort;
+        }
+        return sort.and(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    /**
+     * PIT bulunamadı (keep-alive dolmuş, search_context_missing_exception) veya PIT id'si
+     * ES tarafından çözülemedi mi? Spring Data hatayı sarmalayabildiği için cause zinciri taranır.
+     */
+    static boolean isPointInTimeUnavailable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            String type = null;
+            String reason = t.getMessage();
+            if (t instanceof ElasticsearchException es && es.error() != null) {
+                type = es.error().type();
+                reason = es.error().reason();
+            }
+            if (SEARCH_CONTEXT_MISSING.equals(type)
+                    || (reason != null && (reason.contains(SEARCH_CONTEXT_MISSING)
+                    || reason.contains("No search context found")
+                    || reason.toLowerCase(Locale.ROOT).contains("point in time id")
+                    || reason.toLowerCase(Locale.ROOT).contains("pit id")))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeQuietly(String pitId) {
+        try {
+            elasticsearchOperations.closePointInTime(pitId);
+        } catch (Exception e) {
+            log.debug("Failed to close point-in-time (will expire on keep-alive): {}", e.getMessage());
+        }
+    }
+
+    // ============================================================================
+    // CURSOR ENCODING
+    // ============================================================================
+
+    private String encode(CursorToken token) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(token));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    private CursorToken decode(String cursor) {
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            return objectMapper.readValue(json, CursorToken.class);
+        } catch (Exception e) {
+            throw new ApiException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
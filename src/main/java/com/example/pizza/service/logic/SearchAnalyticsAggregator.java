@@ -0,0 +1,232 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.logic.sketch.HyperLogLog;
+import com.example.pizza.logic.sketch.SpaceSavingTopK;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Arama olaylarının saatlik rollup'lara akış halinde toplanması
+ *
+ * - SearchLogBuffer yazıcı thread'i her olay için record() çağırır (tek thread, kilit yok)
+ * - Açık saatlerin özetleri persist-interval-ms'de bir pizza.search_analytics_rollups
+ *   tablosuna upsert edilir; kapanan saatler yazıldıktan sonra bellekten atılır
+ * - Her uygulama başlangıcı kendi instance_id'si ile yazar: çoklu instance ve restart
+ *   durumunda satırlar birbirinin üzerine yazmaz, okuma tarafında merge edilir
+ *
+ * Bellekten atılmış bir saate ait geç olaylar düşürülür: yeni boş bir rollup açıp upsert etmek
+ * DB'deki o saatin sayaçlarını ve sketch'lerini ezerdi.
+ *
+ * Sadece tam aramalar (ürün araması) toplanır; autocomplete tuş vuruşları top sorguları
+ * prefix'lerle doldurmasın diye hariç tutulur.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchAnalyticsAggregator {
+
+    private static final TypeReference<List<SpaceSavingTopK.Entry>> ENTRY_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<Map<Long, Long>> CATEGORY_COUNTS = new TypeReference<>() {
+    };
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO pizza.search_analytics_rollups (bucket_start, instance_id, total_searches,
+                zero_result_searches, result_count_sum, response_time_sum, min_response_ms, max_response_ms,
+                unique_queries_hll, response_time_histogram, top_queries, zero_result_queries, category_counts,
+                updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)
+            ON CONFLICT (bucket_start, instance_id) DO UPDATE
+            SET total_searches = EXCLUDED.total_searches,
+                zero_result_searches = EXCLUDED.zero_result_searches,
+                result_count_sum = EXCLUDED.result_count_sum,
+                response_time_sum = EXCLUDED.response_time_sum,
+                min_response_ms = EXCLUDED.min_response_ms,
+                max_response_ms = EXCLUDED.max_response_ms,
+                unique_queries_hll = EXCLUDED.unique_queries_hll,
+                response_time_histogram = EXCLUDED.response_time_histogram,
+                top_queries = EXCLUDED.top_queries,
+                zero_result_queries = EXCLUDED.zero_result_queries,
+                category_counts = EXCLUDED.category_counts,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${search.analytics.rollup.top-k-capacity:200}")
+    private int topKCapacity;
+
+    @Value("${search.analytics.rollup.persist-interval-ms:60000}")
+    private long persistIntervalMs;
+
+    @Value("${search.analytics.rollup.search-types:PRODUCT,PRODUCT_FACETED}")
+    private Set<String> searchTypes;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /** Saat başlangıcı → rollup (sadece yazıcı thread erişir) */
+    private final TreeMap<LocalDateTime, SearchAnalyticsRollup> openBuckets = new TreeMap<>();
+    private final Set<LocalDateTime> dirtyBuckets = new HashSet<>();
+    private long lastPersistAt = System.currentTimeMillis();
+
+    /** Bu saatten önceki bucket'lar bellekten atıldı; onlara ait olaylar kabul edilmez */
+    private LocalDateTime evictedBefore = LocalDateTime.MIN;
+    private long droppedLateEvents;
+
+    // ============================================================================
+    // WRITE SIDE (search-log-writer thread)
+    // ============================================================================
+
+    public void record(String searchType, String normalizedQuery, int resultCount, Long categoryId,
+                       long responseTimeMs, long timestampMillis) {
+        if (searchType == null || !searchTypes.contains(searchType)) {
+            return;
+        }
+        LocalDateTime bucket = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMillis), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.HOURS);
+        if (bucket.isBefore(evictedBefore)) {
+            droppedLateEvents++;
+            return;
+        }
+        openBuckets.computeIfAbsent(bucket, b -> new SearchAnalyticsRollup(topKCapacity))
+                .record(normalizedQuery, resultCount, categoryId, responseTimeMs);
+        dirtyBuckets.add(bucket);
+    }
+
+    /**
+     * persist-interval-ms dolduysa (veya force=true) değişen saatleri DB'ye yazar
+     */
+    public void persistIfDue(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now - lastPersistAt < persistIntervalMs) {
+            return;
+        }
+        lastPersistAt = now;
+
+        for (LocalDateTime bucket : dirtyBuckets) {
+            try {
+                save(bucket, openBuckets.get(bucket));
+            } catch (Exception e) {
+                log.error("Failed to persist search analytics rollup for {}", bucket, e);
+                return; // Dirty kalır, bir sonraki turda tekrar denenir
+            }
+        }
+        dirtyBuckets.clear();
+
+        // Geç gelen olaylar için bir önceki saat açık tutulur, daha eskiler bellekten atılır
+        LocalDateTime keepFrom = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        Iterator<LocalDateTime> it = openBuckets.keySet().iterator();
+        while (it.hasNext() && it.next().isBefore(keepFrom)) {
+            it.remove();
+        }
+        evictedBefore = keepFrom;
+
+        if (droppedLateEvents > 0) {
+            log.warn("Dropped {} late search events for already persisted hours (before {})",
+                    droppedLateEvents, keepFrom);
+            droppedLateEvents = 0;
+        }
+    }
+
+    private void save(LocalDateTime bucket, SearchAnalyticsRollup rollup) throws Exception {
+        jdbcTemplate.update(UPSERT_SQL,
+                Timestamp.valueOf(bucket),
+                instanceId,
+                rollup.getTotalSearches(),
+                rollup.getZeroResultSearches(),
+                rollup.getResultCountSum(),
+                rollup.getResponseTimeSum(),
+                rollup.getMaxResponseMs() >= 0 ? rollup.getMinResponseMs() : null,
+                rollup.getMaxResponseMs() >= 0 ? rollup.getMaxResponseMs() : null,
+                rollup.getUniqueQueries().toBytes(),
+                encode(rollup.getResponseTimes()),
+                objectMapper.writeValueAsString(rollup.getTopQueries().entries()),
+                objectMapper.writeValueAsString(rollup.getZeroResultQueries().entries()),
+                objectMapper.writeValueAsString(rollup.getCategoryCounts()));
+    }
+
+    // ============================================================================
+    // READ SIDE
+    // ============================================================================
+
+    /**
+     * from (dahil) sonrasındaki tüm saatlik rollup'ları tek özet halinde birleştirir
+     * Maliyet: O(saat × instance) satır; ham log taranmaz.
+     */
+    public SearchAnalyticsRollup loadMerged(LocalDateTime from) {
+        SearchAnalyticsRollup merged = new SearchAnalyticsRollup(topKCapacity);
+        jdbcTemplate.query("""
+                SELECT total_searches, zero_result_searches, result_count_sum, response_time_sum,
+                       min_response_ms, max_response_ms, unique_queries_hll, response_time_histogram,
+                       top_queries, zero_result_queries, category_counts
+                FROM pizza.search_analytics_rollups
+                WHERE bucket_start >= ?
+                """, rs -> {
+            try {
+                merged.merge(fromRow(rs));
+            } catch (Exception e) {
+                log.warn("Skipping unreadable search analytics rollup row: {}", e.getMessage());
+            }
+        }, Timestamp.valueOf(from.truncatedTo(ChronoUnit.HOURS)));
+        return merged;
+    }
+
+    private SearchAnalyticsRollup fromRow(ResultSet rs) throws Exception {
+        SearchAnalyticsRollup rollup = new SearchAnalyticsRollup(
+                HyperLogLog.fromBytes(rs.getBytes("unique_queries_hll")),
+                decode(rs.getBytes("response_time_histogram")),
+                SpaceSavingTopK.fromEntries(topKCapacity,
+                        objectMapper.readValue(rs.getString("top_queries"), ENTRY_LIST)),
+                SpaceSavingTopK.fromEntries(topKCapacity,
+                        objectMapper.readValue(rs.getString("zero_result_queries"), ENTRY_LIST)),
+                objectMapper.readValue(rs.getString("category_counts"), CATEGORY_COUNTS));
+        rollup.setCounters(
+                rs.getLong("total_searches"),
+                rs.getLong("zero_result_searches"),
+                rs.getLong("result_count_sum"),
+                rs.getLong("response_time_sum"),
+                nullableLong(rs, "min_response_ms", Long.MAX_VALUE),
+                nullableLong(rs, "max_response_ms", -1));
+        return rollup;
+    }
+
+    private static long nullableLong(ResultSet rs, String column, long defaultValue) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? defaultValue : value;
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] bytes) throws Exception {
+        return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes),
+                SearchAnalyticsRollup.MAX_TRACKABLE_RESPONSE_MS);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.logic.sketch.HyperLogLog;
+import com.example.pizza.logic.sketch.SpaceSavingTopK;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Bir saatlik arama analitiği özeti (pizza.search_analytics_rollups satırı)
+ *
+ * Ham log yerine sabit boyutlu sketch'ler tutulur:
+ * - topQueries / zeroResultQueries: Space-Saving top-K
+ * - uniqueQueries: HyperLogLog
+ * - responseTimes: HDR histogram (percentile'lar)
+ * - categoryCounts: kesin sayım (kategori sayısı küçük)
+ *
+ * merge() ile saatler birleştirilir; analitik sorgusu O(saat sayısı) olur.
+ */
+@Getter
+public class SearchAnalyticsRollup {
+
+    public static final int HLL_PRECISION = 12;
+    public static final long MAX_TRACKABLE_RESPONSE_MS = 3_600_000L;
+    public static final int HISTOGRAM_SIGNIFICANT_DIGITS = 2;
+
+    private long totalSearches;
+    private long zeroResultSearches;
+    private long resultCountSum;
+    private long responseTimeSum;
+    private long minResponseMs = Long.MAX_VALUE;
+    private long maxResponseMs = -1;
+
+    private final HyperLogLog uniqueQueries;
+    private final Histogram responseTimes;
+    private final SpaceSavingTopK topQueries;
+    private final SpaceSavingTopK zeroResultQueries;
+    private final Map<Long, Long> categoryCounts;
+
+    public SearchAnalyticsRollup(int topKCapacity) {
+        this(new HyperLogLog(HLL_PRECISION),
+                new Histogram(MAX_TRACKABLE_RESPONSE_MS, HISTOGRAM_SIGNIFICANT_DIGITS),
+                new SpaceSavingTopK(topKCapacity),
+                new SpaceSavingTopK(topKCapacity),
+                new HashMap<>());
+    }
+
+    SearchAnalyticsRollup(HyperLogLog uniqueQueries, Histogram responseTimes, SpaceSavingTopK topQueries,
+                          SpaceSavingTopK zeroResultQueries, Map<Long, Long> categoryCounts) {
+        this.uniqueQueries = uniqueQueries;
+        this.responseTimes = responseTimes;
+        this.topQueries = topQueries;
+        this.zeroResultQueries = zeroResultQueries;
+        this.categoryCounts = categoryCounts;
+    }
+
+    void setCounters(long totalSearches, long zeroResultSearches, long resultCountSum, long responseTimeSum,
+                     long minResponseMs, long maxResponseMs) {
+        this.totalSearches = totalSearches;
+        this.zeroResultSearches = zeroResultSearches;
+        this.resultCountSum = resultCountSum;
+        this.responseTimeSum = responseTimeSum;
+        this.minResponseMs = minResponseMs;
+        this.maxResponseMs = maxResponseMs;
+    }
+
+    /**
+     * @param query Normalize edilmiş (trim + lowercase) sorgu
+     */
+    public void record(String query, int resultCount, Long categoryId, long responseTimeMs) {
+        totalSearches++;
+        resultCountSum += resultCount;
+
+        topQueries.add(query);
+        uniqueQueries.add(query);
+        if (resultCount == 0) {
+            zeroResultSearches++;
+            zeroResultQueries.add(query);
+        }
+
+        long latency = Math.max(0, Math.min(responseTimeMs, MAX_TRACKABLE_RESPONSE_MS));
+        responseTimes.recordValue(latency);
+        responseTimeSum += latency;
+        minResponseMs = Math.min(minResponseMs, latency);
+        maxResponseMs = Math.max(maxResponseMs, latency);
+
+        if (categoryId != null) {
+            categoryCounts.merge(categoryId, 1L, Long::sum);
+        }
+    }
+
+    public void merge(SearchAnalyticsRollup other) {
+        totalSearches += other.totalSearches;
+        zeroResultSearches += other.zeroResultSearches;
+        resultCountSum += other.resultCountSum;
+        responseTimeSum += other.responseTimeSum;
+        minResponseMs = Math.min(minResponseMs, other.minResponseMs);
+        maxResponseMs = Math.max(maxResponseMs, other.maxResponseMs);
+
+        uniqueQueries.merge(other.uniqueQueries);
+        responseTimes.add(other.responseTimes);
+        topQueries.merge(other.topQueries);
+        zeroResultQueries.merge(other.zeroResultQueries);
+        other.categoryCounts.forEach((id, count) -> categoryCounts.merge(id, count, Long::sum));
+    }
+
+    public boolean isEmpty() {
+        return totalSearches == 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.dto.admin.SearchIndexDeadLetterResponse;
+import com.example.pizza.entity.order.OrderDocument;
+import com.example.pizza.entity.product.ProductDocument;
+import com.example.pizza.entity.user.UserDocument;
+import com.example.pizza.repository.OrderRepository;
+import com.example.pizza.repository.ProductRepository;
+import com.example.pizza.repository.UserRepository;
+import com.example.pizza.service.order.OrderSearchService;
+import com.example.pizza.service.product.ProductSearchService;
+import com.example.pizza.service.user.UserSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Search index dead-letter yönetimi (admin)
+ *
+ * Replay, dead-letter'daki payload'ı değil entity'nin DB'deki GÜNCEL halini
+ * kuyruğa ekler; entity artık yoksa index'ten silme kuyruğa eklenir.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexDeadLetterService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SearchIndexQueue searchIndexQueue;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductSearchService productSearchService;
+    private final OrderSearchService orderSearchService;
+    private final UserSearchService userSearchService;
+
+    @Transactional(readOnly = true)
+    public List<SearchIndexDeadLetterResponse> getDeadLetters(int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, index_name, document_id, operation, attempts, last_error, created_at
+                FROM pizza.search_index_dead_letters
+                ORDER BY id
+                LIMIT ?
+                """, (rs, rowNum) -> new SearchIndexDeadLetterResponse(
+                rs.getLong("id"),
+                rs.getString("index_name"),
+                rs.getString("document_id"),
+                rs.getString("operation"),
+                rs.getInt("attempts"),
+                rs.getString("last_error"),
+                rs.getTimestamp("created_at").toLocalDateTime()), limit);
+    }
+
+    /**
+     * En eski dead-letter kayıtlarını tekrar kuyruğa ekler ve tablodan siler
+     *
+     * @return Tekrar kuyruğa eklenen kayıt sayısı (bilinmeyen index'e ait kayıtlar sayılmaz, tabloda kalır)
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int replay(int limit) {
+        List<SearchIndexDeadLetterResponse> deadLetters = getDeadLetters(limit);
+        String productIndex = searchIndexQueue.indexName(ProductDocument.class);
+        String orderIndex = searchIndexQueue.indexName(OrderDocument.class);
+        String userIndex = searchIndexQueue.indexName(UserDocument.class);
+
+        int replayed = 0;
+        for (SearchIndexDeadLetterResponse deadLetter : deadLetters) {
+            Long id = Long.valueOf(deadLetter.documentId());
+            String index = deadLetter.indexName();
+
+            if (index.equals(productIndex)) {
+                productRepository.findById(id).ifPresentOrElse(
+                        productSearchService::indexProduct,
+                        () -> searchIndexQueue.delete(ProductDocument.class, id));
+            } else if (index.equals(orderIndex)) {
+                orderRepository.findById(id).ifPresentOrElse(
+                        orderSearchService::indexOrder,
+                        () -> searchIndexQueue.delete(OrderDocument.class, id));
+            } else if (index.equals(userIndex)) {
+                userRepository.findById(id).ifPresentOrElse(
+                        user -> searchIndexQueue.upsert(userSearchService.toDocument(user), id),
+                        () -> searchIndexQueue.delete(UserDocument.class, id));
+            } else {
+                log.warn("Unknown index in dead-letter ID {}: {}", deadLetter.id(), index);
+                continue;
+            }
+            jdbcTemplate.update("DELETE FROM pizza.search_index_dead_letters WHERE id = ?", deadLetter.id());
+            replayed++;
+        }
+
+        log.info("Replayed {} of {} search index dead-letters", replayed, deadLetters.size());
+        return replayed;
+    }
+}
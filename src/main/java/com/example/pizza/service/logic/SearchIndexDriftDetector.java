@@ -0,0 +1,288 @@
+package com.example.pizza.service.logic;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import com.example.pizza.dto.admin.SearchDriftReport;
+import com.example.pizza.entity.product.Product;
+import com.example.pizza.entity.product.ProductDocument;
+import com.example.pizza.repository.ProductRepository;
+import com.example.pizza.service.product.ProductSearchService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Postgres ↔ Elasticsearch tutarlılık kontrolü (product index)
+ *
+ * 1. Her iki tarafta id aralıkları (chunk) için tek sorguda checksum hesaplanır:
+ *    - SQL: GROUP BY id / chunk-size → COUNT(*), SUM(row_hash)
+ *    - ES:  histogram(id, interval=chunk-size) + sum(painless row_hash)
+ * 2. Sadece checksum'ı farklı chunk'lar doküman bazında karşılaştırılır (drill-down)
+ * 3. Farklar SearchIndexQueue üzerinden bulk upsert/delete ile onarılır
+ *
+ * row_hash: id, stock, price (kuruş) ve categoryId üzerinden mod P polinom hash.
+ * Mod P sayesinde chunk toplamı double hassasiyetini aşmaz (ES sum aggregation double döner).
+ * Maliyet: tam karşılaştırma yerine chunk sayısı + sapan chunk'lardaki doküman sayısı.
+ */
+@Slf4j
+@Service
+public class SearchIndexDriftDetector {
+
+    private static final long HASH_MODULUS = 2_147_483_647L; // 2^31 - 1
+
+    private static final String ES_ROW_HASH_SCRIPT = """
+            long p = 2147483647L;
+            long h = Math.floorMod(doc['id'].value, p);
+            h = Math.floorMod(h * 31 + (doc['stock'].size() == 0 ? 0L : doc['stock'].value), p);
+            h = Math.floorMod(h * 31 + (doc['price'].size() == 0 ? 0L : Math.round(doc['price'].value * 100)), p);
+            h = Math.floorMod(h * 31 + (doc['categoryId'].size() == 0 ? 0L : doc['categoryId'].value), p);
+            return h;
+            """;
+
+    private static final String SQL_CHUNK_CHECKSUMS = """
+            SELECT id / ? AS chunk,
+                   COUNT(*) AS doc_count,
+                   SUM(MOD(MOD(MOD(MOD(id, 2147483647) * 31 + stock, 2147483647) * 31
+                       + ROUND(price * 100)::BIGINT, 2147483647) * 31
+                       + COALESCE(category_id, 0), 2147483647)) AS checksum
+            FROM pizza.product
+            GROUP BY chunk
+            """;
+
+    private record ChunkChecksum(long count, long checksum) {
+        static final ChunkChecksum EMPTY = new ChunkChecksum(0, 0);
+    }
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final ProductSearchService productSearchService;
+    private final SearchIndexQueue searchIndexQueue;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counter chunksCheckedCounter;
+    private final Counter chunksMismatchedCounter;
+    private final Counter missingCounter;
+    private final Counter extraCounter;
+    private final Counter staleCounter;
+    private final AtomicInteger lastDriftGauge = new AtomicInteger();
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    @Value("${elasticsearch.drift.enabled:false}")
+    private boolean enabled;
+
+    @Value("${elasticsearch.drift.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${elasticsearch.drift.repair:true}")
+    private boolean repair;
+
+    public SearchIndexDriftDetector(ElasticsearchClient elasticsearchClient,
+                                    ElasticsearchOperations elasticsearchOperations,
+                                    JdbcTemplate jdbcTemplate,
+                                    ProductRepository productRepository,
+                                    ProductSearchService productSearchService,
+                                    SearchIndexQueue searchIndexQueue,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
+        this.searchIndexQueue = searchIndexQueue;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.chunksCheckedCounter = meterRegistry.counter("search.drift.chunks.checked", "index", "products");
+        this.chunksMismatchedCounter = meterRegistry.counter("search.drift.chunks.mismatched", "index", "products");
+        this.missingCounter = meterRegistry.counter("search.drift.documents", "index", "products", "type", "missing");
+        this.extraCounter = meterRegistry.counter("search.drift.documents", "index", "products", "type", "extra");
+        this.staleCounter = meterRegistry.counter("search.drift.documents", "index", "products", "type", "stale");
+        meterRegistry.gauge("search.drift.last.documents", Tags.of("index", "products"), lastDriftGauge);
+    }
+
+    @Scheduled(fixedDelayString = "${elasticsearch.drift.interval-ms:900000}",
+            initialDelayString = "${elasticsearch.drift.initial-delay-ms:120000}")
+    public void scheduledCheck() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Self-invocation proxy'den geçmez: checkProducts'taki @Transactional burada uygulanmaz
+            readOnlyTransaction.execute(status -> checkProducts());
+        } catch (Exception e) {
+            log.error("Scheduled drift check failed", e);
+        }
+    }
+
+    /**
+     * Product index için drift kontrolü ve (repair=true ise) onarım
+     */
+    @Transactional(readOnly = true)
+    public SearchDriftReport checkProducts() {
+        String index = searchIndexQueue.indexName(ProductDocument.class);
+        if (!runLock.tryLock()) {
+            log.info("Drift check already running - skipping");
+            return new SearchDriftReport(index, 0, 0, 0, 0, 0, 0);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Map<Long, ChunkChecksum> dbChunks = loadDbChecksums();
+            Map<Long, ChunkChecksum> esChunks = loadEsChecksums(index);
+
+            Set<Long> chunks = new HashSet<>(dbChunks.keySet());
+            chunks.addAll(esChunks.keySet());
+
+            int mismatched = 0;
+            int[] drift = new int[3]; // missing, extra, stale
+            for (Long chunk : chunks) {
+                if (!dbChunks.getOrDefault(chunk, ChunkChecksum.EMPTY)
+                        .equals(esChunks.getOrDefault(chunk, ChunkChecksum.EMPTY))) {
+                    mismatched++;
+                    drillDown(chunk, drift);
+                }
+            }
+
+            chunksCheckedCounter.increment(chunks.size());
+            chunksMismatchedCounter.increment(mismatched);
+            missingCounter.increment(drift[0]);
+            extraCounter.increment(drift[1]);
+            staleCounter.increment(drift[2]);
+            lastDriftGauge.set(drift[0] + drift[1] + drift[2]);
+
+            SearchDriftReport report = new SearchDriftReport(index, chunks.size(), mismatched,
+                    drift[0], drift[1], drift[2], System.currentTimeMillis() - start);
+            if (report.totalDrift() > 0) {
+                log.warn("Search index drift detected: {}", report);
+            } else {
+                log.info("Search index consistent: {} chunks checked in {} ms", chunks.size(), report.durationMs());
+            }
+            return report;
+        } finally {
+            runLock.unlock();
+        }
+    }
+
+    // ============================================================================
+    // CHUNK CHECKSUMS
+    // ============================================================================
+
+    private Map<Long, ChunkChecksum> loadDbChecksums() {
+        Map<Long, ChunkChecksum> result = new HashMap<>();
+        jdbcTemplate.query(SQL_CHUNK_CHECKSUMS, rs -> {
+            result.put(rs.getLong("chunk"), new ChunkChecksum(rs.getLong("doc_count"), rs.getLong("checksum")));
+        }, chunkSize);
+        return result;
+    }
+
+    private Map<Long, ChunkChecksum> loadEsChecksums(String index) {
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                    .index(index)
+                    .size(0)
+                    .aggregations("chunks", a -> a
+                            .histogram(h -> h.field("id").interval((double) chunkSize).minDocCount(1))
+                            .aggregations("checksum", sub -> sub
+                                    .sum(sum -> sum.script(script -> script
+                                            .lang("painless").source(ES_ROW_HASH_SCRIPT))))),
+                    Void.class);
+
+            Map<Long, ChunkChecksum> result = new HashMap<>();
+            for (HistogramBucket bucket : response.aggregations().get("chunks").histogram().buckets().array()) {
+                long chunk = (long) bucket.key() / chunkSize;
+                long checksum = (long) bucket.aggregations().get("checksum").sum().value();
+                result.put(chunk, new ChunkChecksum(bucket.docCount(), checksum));
+            }
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException("Elasticsearch checksum aggregation failed", e);
+        }
+    }
+
+    // ============================================================================
+    // DRILL-DOWN & REPAIR
+    // ============================================================================
+
+    private void drillDown(long chunk, int[] drift) {
+        long fromId = chunk * chunkSize;
+        long toId = fromId + chunkSize - 1;
+
+        Map<Long, Product> dbRows = productRepository.findAllWithCategoryByIdBetween(fromId, toId).stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+
+        CriteriaQuery query = new CriteriaQuery(new Criteria("id").between(fromId, toId))
+                .setPageable(PageRequest.of(0, chunkSize));
+        Map<Long, ProductDocument> esDocs = elasticsearchOperations.search(query, ProductDocument.class).stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toMap(ProductDocument::getId, d -> d));
+
+        for (Product product : dbRows.values()) {
+            ProductDocument doc = esDocs.get(product.getId());
+            if (doc == null) {
+                drift[0]++;
+                repairUpsert(product);
+            } else if (rowHash(product) != rowHash(doc)) {
+                drift[2]++;
+                repairUpsert(product);
+            }
+        }
+        for (Long id : esDocs.keySet()) {
+            if (!dbRows.containsKey(id)) {
+                drift[1]++;
+                if (repair) {
+                    searchIndexQueue.delete(ProductDocument.class, id);
+                }
+            }
+        }
+    }
+
+    private void repairUpsert(Product product) {
+        if (repair) {
+            productSearchService.indexProduct(product);
+        }
+    }
+
+    private static long rowHash(Product p) {
+        return rowHash(p.getId(), p.getStock(), Math.round(p.getPrice() * 100),
+                p.getCategory() != null ? p.getCategory().getId() : null);
+    }
+
+    private static long rowHash(ProductDocument d) {
+        return rowHash(d.getId(), d.getStock() != null ? d.getStock() : 0,
+                d.getPrice() != null ? Math.round(d.getPrice() * 100) : 0, d.getCategoryId());
+    }
+
+    private static long rowHash(long id, long stock, long priceCents, Long categoryId) {
+        long h = Math.floorMod(id, HASH_MODULUS);
+        h = Math.floorMod(h * 31 + stock, HASH_MODULUS);
+        h = Math.floorMod(h * 31 + priceCents, HASH_MODULUS);
+        h = Math.floorMod(h * 31 + (categoryId != null ? categoryId : 0), HASH_MODULUS);
+        return h;
+    }
+}
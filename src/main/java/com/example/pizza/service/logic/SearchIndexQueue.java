@@ -0,0 +1,429 @@
+package com.example.pizza.service.logic;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Elasticsearch index yazımları için coalescing asenkron kuyruk
+ *
+ * - (index, id) anahtarlı, sınırlı kapasiteli kuyruk: aynı dokümana gelen ardışık
+ *   yazmalar tek yazmaya indirgenir (son durum kazanır)
+ * - Yazmalar DB transaction commit'inden SONRA kuyruğa girer (rollback olan veri index'lenmez)
+ * - Tek worker thread: batch-size dolduğunda veya flush-interval-ms dolduğunda _bulk ile gönderir
+ * - Geçici hatalar (429, 5xx, bağlantı hatası) exponential backoff ile tekrar denenir
+ * - Kalıcı hatalar / max-attempts aşımı pizza.search_index_dead_letters tablosuna yazılır
+ *   (admin replay endpoint'i ile tekrar işlenebilir)
+ *
+ * Kuyruk dolarsa yazma düşürülür ve sayılır; kayıp veri delta sync job'ı tarafından telafi edilir.
+ *
+ * Flush listener'ları: bir index'e listener kayıtlıysa o index'i içeren _bulk refresh=wait_for ile
+ * gönderilir ve yazmalar aranabilir olduktan sonra listener çağrılır (ör. arama cache versiyonu).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexQueue {
+
+    public enum Operation {
+        UPSERT, DELETE
+    }
+
+    private record IndexKey(String index, String id) {
+    }
+
+    private static final class PendingWrite {
+        final IndexKey key;
+        final Operation operation;
+        final Object document;
+        int attempts;
+        long notBefore;
+        String lastError;
+
+        PendingWrite(IndexKey key, Operation operation, Object document) {
+            this.key = key;
+            this.operation = operation;
+            this.document = document;
+        }
+    }
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${elasticsearch.index-queue.capacity:10000}")
+    private int capacity;
+
+    @Value("${elasticsearch.index-queue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${elasticsearch.index-queue.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${elasticsearch.index-queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${elasticsearch.index-queue.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${elasticsearch.index-queue.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushSignal = lock.newCondition();
+    private final LinkedHashMap<IndexKey, PendingWrite> pending = new LinkedHashMap<>();
+
+    private final Map<String, List<Runnable>> flushListeners = new ConcurrentHashMap<>();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::runWorker, "search-index-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Search index queue started: capacity={}, batchSize={}, flushIntervalMs={}",
+                capacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        signal();
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+
+        // Son drain: backoff beklemeden tek deneme, başarısızlar dead-letter'a
+        List<PendingWrite> remaining = drain(Integer.MAX_VALUE, true);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} pending index writes on shutdown", remaining.size());
+            List<PendingWrite> failed = sendBulk(remaining);
+            failed.forEach(w -> w.attempts = maxAttempts);
+            deadLetter(failed);
+        }
+    }
+
+    // ============================================================================
+    // PUBLIC API
+    // ============================================================================
+
+    /**
+     * Dokümanı index'e yazar (@Document sınıfından index adı çözülür)
+     */
+    public void upsert(Object document, Object id) {
+        String index = indexName(document.getClass());
+        submit(new PendingWrite(new IndexKey(index, String.valueOf(id)), Operation.UPSERT, document));
+    }
+
+    public void delete(Class<?> documentClass, Object id) {
+        String index = indexName(documentClass);
+        submit(new PendingWrite(new IndexKey(index, String.valueOf(id)), Operation.DELETE, null));
+    }
+
+    /**
+     * documentClass index'ine yapılan yazmalar aranabilir hale geldiğinde çağrılır (worker thread'inde)
+     */
+    public void addFlushListener(Class<?> documentClass, Runnable listener) {
+        flushListeners.computeIfAbsent(indexName(documentClass), k -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public String indexName(Class<?> documentClass) {
+        return elasticsearchOperations.getIndexCoordinatesFor(documentClass).getIndexName();
+    }
+
+    public Map<String, Long> getStats() {
+        lock.lock();
+        try {
+            return Map.of(
+                    "pending", (long) pending.size(),
+                    "coalesced", coalescedCount.get(),
+                    "dropped", droppedCount.get(),
+                    "flushed", flushedCount.get(),
+                    "deadLettered", deadLetterCount.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================================================
+    // ENQUEUE
+    // ============================================================================
+
+    private void submit(PendingWrite write) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(write);
+                }
+            });
+        } else {
+            offer(write);
+        }
+    }
+
+    private void offer(PendingWrite write) {
+        lock.lock();
+        try {
+            // put(): mevcut anahtar kuyruktaki yerini korur, sadece değer (son durum) değişir
+            PendingWrite previous = pending.get(write.key);
+            if (previous == null && pending.size() >= capacity) {
+                long dropped = droppedCount.incrementAndGet();
+                if (dropped == 1 || dropped % 1000 == 0) {
+                    log.warn("Search index queue full ({}), dropped {} writes so far - delta sync will repair",
+                            capacity, dropped);
+                }
+                return;
+            }
+            if (previous != null) {
+                coalescedCount.incrementAndGet();
+            }
+            pending.put(write.key, write);
+            if (pending.size() >= batchSize) {
+                flushSignal.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            flushSignal.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ============================================================================
+    // WORKER
+    // ============================================================================
+
+    private void runWorker() {
+        while (running) {
+            try {
+                lock.lock();
+                try {
+                    long waitMs = waitMillis(System.currentTimeMillis());
+                    if (waitMs > 0) {
+                        flushSignal.await(waitMs, TimeUnit.MILLISECONDS);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                List<PendingWrite> batch;
+                while (!(batch = drain(batchSize, false)).isEmpty()) {
+                    retry(sendBulk(batch));
+                    if (!running) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Search index worker iteration failed", e);
+            }
+        }
+    }
+
+    /**
+     * Lock tutulurken çağrılır. Batch dolu değilse flush aralığı kadar beklenir; doluysa ve
+     * hepsi backoff'taysa en erken notBefore'a (veya yeni bir yazmanın sinyaline) kadar beklenir.
+     */
+    private long waitMillis(long now) {
+        if (pending.size() < batchSize) {
+            return flushIntervalMs;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (PendingWrite w : pending.values()) {
+            if (w.notBefore <= now) {
+                return 0;
+            }
+            earliest = Math.min(earliest, w.notBefore);
+        }
+        return Math.min(flushIntervalMs, earliest - now);
+    }
+
+    private List<PendingWrite> drain(int max, boolean ignoreBackoff) {
+        long now = System.currentTimeMillis();
+        List<PendingWrite> batch = new ArrayList<>(Math.min(max, 1024));
+        lock.lock();
+        try {
+            Iterator<PendingWrite> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < max) {
+                PendingWrite w = it.next();
+                if (ignoreBackoff || w.notBefore <= now) {
+                    batch.add(w);
+                    it.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    /**
+     * Batch'i tek _bulk isteği ile gönderir
+     *
+     * @return Başarısız olan (tekrar denenecek veya dead-letter'a gidecek) yazmalar
+     */
+    private List<PendingWrite> sendBulk(List<PendingWrite> batch) {
+        List<PendingWrite> failed = new ArrayList<>();
+        BulkResponse response;
+        try {
+            BulkRequest.Builder request = new BulkRequest.Builder();
+            if (batch.stream().anyMatch(w -> flushListeners.containsKey(w.key.index()))) {
+                request.refresh(Refresh.WaitFor);
+            }
+            for (PendingWrite w : batch) {
+                if (w.operation == Operation.UPSERT) {
+                    Map<String, Object> source = elasticsearchOperations.getElasticsearchConverter()
+                            .mapObject(w.document);
+                    request.operations(op -> op.index(i -> i.index(w.key.index()).id(w.key.id()).document(source)));
+                } else {
+                    request.operations(op -> op.delete(d -> d.index(w.key.index()).id(w.key.id())));
+                }
+            }
+            response = elasticsearchClient.bulk(request.build());
+        } catch (Exception e) {
+            // Bağlantı / timeout: tüm batch geçici hata sayılır
+            log.warn("Bulk index request failed ({} writes): {}", batch.size(), e.getMessage());
+            for (PendingWrite w : batch) {
+                w.lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+                failed.add(w);
+            }
+            return failed;
+        }
+
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            PendingWrite w = batch.get(i);
+            if (item.error() == null || (w.operation == Operation.DELETE && item.status() == 404)) {
+                continue;
+            }
+            w.lastError = item.status() + " " + item.error().type() + ": " + item.error().reason();
+            if (!isRetryable(item.status())) {
+                w.attempts = maxAttempts; // Kalıcı hata (ör. mapping) - tekrar denemenin anlamı yok
+            }
+            failed.add(w);
+        }
+        flushedCount.addAndGet(batch.size() - failed.size());
+        notifyFlushListeners(batch, failed);
+        return failed;
+    }
+
+    private void notifyFlushListeners(List<PendingWrite> batch, List<PendingWrite> failed) {
+        if (flushListeners.isEmpty()) {
+            return;
+        }
+        Set<String> indices = new HashSet<>();
+        for (PendingWrite w : batch) {
+            if (!failed.contains(w)) {
+                indices.add(w.key.index());
+            }
+        }
+        for (String index : indices) {
+            for (Runnable listener : flushListeners.getOrDefault(index, List.of())) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    log.warn("Flush listener for index {} failed: {}", index, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    private void retry(List<PendingWrite> failed) {
+        if (failed.isEmpty()) {
+            return;
+        }
+        List<PendingWrite> dead = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (PendingWrite w : failed) {
+                if (pending.containsKey(w.key)) {
+                    continue; // Daha yeni bir yazma bekliyor, eskisini tekrar denemeye gerek yok
+                }
+                w.attempts++;
+                if (w.attempts >= maxAttempts) {
+                    dead.add(w);
+                    continue;
+                }
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(w.attempts - 1, 20));
+                w.notBefore = now + backoff;
+                pending.put(w.key, w);
+            }
+        } finally {
+            lock.unlock();
+        }
+        deadLetter(dead);
+    }
+
+    private void deadLetter(List<PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("""
+                    INSERT INTO pizza.search_index_dead_letters (index_name, document_id, operation, attempts, last_error)
+                    VALUES (?, ?, ?, ?, ?)
+                    """, writes.stream()
+                    .map(w -> new Object[]{w.key.index(), w.key.id(), w.operation.name(), w.attempts,
+                            truncate(w.lastError)})
+                    .toList());
+            deadLetterCount.addAndGet(writes.size());
+            log.error("{} index writes moved to dead-letter table", writes.size());
+        } catch (Exception e) {
+            log.error("Failed to write {} index writes to dead-letter table", writes.size(), e);
+        }
+    }
+
+    private String truncate(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() > 1000 ? value.substring(0, 1000) : value;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.repository.OrderRepository;
+import com.example.pizza.repository.ProductRepository;
+import com.example.pizza.repository.UserRepository;
+import com.example.pizza.service.order.OrderSearchService;
+import com.example.pizza.service.product.ProductSearchService;
+import com.example.pizza.service.user.UserSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Elasticsearch delta sync (updated_at watermark tabanlı)
+ *
+ * Her entity tipi için (product, order, user) pizza.search_sync_state tablosunda
+ * bir watermark tutulur. Her çalışmada sadece updated_at > watermark olan satırlar
+ * (updated_at, id) keyset'i ile batch batch okunur ve _bulk ile ES'e yazılır.
+ *
+ * Silmeler: DB trigger'ları pizza.search_sync_tombstones tablosuna kayıt atar;
+ * job bu kayıtları toplu olarak ES'ten siler ve tombstone'ları temizler.
+ *
+ * Safety lag: Watermark'tan biraz geriden başlanır (default 30 sn). Böylece
+ * watermark'tan önceki bir zaman damgasıyla geç commit olan transaction'lar
+ * kaçırılmaz. Upsert idempotent olduğu için tekrar index'lemek zararsızdır.
+ * Bulk indexer'a çalışma başındaki watermark da verilir: ürünlerde arama cache'i sadece
+ * watermark'tan yeni veya içeriği değişmiş satır index'lendiğinde geçersiz kılınır.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexSyncService {
+
+    public static final String ENTITY_PRODUCT = "product";
+    public static final String ENTITY_ORDER = "order";
+    public static final String ENTITY_USER = "user";
+
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ProductSearchService productSearchService;
+    private final OrderSearchService orderSearchService;
+    private final UserSearchService userSearchService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${elasticsearch.sync.enabled:true}")
+    private boolean syncEnabled;
+
+    @Value("${elasticsearch.sync.batch-size:100}")
+    private int batchSize;
+
+    @Value("${elasticsearch.sync.safety-lag-seconds:30}")
+    private long safetyLagSeconds;
+
+    private final ReentrantLock runLock = new ReentrantLock();
+
+    /**
+     * Tüm entity tipleri için delta sync + tombstone uygulaması
+     *
+     * @return Entity tipi → ES'e yazılan/silinen doküman sayısı
+     */
+    public Map<String, Integer> syncAll() {
+        Map<String, Integer> result = new HashMap<>();
+        if (!syncEnabled) {
+            log.debug("Elasticsearch sync disabled - skipping delta sync");
+            return result;
+        }
+        if (!runLock.tryLock()) {
+            log.debug("Delta sync already running - skipping");
+            return result;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            result.put(ENTITY_PRODUCT, syncEntity(ENTITY_PRODUCT, productRepository::findChangedSince,
+                    p -> p.getUpdatedAt(), p -> p.getId(), productSearchService::indexProducts));
+            result.put(ENTITY_ORDER, syncEntity(ENTITY_ORDER, orderRepository::findChangedSince,
+                    o -> o.getUpdatedAt(), o -> o.getId(), (batch, watermark) -> orderSearchService.indexOrders(batch)));
+            result.put(ENTITY_USER, syncEntity(ENTITY_USER, userRepository::findChangedSince,
+                    u -> u.getUpdatedAt(), u -> u.getId(), (batch, watermark) -> userSearchService.indexUsers(batch)));
+            result.put("tombstones", applyTombstones());
+
+            log.info("Elasticsearch delta sync completed in {} ms: {}", System.currentTimeMillis() - start, result);
+        } finally {
+            runLock.unlock();
+        }
+        return result;
+    }
+
+    // ============================================================================
+    // UPSERTS
+    // ============================================================================
+
+    @FunctionalInterface
+    private interface ChangeLoader<T> {
+        List<T> load(LocalDateTime since, Long lastId, Pageable pageable);
+    }
+
+    private <T> int syncEntity(String entityType,
+                               ChangeLoader<T> loader,
+                               Function<T, LocalDateTime> updatedAt,
+                               Function<T, Long> id,
+                               BiConsumer<List<T>, LocalDateTime> bulkIndexer) {
+        LocalDateTime watermark = loadWatermark(entityType);
+        LocalDateTime storedWatermark = watermark;
+        LocalDateTime cursorTime = watermark.minusSeconds(safetyLagSeconds);
+        Long cursorId = 0L;
+        int synced = 0;
+
+        try {
+            while (true) {
+                List<T> batch = loader.load(cursorTime, cursorId, PageRequest.of(0, batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                bulkIndexer.accept(batch, storedWatermark);
+                synced += batch.size();
+
+                T last = batch.get(batch.size() - 1);
+                cursorTime = updatedAt.apply(last);
+                cursorId = id.apply(last);
+
+                // Watermark sadece ileri gider (safety lag ile geriden başlamış olabiliriz)
+                if (cursorTime.isAfter(watermark)) {
+                    watermark = cursorTime;
+                    saveWatermark(entityType, watermark, synced);
+                }
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // Watermark son başarılı batch'te kalır; bir sonraki çalışmada kaldığı yerden devam edilir
+            log.error("Delta sync failed for {} after {} documents", entityType, synced, e);
+        }
+
+        if (synced > 0) {
+            log.debug("Delta sync {}: {} documents, watermark={}", entityType, synced, watermark);
+        }
+        return synced;
+    }
+
+    private LocalDateTime loadWatermark(String entityType) {
+        List<Timestamp> rows = jdbcTemplate.queryForList(
+                "SELECT watermark FROM pizza.search_sync_state WHERE entity_type = ?",
+                Timestamp.class, entityType);
+        return rows.isEmpty() || rows.get(0) == null ? INITIAL_WATERMARK : rows.get(0).toLocalDateTime();
+    }
+
+    private void saveWatermark(String entityType, LocalDateTime watermark, int syncedCount) {
+        jdbcTemplate.update("""
+                INSERT INTO pizza.search_sync_state (entity_type, watermark, last_synced_count, last_run_at)
+                VALUES (?, ?, ?, CURRENT_TIMESTAMP)
+                ON CONFLICT (entity_type) DO UPDATE
+                SET watermark = EXCLUDED.watermark,
+                    last_synced_count = EXCLUDED.last_synced_count,
+                    last_run_at = EXCLUDED.last_run_at
+                """, entityType, Timestamp.valueOf(watermark), syncedCount);
+    }
+
+    // ============================================================================
+    // TOMBSTONES (DELETIONS)
+    // ============================================================================
+
+    private record Tombstone(long id, String entityType, long entityId) {
+    }
+
+    private int applyTombstones() {
+        int applied = 0;
+        try {
+            while (true) {
+                List<Tombstone> tombstones = jdbcTemplate.query(
+                        "SELECT id, entity_type, entity_id FROM pizza.search_sync_tombstones ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Tombstone(rs.getLong("id"), rs.getString("entity_type"),
+                                rs.getLong("entity_id")),
+                        batchSize);
+                if (tombstones.isEmpty()) {
+                    break;
+                }
+
+                Map<String, List<Long>> idsByType = new HashMap<>();
+                for (Tombstone t : tombstones) {
+                    idsByType.computeIfAbsent(t.entityType(), k -> new ArrayList<>()).add(t.entityId());
+                }
+                productSearchService.deleteProductsFromIndex(idsByType.getOrDefault(ENTITY_PRODUCT, List.of()));
+                orderSearchService.deleteOrdersFromIndex(idsByType.getOrDefault(ENTITY_ORDER, List.of()));
+                userSearchService.deleteUsersFromIndex(idsByType.getOrDefault(ENTITY_USER, List.of()));
+
+                jdbcTemplate.batchUpdate("DELETE FROM pizza.search_sync_tombstones WHERE id = ?",
+                        tombstones.stream().map(t -> new Object[]{t.id()}).toList());
+                applied += tombstones.size();
+
+                if (tombstones.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Applying search tombstones failed after {} deletions", applied, e);
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.pizza.service.logic;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Arama log'ları için lock-free ring buffer + tek yazıcı thread
+ *
+ * Hot path (offer):
+ * - Önceden ayrılmış slot'lara yazar; nesne oluşturmaz, DB'ye gitmez
+ * - Slot CAS ile alınır (çoklu üretici), volatile sequence yazımı ile yayınlanır
+ * - Buffer doluysa olay düşürülür ve sayılır (arama isteği asla beklemez)
+ *
+ * Yazıcı thread (search-log-writer):
+ * - flush-interval-ms'de bir yayınlanmış slot'ları batch-size'lık gruplar halinde okur
+ * - Query normalizasyonu, IP çözümleme gibi işleri hot path yerine burada yapar
+ * - Tek çok satırlı INSERT ... VALUES (...), (...) ile yazar
+ * - Her olayı SearchAnalyticsAggregator'a da besler (saatlik rollup'lar)
+ * - User-Agent string'i UserAgentDimension ile id'ye çevrilir (intern)
+ * - Çok satırlı insert hata verirse satır satır yazıp bozuk satırı atlar
+ */
+@Slf4j
+@Component
+public class SearchLogBuffer {
+
+    private static final int MAX_TEXT_LENGTH = 500;
+    private static final int MAX_IP_LENGTH = 45;
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO pizza.search_logs (query, result_count, search_type, user_id, category_id,
+                min_price, max_price, ip_address, user_agent_id, response_time_ms, created_at)
+            VALUES\s""";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final class Slot {
+        volatile long sequence = -1;
+        String query;
+        int resultCount;
+        String searchType;
+        Long userId;
+        Long categoryId;
+        Double minPrice;
+        Double maxPrice;
+        String clientIp;
+        String userAgent;
+        long responseTimeMs;
+        long timestamp;
+
+        void clear() {
+            query = null;
+            searchType = null;
+            userId = null;
+            categoryId = null;
+            minPrice = null;
+            maxPrice = null;
+            clientIp = null;
+            userAgent = null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final SearchAnalyticsAggregator searchAnalyticsAggregator;
+    private final UserAgentDimension userAgentDimension;
+
+    @Value("${search.analytics.buffer.capacity:8192}")
+    private int requestedCapacity;
+
+    @Value("${search.analytics.buffer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${search.analytics.buffer.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private Slot[] ring;
+    private int mask;
+
+    /** Üreticilerin aldığı bir sonraki sequence */
+    private final AtomicLong claimed = new AtomicLong();
+    /** Yazıcının tükettiği bir sonraki sequence (sadece yazıcı thread yazar) */
+    private volatile long consumed;
+
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public SearchLogBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                           SearchAnalyticsAggregator searchAnalyticsAggregator,
+                           UserAgentDimension userAgentDimension) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.searchAnalyticsAggregator = searchAnalyticsAggregator;
+        this.userAgentDimension = userAgentDimension;
+    }
+
+    @PostConstruct
+    public void start() {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1; // 2'nin kuvveti
+        ring = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new Slot();
+        }
+        mask = capacity - 1;
+
+        meterRegistry.gauge("search.log.buffer.pending", this, b -> b.claimed.get() - b.consumed);
+        meterRegistry.more().counter("search.log.buffer.dropped", Tags.empty(), droppedCount);
+        meterRegistry.more().counter("search.log.buffer.written", Tags.empty(), writtenCount);
+        meterRegistry.more().counter("search.log.buffer.failed", Tags.empty(), failedCount);
+
+        running = true;
+        writer = new Thread(this::runWriter, "search-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Search log buffer started: capacity={}, batchSize={}, flushIntervalMs={}",
+                capacity, batchSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        flushAll(); // Kapanışta kalanları yaz
+        searchAnalyticsAggregator.persistIfDue(true);
+    }
+
+    // ============================================================================
+    // HOT PATH
+    // ============================================================================
+
+    /**
+     * Arama olayını buffer'a yazar. Allocation yapmaz, bloklamaz.
+     *
+     * @return Olay kabul edildiyse true, buffer doluysa false (düşürüldü)
+     */
+    public boolean offer(String query, int resultCount, String searchType, Long userId, Long categoryId,
+                         Double minPrice, Double maxPrice, String clientIp, String userAgent, long responseTimeMs) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= ring.length) {
+                droppedCount.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        Slot slot = ring[(int) (seq & mask)];
+        slot.query = query;
+        slot.resultCount = resultCount;
+        slot.searchType = searchType;
+        slot.userId = userId;
+        slot.categoryId = categoryId;
+        slot.minPrice = minPrice;
+        slot.maxPrice = maxPrice;
+        slot.clientIp = clientIp;
+        slot.userAgent = userAgent;
+        slot.responseTimeMs = responseTimeMs;
+        slot.timestamp = System.currentTimeMillis();
+        slot.sequence = seq; // volatile write: yazıcıya yayınla
+        return true;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    // ============================================================================
+    // WRITER
+    // ============================================================================
+
+    private void runWriter() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            try {
+                flushAll();
+                searchAnalyticsAggregator.persistIfDue(false);
+            } catch (Exception e) {
+                log.error("Search log writer iteration failed", e);
+            }
+        }
+    }
+
+    private void flushAll() {
+        List<Object[]> batch;
+        while (!(batch = drain(batchSize)).isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private List<Object[]> drain(int max) {
+        List<Object[]> rows = new ArrayList<>(Math.min(max, 1024));
+        long seq = consumed;
+        while (rows.size() < max) {
+            Slot slot = ring[(int) (seq & mask)];
+            if (slot.sequence != seq) {
+                break; // Henüz yayınlanmamış (üretici yazmaya devam ediyor) veya boş
+            }
+            rows.add(toRow(slot));
+            slot.clear();
+            seq++;
+            consumed = seq; // Slot'u üreticilere geri ver
+        }
+        return rows;
+    }
+
+    private Object[] toRow(Slot slot) {
+        String query = slot.query != null ? slot.query.trim().toLowerCase(Locale.ROOT) : "";
+        searchAnalyticsAggregator.record(slot.searchType, query, slot.resultCount, slot.categoryId,
+                slot.responseTimeMs, slot.timestamp);
+        return new Object[]{
+                truncate(query, MAX_TEXT_LENGTH),
+                slot.resultCount,
+                slot.searchType,
+                slot.userId,
+                slot.categoryId,
+                slot.minPrice,
+                slot.maxPrice,
+                truncate(firstForwardedAddress(slot.clientIp), MAX_IP_LENGTH),
+                userAgentDimension.resolve(slot.userAgent),
+                slot.responseTimeMs,
+                new Timestamp(slot.timestamp)
+        };
+    }
+
+    private void write(List<Object[]> rows) {
+        try {
+            jdbcTemplate.update(multiRowInsert(rows.size()), flatten(rows));
+            writtenCount.add(rows.size());
+        } catch (Exception e) {
+            log.warn("Multi-row search log insert failed ({} rows), retrying row by row: {}",
+                    rows.size(), e.getMessage());
+            String single = multiRowInsert(1);
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(single, row);
+                    writtenCount.increment();
+                } catch (Exception rowError) {
+                    failedCount.increment();
+                    log.debug("Dropping search log row: {}", rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String multiRowInsert(int rowCount) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rowCount * (ROW_PLACEHOLDER.length() + 2))
+                .append(INSERT_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.toString();
+    }
+
+    private static Object[] flatten(List<Object[]> rows) {
+        int width = rows.get(0).length;
+        Object[] args = new Object[rows.size() * width];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, args, i * width, width);
+        }
+        return args;
+    }
+
+    private static String firstForwardedAddress(String value) {
+        if (value == null) {
+            return null;
+        }
+        int comma = value.indexOf(',');
+        return (comma >= 0 ? value.substring(0, comma) : value).trim();
+    }
+
+    private static String truncate(String value, int max) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() > max ? value.substring(0, max) : value;
+    }
+}
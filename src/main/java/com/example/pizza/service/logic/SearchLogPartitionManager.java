@@ -0,0 +1,164 @@
+package com.example.pizza.service.logic;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * pizza.search_logs aylık partition yönetimi
+ *
+ * - Mevcut ay + precreate-months ilerisi için partition'ları önceden oluşturur
+ *   (yazıcı hiçbir zaman DEFAULT partition'a düşmesin)
+ * - retention-months'tan eski partition'ları DETACH + DROP ile siler:
+ *   satır bazlı DELETE, VACUUM ve index bakımı yok; maliyet geçmişin boyutundan bağımsız
+ *
+ * Uygulama açılışında ve her gece çalışır. Birden fazla instance aynı anda çalışırsa
+ * pg_try_advisory_xact_lock ile sadece biri işlem yapar (DDL tek transaction içinde).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchLogPartitionManager {
+
+    private static final long ADVISORY_LOCK_KEY = 0x5EA4C410L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("search_logs_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${search.analytics.logs.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${search.analytics.logs.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${search.analytics.logs.precreate-months:2}")
+    private int precreateMonths;
+
+    /**
+     * retention-months < 1 mevcut ayın (yazılan) partition'ını da silerdi
+     */
+    @PostConstruct
+    void validate() {
+        if (retentionMonths < 1) {
+            throw new IllegalStateException(
+                    "search.analytics.logs.retention-months must be at least 1, was " + retentionMonths);
+        }
+        if (precreateMonths < 0) {
+            throw new IllegalStateException(
+                    "search.analytics.logs.precreate-months must not be negative, was " + precreateMonths);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${search.analytics.logs.maintenance-cron:0 15 3 * * ?}")
+    public void scheduledMaintenance() {
+        maintain();
+    }
+
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!isPartitioned()) {
+                log.warn("pizza.search_logs is not partitioned (PHASE 7.4 migration not applied) - skipping");
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                // Transaction kapsamlı kilit: commit/rollback ile otomatik bırakılır
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                        ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Search log partition maintenance running on another instance - skipping");
+                    return;
+                }
+                int created = createUpcomingPartitions();
+                int dropped = dropExpiredPartitions();
+                log.info("Search log partitions maintained: {} created, {} dropped", created, dropped);
+            });
+        } catch (Exception e) {
+            log.error("Search log partition maintenance failed", e);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = 'pizza' AND c.relname = 'search_logs' AND c.relkind = 'p'
+                """, Integer.class);
+        return count != null && count > 0;
+    }
+
+    private int createUpcomingPartitions() {
+        List<String> existing = listPartitions();
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= precreateMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (existing.contains(name)) {
+                continue;
+            }
+            LocalDate from = month.atDay(1);
+            LocalDate to = month.plusMonths(1).atDay(1);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS pizza." + name
+                    + " PARTITION OF pizza.search_logs FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            created++;
+        }
+        return created;
+    }
+
+    private int dropExpiredPartitions() {
+        YearMonth oldestKept = YearMonth.now().minusMonths(retentionMonths - 1L);
+        int dropped = 0;
+        for (String name : listPartitions()) {
+            Matcher m = PARTITION_NAME.matcher(name);
+            if (!m.matches()) {
+                continue; // default partition vb.
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (month.isBefore(oldestKept)) {
+                jdbcTemplate.execute("ALTER TABLE pizza.search_logs DETACH PARTITION pizza." + name);
+                jdbcTemplate.execute("DROP TABLE pizza." + name);
+                log.info("Dropped expired search log partition {}", name);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                JOIN pg_namespace n ON n.oid = p.relnamespace
+                WHERE n.nspname = 'pizza' AND p.relname = 'search_logs'
+                """, String.class);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return "search_logs_p" + month.format(SUFFIX);
+    }
+}
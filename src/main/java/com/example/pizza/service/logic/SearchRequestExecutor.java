@@ -0,0 +1,84 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.exceptions.base.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Arama endpoint'lerinin non-blocking yürütülmesi
+ *
+ * - submit(): Bloklayan arama (Spring Data ES, cache, circuit breaker) searchTaskExecutor'da çalışır;
+ *   controller CompletableFuture döner ve Tomcat thread'i hemen serbest kalır
+ * - thenApply(): Async ES client'ın future'ı üzerindeki işlem IO reactor thread'inde değil,
+ *   searchTaskExecutor'da yapılır
+ * - Her future elasticsearch.search.request-timeout-ms (+ grace) ile sınırlanır
+ *
+ * Havuz doluysa (RejectedExecutionException) veya süre aşılırsa istek 503 ile biter.
+ */
+@Slf4j
+@Component
+public class SearchRequestExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+
+    public SearchRequestExecutor(@Qualifier("searchTaskExecutor") ThreadPoolTaskExecutor executor,
+                                 @Value("${elasticsearch.search.request-timeout-ms:2000}") long requestTimeoutMs,
+                                 @Value("${search.executor.timeout-grace-ms:500}") long timeoutGraceMs,
+                                 MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.timeoutMs = requestTimeoutMs + timeoutGraceMs;
+        this.rejectedCounter = meterRegistry.counter("search.requests.rejected", "reason", "saturated");
+        this.timeoutCounter = meterRegistry.counter("search.requests.rejected", "reason", "timeout");
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return guard(future);
+    }
+
+    public <T, R> CompletableFuture<R> thenApply(CompletableFuture<T> source, Function<T, R> fn) {
+        return guard(source.thenApplyAsync(fn, executor));
+    }
+
+    private <T> CompletableFuture<T> guard(CompletableFuture<T> future) {
+        return future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionallyCompose(ex -> CompletableFuture.failedFuture(translate(ex)));
+    }
+
+    private Throwable translate(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof RejectedExecutionException) {
+            rejectedCounter.increment();
+            log.warn("Search executor saturated - rejecting search request");
+            return new ApiException("Arama servisi şu anda yoğun, lütfen tekrar deneyin",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (cause instanceof TimeoutException) {
+            timeoutCounter.increment();
+            return new ApiException("Arama isteği zaman aşımına uğradı", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return cause;
+    }
+}
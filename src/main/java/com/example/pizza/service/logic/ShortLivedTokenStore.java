@@ -0,0 +1,37 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.constants.security.ShortLivedTokenPurpose;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Kısa ömürlü, tek kullanımlık token deposu (email doğrulama, şifre sıfırlama)
+ *
+ * Implementasyonlar (auth.token-store.type):
+ * - redis (varsayılan): RedisShortLivedTokenStore - native TTL, GETDEL ile tek kullanım
+ * - memory: InMemoryShortLivedTokenStore - testler ve tek node'lu geliştirme ortamı
+ *
+ * Token'lar Postgres'e yazılmaz: kayıt/şifre sıfırlama patlamalarında OLTP yazımı ve tablo şişmesi olmaz.
+ */
+public interface ShortLivedTokenStore {
+
+    /**
+     * Token'ı ttl süresince userId'ye bağlar
+     */
+    void put(ShortLivedTokenPurpose purpose, String token, Long userId, Duration ttl);
+
+    /**
+     * Token'ı atomik olarak tüketir (tek kullanım)
+     *
+     * @return Token geçerliyse sahibinin id'si ve kalan süresi; yok, süresi dolmuş veya zaten kullanılmışsa boş
+     */
+    Optional<Consumed> consume(ShortLivedTokenPurpose purpose, String token);
+
+    /**
+     * Tüketilen token. remainingTtl, tüketen işlem geri alınırsa token'ı aynı son geçerlilikle
+     * geri koymak (put) içindir.
+     */
+    record Consumed(Long userId, Duration remainingTtl) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.pizza.service.logic;
+
+import com.example.pizza.config.performance.SchedulingConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Süresi dolmuş / iptal edilmiş token satırlarının arka planda parça parça silinmesi
+ *
+ * - refresh_tokens (expired, revoked) ve verification_tokens (expired)
+ * - Her parça tek bir kısa DELETE ... WHERE ctid IN (SELECT ctid ... LIMIT chunk-size) (kendi transaction'ı);
+ *   parçalar arasında pause-ms beklenir: uzun kilit ve WAL patlaması olmaz, canlı trafik araya girebilir
+ * - Çalıştırma başına en fazla max-chunks-per-run parça; kalan bir sonraki çalıştırmaya kalır
+ * - Çoklu node: pizza.scheduler_leases üzerinden lease alan tek node çalışır (SchedulerLease)
+ * - Kendi tek thread'li scheduler'ında çalışır: uzun bir purge paylaşılan @Scheduled pool'undaki job'ları bekletmez
+ *
+ * Metrikler:
+ * - auth.token.purge.rows{table,reason}: silinen satır sayısı
+ * - auth.token.purge.lag.seconds{table}: silinmeyi bekleyen en eski expired satırın yaşı (0 = geride değil)
+ */
+@Slf4j
+@Component
+public class TokenPurgeScheduler {
+
+    private static final String LEASE_NAME = "token-purge";
+
+    /**
+     * @param expiryBased deleteSql ve lagSql ilk parametre olarak "şimdi"yi alır
+     */
+    private record PurgeTarget(String table, String reason, boolean expiryBased, String deleteSql, String lagSql,
+                               Counter purged, AtomicLong lagSeconds) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SchedulerLease schedulerLease;
+    private final List<PurgeTarget> targets;
+
+    @Value("${auth.token-purge.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auth.token-purge.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${auth.token-purge.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${auth.token-purge.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    @Value("${auth.token-purge.lease-seconds:900}")
+    private long leaseSeconds;
+
+    public TokenPurgeScheduler(JdbcTemplate jdbcTemplate, SchedulerLease schedulerLease, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.schedulerLease = schedulerLease;
+
+        AtomicLong refreshLag = meterRegistry.gauge("auth.token.purge.lag.seconds",
+                Tags.of("table", "refresh_tokens"), new AtomicLong());
+        AtomicLong verificationLag = meterRegistry.gauge("auth.token.purge.lag.seconds",
+                Tags.of("table", "verification_tokens"), new AtomicLong());
+
+        this.targets = List.of(
+                new PurgeTarget("refresh_tokens", "expired", true, """
+                        DELETE FROM pizza.refresh_tokens WHERE ctid IN (
+                            SELECT ctid FROM pizza.refresh_tokens WHERE expiry_date < ? LIMIT ?)
+                        """, """
+                        SELECT EXTRACT(EPOCH FROM (? - MIN(expiry_date)))::bigint
+                        FROM pizza.refresh_tokens WHERE expiry_date < ?
+                        """,
+                        purgedCounter(meterRegistry, "refresh_tokens", "expired"), refreshLag),
+                new PurgeTarget("refresh_tokens", "revoked", false, """
+                        DELETE FROM pizza.refresh_tokens WHERE ctid IN (
+                            SELECT ctid FROM pizza.refresh_tokens WHERE revoked = true LIMIT ?)
+                        """, null,
+                        purgedCounter(meterRegistry, "refresh_tokens", "revoked"), null),
+                new PurgeTarget("verification_tokens", "expired", true, """
+                        DELETE FROM pizza.verification_tokens WHERE ctid IN (
+                            SELECT ctid FROM pizza.verification_tokens WHERE expiry_date < ? LIMIT ?)
+                        """, """
+                        SELECT EXTRACT(EPOCH FROM (? - MIN(expiry_date)))::bigint
+                        FROM pizza.verification_tokens WHERE expiry_date < ?
+                        """,
+                        purgedCounter(meterRegistry, "verification_tokens", "expired"), verificationLag));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.token-purge.interval-ms:3600000}",
+            initialDelayString = "${auth.token-purge.initial-delay-ms:120000}",
+            scheduler = SchedulingConfig.TOKEN_PURGE_SCHEDULER)
+    public void scheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        Duration lease = Duration.ofSeconds(leaseSeconds);
+        if (!schedulerLease.tryAcquire(LEASE_NAME, lease)) {
+            log.debug("Token purge running on another instance - skipping");
+            return;
+        }
+        try {
+            purge(lease);
+        } catch (Exception e) {
+            log.error("Token purge failed", e);
+        } finally {
+            schedulerLease.release(LEASE_NAME);
+        }
+    }
+
+    private void purge(Duration lease) {
+        // expiry_date kolonları zaman dilimsiz TIMESTAMP: JPA ile aynı şekilde (JVM saat dilimi) bağlanır
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int chunksLeft = maxChunksPerRun;
+        long total = 0;
+
+        for (PurgeTarget target : targets) {
+            if (!schedulerLease.tryAcquire(LEASE_NAME, lease)) { // Lease'i uzat; kaybettiysek dur
+                log.warn("Token purge lease lost - stopping");
+                return;
+            }
+            long targetTotal = 0;
+            int deleted;
+            do {
+                deleted = target.expiryBased()
+                        ? jdbcTemplate.update(target.deleteSql(), now, chunkSize)
+                        : jdbcTemplate.update(target.deleteSql(), chunkSize);
+                target.purged().increment(deleted);
+                targetTotal += deleted;
+                total += deleted;
+                chunksLeft--;
+                if (deleted == chunkSize && chunksLeft > 0 && !pause()) {
+                    return;
+                }
+            } while (deleted == chunkSize && chunksLeft > 0);
+
+            if (targetTotal > 0) {
+                log.debug("Purged {} {} rows from {}", targetTotal, target.reason(), target.table());
+            }
+            if (target.lagSql() != null) {
+                Long lag = jdbcTemplate.queryForObject(target.lagSql(), Long.class, now, now);
+                target.lagSeconds().set(lag != null ? lag : 0);
+            }
+        }
+
+        if (total > 0) {
+            log.info("Token purge removed {} rows ({} chunks)", total, maxChunksPerRun - chunksLeft);
+        }
+        if (chunksLeft <= 0) {
+            log.warn("Token purge hit max-chunks-per-run ({}); remaining rows are purged on the next run",
+                    maxChunksPerRun);
+        }
+    }
+
+    /**
+     * @return Kesinti olmadıysa true
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Token purge interrupted");
+            return false;
+        }
+    }
+
+    private static Counter purgedCounter(MeterRegistry meterRegistry, String table, String reason) {
+        return meterRegistry.counter("auth.token.purge.rows", "table", table, "reason", reason);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.pizza.service.logic;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * User-Agent string'lerini pizza.search_user_agents tablosuna intern eder
+ *
+ * Her log satırında ~150-300 byte'lık tam string yerine 4 byte'lık user_agent_id tutulur.
+ * Ham UA neredeyse sınırsız çeşitlilikte olduğundan önce "tarayıcı ana-sürüm (OS)" anahtarına
+ * indirgenir (örn. "Chrome 126 (Windows)"); anahtar uzayı küçük ve sınırlıdır.
+ * Anahtar → id eşlemesi bellekte tutulur; cache miss'te INSERT ... ON CONFLICT DO NOTHING + SELECT (tek seferlik).
+ * max-distinct dolduktan sonra gelen yeni anahtarlar "other" id'sine yazılır: yazıcı thread'inde
+ * anahtar başına DB round-trip'i ve tablo büyümesi sınırlı kalır.
+ *
+ * Sadece search-log-writer thread'inden çağrılır.
+ */
+@Slf4j
+@Component
+public class UserAgentDimension {
+
+    static final String OTHER = "other";
+    static final String BOT = "bot";
+
+    /** Öncelik sırası önemlidir: Edge/Opera UA'ları "Chrome/" da içerir, Chrome UA'ları "Safari/" içerir */
+    private static final List<String[]> BROWSERS = List.of(
+            new String[]{"Edg/", "Edge"},
+            new String[]{"OPR/", "Opera"},
+            new String[]{"SamsungBrowser/", "Samsung Internet"},
+            new String[]{"Firefox/", "Firefox"},
+            new String[]{"FxiOS/", "Firefox"},
+            new String[]{"CriOS/", "Chrome"},
+            new String[]{"Chrome/", "Chrome"},
+            new String[]{"Version/", "Safari"},
+            new String[]{"PostmanRuntime/", "Postman"},
+            new String[]{"okhttp/", "okhttp"},
+            new String[]{"curl/", "curl"});
+
+    private static final List<String[]> OPERATING_SYSTEMS = List.of(
+            new String[]{"Android", "Android"},
+            new String[]{"iPhone", "iOS"},
+            new String[]{"iPad", "iOS"},
+            new String[]{"Windows", "Windows"},
+            new String[]{"Mac OS X", "macOS"},
+            new String[]{"Linux", "Linux"});
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxDistinct;
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    public UserAgentDimension(JdbcTemplate jdbcTemplate,
+                              @Value("${search.analytics.user-agent-max-distinct:2000}") int maxDistinct) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxDistinct = maxDistinct;
+    }
+
+    /**
+     * @return Normalize edilmiş User-Agent'ın id'si; userAgent null/boşsa veya çözümlenemezse null
+     */
+    public Integer resolve(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) {
+            return null;
+        }
+        String key = normalize(userAgent);
+
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (ids.size() >= maxDistinct && !OTHER.equals(key)) {
+            return resolve(OTHER);
+        }
+        id = intern(key);
+        if (id != null) {
+            ids.put(key, id);
+        }
+        return id;
+    }
+
+    private Integer intern(String key) {
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO pizza.search_user_agents (user_agent) VALUES (?)
+                    ON CONFLICT (user_agent) DO NOTHING
+                    """, key);
+            List<Integer> found = jdbcTemplate.queryForList(
+                    "SELECT id FROM pizza.search_user_agents WHERE user_agent = ?", Integer.class, key);
+            return found.isEmpty() ? null : found.get(0);
+        } catch (Exception e) {
+            log.warn("Failed to intern user agent: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Ham User-Agent → "Tarayıcı ana-sürüm (OS)"; tanınmayan UA'lar "other", botlar "bot"
+     */
+    static String normalize(String userAgent) {
+        if (userAgent.toLowerCase(Locale.ROOT).contains("bot")) {
+            return BOT;
+        }
+        for (String[] browser : BROWSERS) {
+            int at = userAgent.indexOf(browser[0]);
+            if (at < 0) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(browser[1]);
+            String major = majorVersion(userAgent, at + browser[0].length());
+            if (!major.isEmpty()) {
+                key.append(' ').append(major);
+            }
+            for (String[] os : OPERATING_SYSTEMS) {
+                if (userAgent.contains(os[0])) {
+                    key.append(" (").append(os[1]).append(')');
+                    break;
+                }
+            }
+            return key.toString();
+        }
+        return OTHER;
+    }
+
+    private static String majorVersion(String userAgent, int from) {
+        int end = from;
+        while (end < userAgent.length() && end - from < 6 && Character.isDigit(userAgent.charAt(end))) {
+            end++;
+        }
+        return userAgent.substring(from, end);
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.pizza.service.order;
 
-import com.example.pizza.constants.order.OrderStatus;
+import com.example.pizza.dto.order.OrderSearchFilter;
+import com.example.pizza.dto.paginate.CursorPage;
 import com.example.pizza.entity.order.Order;
 import com.example.pizza.entity.order.OrderDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
 
 public interface OrderSearchService {
     void indexOrder(Order order);
@@ -13,6 +17,21 @@ public interface OrderSearchService {
 
     void indexAllOrders();
 
-    Page<OrderDocument> searchOrdersDynamic(String userEmail, OrderStatus status, Double minPrice, Double maxPrice,
-            Pageable pageable);
+    /**
+     * Siparişleri tek _bulk isteği ile senkron olarak index'ler (delta sync)
+     */
+    void indexOrders(List<Order> orders);
+
+    void deleteOrdersFromIndex(List<Long> ids);
+
+    OrderDocument toDocument(Order order);
+
+    Page<OrderDocument> searchOrdersDynamic(OrderSearchFilter filter, Pageable pageable);
+
+    /**
+     * Cursor (PIT + search_after) tabanlı arama; derin sayfalarda maliyet sabittir
+     *
+     * @param cursor Önceki sayfanın nextCursor değeri, ilk sayfa için null
+     */
+    CursorPage<OrderDocument> searchOrdersAfter(OrderSearchFilter filter, Sort sort, int size, String cursor);
 }
@@ -1,16 +1,26 @@
 package com.example.pizza.service.order;
 
-import com.example.pizza.constants.order.OrderStatus;
+import com.example.pizza.dto.order.OrderSearchFilter;
+import com.example.pizza.dto.paginate.CursorPage;
+import com.example.pizza.entity.logic.Payment;
 import com.example.pizza.entity.order.Order;
 import com.example.pizza.entity.order.OrderDocument;
+import com.example.pizza.entity.order.OrderItemDocument;
+import com.example.pizza.entity.user.UserAddress;
 import com.example.pizza.repository.OrderRepository;
 import com.example.pizza.repository.search.OrderSearchRepository;
+import com.example.pizza.service.logic.SearchAfterPaginator;
+import com.example.pizza.service.logic.SearchIndexQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Criteria;
@@ -20,6 +30,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,34 +41,49 @@ public class OrderSearchServiceImpl implements OrderSearchService {
     private final OrderSearchRepository orderSearchRepository;
     private final OrderRepository orderRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchIndexQueue searchIndexQueue;
+    private final SearchAfterPaginator searchAfterPaginator;
 
-    @Async
+    private static final int REINDEX_BATCH_SIZE = 500;
+
+    /**
+     * Siparişi index kuyruğuna ekler (commit sonrası, coalescing _bulk ile yazılır)
+     * Doküman çağıran transaction içinde oluşturulur (lazy user erişimi için).
+     */
     @Override
     public void indexOrder(Order order) {
-        try {
-            OrderDocument document = OrderDocument.builder()
-                    .id(order.getId())
-                    .userEmail(order.getUser() != null ? order.getUser().getEmail() : "guest")
-                    .orderStatus(order.getOrderStatus())
-                    .totalAmount(order.getTotalAmount())
-                    .orderDate(order.getOrderDate().toLocalDate())
-                    .build();
-
-            orderSearchRepository.save(document);
-            log.info("Order indexed successfully: {}", order.getId());
-        } catch (Exception e) {
-            log.error("Failed to index order: {}", order.getId(), e);
-        }
+        searchIndexQueue.upsert(toDocument(order), order.getId());
+        log.debug("Order queued for indexing: {}", order.getId());
     }
 
-    @Async
     @Override
     public void deleteOrderFromIndex(Long id) {
+        searchIndexQueue.delete(OrderDocument.class, id);
+        log.debug("Order queued for index deletion: {}", id);
+    }
+
+    /**
+     * Eski (denormalize olmayan) "orders" index'i açılışta yükseltilir: yeni alanların mapping'i
+     * (items nested, teslimat, ödeme) eklenir ve tüm siparişler yeniden index'lenir.
+     * Mapping'de items zaten varsa hiçbir şey yapılmaz.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void upgradeIndexMapping() {
         try {
-            orderSearchRepository.deleteById(id);
-            log.info("Order deleted from index: {}", id);
+            IndexOperations indexOps = elasticsearchOperations.indexOps(OrderDocument.class);
+            if (!indexOps.exists()) {
+                return; // Repository açılışta güncel mapping ile oluşturur
+            }
+            Object properties = indexOps.getMapping().get("properties");
+            if (properties instanceof Map<?, ?> fields && fields.containsKey("items")) {
+                return;
+            }
+            log.info("Upgrading orders index mapping to denormalized order documents");
+            indexOps.putMapping();
+            indexAllOrders();
         } catch (Exception e) {
-            log.error("Failed to delete order from index: {}", id, e);
+            log.warn("Could not upgrade orders index mapping: {}", e.getMessage());
         }
     }
 
@@ -66,35 +92,106 @@ public class OrderSearchServiceImpl implements OrderSearchService {
     @Override
     public void indexAllOrders() {
         log.info("Starting full reindex of orders...");
-        List<Order> orders = orderRepository.findAll();
-
-        List<OrderDocument> documents = orders.stream()
-                .map(order -> OrderDocument.builder()
-                        .id(order.getId())
-                        .userEmail(order.getUser() != null ? order.getUser().getEmail() : "guest")
-                        .orderStatus(order.getOrderStatus())
-                        .totalAmount(order.getTotalAmount())
-                        .orderDate(order.getOrderDate().toLocalDate())
+        List<Long> ids = orderRepository.findAllIds();
+
+        for (int from = 0; from < ids.size(); from += REINDEX_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + REINDEX_BATCH_SIZE, ids.size()));
+            orderSearchRepository.saveAll(orderRepository.findAllForSearchIndex(chunk).stream()
+                    .map(this::toDocument)
+                    .toList());
+        }
+        log.info("Finished reindexing {} orders", ids.size());
+    }
+
+    /**
+     * Delta sync batch'i; items/payment transaction dışında lazy yüklenemeyeceği için
+     * siparişler tek JOIN FETCH sorgusuyla yeniden okunur
+     */
+    @Override
+    public void indexOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> ids = orders.stream().map(Order::getId).toList();
+        orderSearchRepository.saveAll(orderRepository.findAllForSearchIndex(ids).stream()
+                .map(this::toDocument)
+                .toList());
+    }
+
+    @Override
+    public void deleteOrdersFromIndex(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        orderSearchRepository.deleteAllById(ids);
+    }
+
+    @Override
+    public OrderDocument toDocument(Order order) {
+        List<OrderItemDocument> items = order.getItems().stream()
+                .map(item -> OrderItemDocument.builder()
+                        .productId(item.getProduct() != null ? item.getProduct().getId() : null)
+                        .productName(item.getProduct() != null ? item.getProduct().getName() : null)
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice())
                         .build())
+                .toList();
+        UserAddress address = order.getDeliveryAddress();
+        Payment payment = order.getPayment();
+
+        return OrderDocument.builder()
+                .id(order.getId())
+                .userId(order.getUser() != null ? order.getUser().getId() : null)
+                .userEmail(order.getUser() != null ? order.getUser().getEmail() : "guest")
+                .orderStatus(order.getOrderStatus())
+                .totalAmount(order.getTotalAmount())
+                .orderDate(order.getOrderDate())
+                .deliveryCity(address != null ? address.getCity() : null)
+                .deliveryDistrict(address != null ? address.getDistrict() : null)
+                .paymentMethod(payment != null ? payment.getPaymentMethod() : null)
+                .paymentStatus(payment != null ? payment.getPaymentStatus() : null)
+                .itemCount(items.stream().mapToInt(i -> i.getQuantity() != null ? i.getQuantity() : 0).sum())
+                .items(items)
+                .build();
+    }
+
+    @Override
+    public Page<OrderDocument> searchOrdersDynamic(OrderSearchFilter filter, Pageable pageable) {
+        Criteria criteria = buildCriteria(filter);
+
+        CriteriaQuery query = new CriteriaQuery(criteria).setPageable(pageable);
+        SearchHits<OrderDocument> searchHits = elasticsearchOperations.search(query, OrderDocument.class);
+
+        List<OrderDocument> content = searchHits.getSearchHits().stream()
+                .map(SearchHit::getContent)
                 .collect(Collectors.toList());
 
-        orderSearchRepository.saveAll(documents);
-        log.info("Finished reindexing {} orders", documents.size());
+        return new PageImpl<>(content, pageable, searchHits.getTotalHits());
     }
 
     @Override
-    public Page<OrderDocument> searchOrdersDynamic(String userEmail, OrderStatus status, Double minPrice,
-            Double maxPrice, Pageable pageable) {
+    public CursorPage<OrderDocument> searchOrdersAfter(OrderSearchFilter filter, Sort sort, int size,
+            String cursor) {
+        Criteria criteria = buildCriteria(filter);
+        // Record toString tüm filtre alanlarını içerir
+        String fingerprint = filter.toString();
+
+        return searchAfterPaginator.search(criteria, OrderDocument.class, sort, size, fingerprint, cursor);
+    }
+
+    private Criteria buildCriteria(OrderSearchFilter filter) {
         Criteria criteria = new Criteria();
 
-        if (userEmail != null && !userEmail.isEmpty()) {
-            criteria = criteria.and("userEmail").contains(userEmail);
+        if (filter.userEmail() != null && !filter.userEmail().isEmpty()) {
+            criteria = criteria.and("userEmail").contains(filter.userEmail());
         }
 
-        if (status != null) {
-            criteria = criteria.and("orderStatus").is(status);
+        if (filter.status() != null) {
+            criteria = criteria.and("orderStatus").is(filter.status());
         }
 
+        Double minPrice = filter.minPrice();
+        Double maxPrice = filter.maxPrice();
         if (minPrice != null && maxPrice != null) {
             criteria = criteria.and("totalAmount").between(minPrice, maxPrice);
         } else if (minPrice != null) {
@@ -103,13 +200,36 @@ public class OrderSearchServiceImpl implements OrderSearchService {
             criteria = criteria.and("totalAmount").lessThanEqual(maxPrice);
         }
 
-        CriteriaQuery query = new CriteriaQuery(criteria).setPageable(pageable);
-        SearchHits<OrderDocument> searchHits = elasticsearchOperations.search(query, OrderDocument.class);
+        // Nested items: ayrı nested query olarak üretilir
+        if (filter.productId() != null) {
+            criteria = criteria.and("items.productId").is(filter.productId());
+        }
+        if (filter.productName() != null && !filter.productName().isBlank()) {
+            criteria = criteria.and("items.productName").contains(filter.productName().trim());
+        }
 
-        List<OrderDocument> content = searchHits.getSearchHits().stream()
-                .map(SearchHit::getContent)
-                .collect(Collectors.toList());
+        if (filter.deliveryCity() != null && !filter.deliveryCity().isBlank()) {
+            criteria = criteria.and("deliveryCity").is(filter.deliveryCity().trim());
+        }
+        if (filter.deliveryDistrict() != null && !filter.deliveryDistrict().isBlank()) {
+            criteria = criteria.and("deliveryDistrict").is(filter.deliveryDistrict().trim());
+        }
 
-        return new PageImpl<>(content, pageable, searchHits.getTotalHits());
+        if (filter.paymentMethod() != null) {
+            criteria = criteria.and("paymentMethod").is(filter.paymentMethod());
+        }
+        if (filter.paymentStatus() != null) {
+            criteria = criteria.and("paymentStatus").is(filter.paymentStatus());
+        }
+
+        if (filter.from() != null && filter.to() != null) {
+            criteria = criteria.and("orderDate").between(filter.from(), filter.to());
+        } else if (filter.from() != null) {
+            criteria = criteria.and("orderDate").greaterThanEqual(filter.from());
+        } else if (filter.to() != null) {
+            criteria = criteria.and("orderDate").lessThanEqual(filter.to());
+        }
+
+        return criteria;
     }
 }
@@ -17,6 +17,7 @@ import com.example.pizza.exceptions.order.OrderCreationException;
 import com.example.pizza.exceptions.common.ResourceNotFoundException;
 import com.example.pizza.repository.OrderRepository;
 import com.example.pizza.repository.ProductRepository;
+import com.example.pizza.service.product.InMemoryProductIndex;
 import com.example.pizza.service.logic.EmailService;
 import com.example.pizza.service.user.UserService;
 import com.example.pizza.logic.validator.OrderValidator;
@@ -47,6 +48,7 @@ public class OrderServiceImpl implements OrderService {
     private final EmailService emailService;
     private final OrderValidator orderValidator;
     private final OrderSearchService orderSearchService;
+    private final InMemoryProductIndex inMemoryProductIndex; // ES fallback index (stok)
 
     // ============================================================================
     // LEGACY READ OPERATIONS (Backward Compatibility)
@@ -206,6 +208,7 @@ public class OrderServiceImpl implements OrderService {
             }
 
             product.setStock(product.getStock() - itemRequest.getQuantity());
+            inMemoryProductIndex.updateStock(productId, product.getStock()); // Commit sonrası uygulanır
 
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -0,0 +1,81 @@
+package com.example.pizza.service.product;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ürün kataloğu (arama index'i) versiyonu
+ *
+ * Arama sonuç cache anahtarları bu versiyonu içerir; aramayı etkileyen her ürün yazımı
+ * ES'e ulaştıktan sonra bump() çağrılır ve eski anahtarlar bir daha eşleşmez.
+ * Tek tek cache girdisi silmeye gerek kalmaz (O(1) invalidation).
+ *
+ * Çoklu node: versiyon Redis INCR ile artırılır ve pub/sub ile yayınlanır; her node
+ * yerel değerini max(local, gelen) yapar. Redis erişilemezse sadece yerel değer artar.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+
+    private static final String VERSION_KEY = "pizza:catalog:version";
+    private static final String CHANNEL = "pizza:catalog:version:changed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        try {
+            String stored = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+            if (stored != null) {
+                version.set(Long.parseLong(stored));
+            }
+        } catch (Exception e) {
+            log.warn("Could not read catalog version from Redis, starting at 0: {}", e.getMessage());
+        }
+
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                advanceTo(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed catalog version message");
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Kataloğun değiştiğini bildirir (tüm node'larda arama cache'i geçersiz olur)
+     */
+    public long bump() {
+        try {
+            Long next = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+            if (next != null) {
+                advanceTo(next);
+                stringRedisTemplate.convertAndSend(CHANNEL, String.valueOf(next));
+                return version.get();
+            }
+        } catch (Exception e) {
+            log.warn("Catalog version broadcast failed, invalidating local node only: {}", e.getMessage());
+        }
+        return version.incrementAndGet();
+    }
+
+    private void advanceTo(long candidate) {
+        version.accumulateAndGet(candidate, Math::max);
+    }
+}
@@ -0,0 +1,549 @@
+package com.example.pizza.service.product;
+
+import com.example.pizza.dto.product.ProductResponse;
+import com.example.pizza.entity.product.Product;
+import com.example.pizza.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Elasticsearch erişilemediğinde kullanılan in-process ürün arama index'i
+ *
+ * Yapı:
+ * - Columnar doküman tablosu: ordinal → row, id (long[]), price (double[]), stock (int[]), categoryId (long[])
+ * - Inverted index: sıralı term sözlüğü → artan sıralı int[] ordinal posting list (name, description;
+ *   ES sorgusu ile aynı alanlar)
+ * - Suffix sözlüğü: term'lerin tüm suffix'leri → term'ler. "contains" araması suffix sözlüğünde
+ *   prefix range taramasıdır (tüm term'leri gezmek yerine)
+ * - Yazmalar artımlıdır ve copy-on-write'tır: kolonlar kopyalanıp yeni referans yayınlanır, sadece
+ *   değişen term'lerin posting array'leri yeniden oluşturulur; tek yazıcı (writeLock), okuyucular kilitsiz
+ * - Yazmalar DB transaction commit'inden SONRA uygulanır (rollback olan değişiklik görünmez)
+ *
+ * Besleme: ProductSearchService'in kuyruk (indexProduct / deleteProductFromIndex) ve delta sync
+ * (indexProducts / deleteProductsFromIndex) yolları, sipariş stok düşümleri (updateStock) ve kategori adı değişiklikleri.
+ *
+ * Sorgu semantiği ES tarafındaki searchProductsDynamic ile aynıdır:
+ * query token'ları name/description içinde "contains" olarak aranır,
+ * ardından kategori, fiyat aralığı ve stok filtreleri columnar array'ler üzerinden uygulanır.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InMemoryProductIndex {
+
+    private static final Pattern TOKEN_SPLITTER = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long NO_CATEGORY = Long.MIN_VALUE;
+    private static final int[] NO_POSTINGS = new int[0];
+
+    // Silinmiş ordinal'ler bu eşiği ve canlı doküman sayısını aşarsa index sıkıştırılır
+    private static final int COMPACTION_MIN_HOLES = 1024;
+
+    private final ProductRepository productRepository;
+
+    private final Object writeLock = new Object();
+    private volatile Index index = new Index();
+    private volatile boolean ready = false;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("In-memory product index could not be built at startup", e);
+        }
+    }
+
+    /**
+     * Index'i veritabanından baştan oluşturur
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<ProductResponse> rows = productRepository.findAllWithCategory().stream()
+                .map(InMemoryProductIndex::toRow)
+                .toList();
+
+        Index rebuilt = new Index();
+        rebuilt.put(rows);
+        synchronized (writeLock) {
+            index = rebuilt;
+            ready = true;
+        }
+        log.info("In-memory product index built: {} products, {} terms in {} ms",
+                rows.size(), rebuilt.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public void upsert(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        ProductResponse row = toRow(product); // Entity transaction içindeyken okunur
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                index.put(List.of(row));
+            }
+        });
+    }
+
+    public void upsertAll(Collection<Product> products) {
+        List<ProductResponse> rows = products.stream()
+                .filter(p -> p.getId() != null)
+                .map(InMemoryProductIndex::toRow)
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                index.put(rows);
+            }
+        });
+    }
+
+    public void remove(Long productId) {
+        removeAll(List.of(productId));
+    }
+
+    public void removeAll(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                index.remove(ids);
+                compactIfSparse();
+            }
+        });
+    }
+
+    /**
+     * Sipariş stok düşümü: sadece stok kolonu değişir (term'lere dokunulmaz)
+     */
+    public void updateStock(Long productId, int stock) {
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                Index current = index;
+                ProductResponse r = current.row(productId);
+                if (r != null) {
+                    current.put(List.of(new ProductResponse(r.id(), r.name(), r.rating(), stock, r.price(),
+                            r.img(), r.categoryId(), r.categoryName(), r.description())));
+                }
+            }
+        });
+    }
+
+    /**
+     * Kategori adı değiştiğinde ilgili ürünlerin response'taki categoryName alanını günceller
+     */
+    public void renameCategory(Long categoryId, String categoryName) {
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                Index current = index;
+                Columns c = current.columns;
+                List<ProductResponse> renamed = new ArrayList<>();
+                for (int doc = 0; doc < c.length; doc++) {
+                    ProductResponse r = c.rows[doc];
+                    if (r != null && c.categoryIds[doc] == categoryId) {
+                        renamed.add(new ProductResponse(r.id(), r.name(), r.rating(), r.stock(), r.price(),
+                                r.img(), r.categoryId(), categoryName, r.description()));
+                    }
+                }
+                if (!renamed.isEmpty()) {
+                    current.put(renamed);
+                }
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return index.columns.live;
+    }
+
+    // ============================================================================
+    // SEARCH
+    // ============================================================================
+
+    public Page<ProductResponse> search(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        Index s = index;
+        Columns c = s.columns;
+
+        // 1. Query → her token için eşleşen term'lerin posting list birleşimi, token'lar arası kesişim
+        BitSet candidates = null;
+        for (String token : tokenize(query)) {
+            BitSet tokenHits = s.match(token, c.length);
+            if (candidates == null) {
+                candidates = tokenHits;
+            } else {
+                candidates.and(tokenHits);
+            }
+        }
+        if (candidates == null) {
+            candidates = new BitSet(c.length);
+            candidates.set(0, c.length);
+        }
+
+        // 2-4. Kategori, fiyat, stok filtreleri (columnar)
+        long category = categoryId != null ? categoryId : NO_CATEGORY;
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        boolean requireStock = inStock != null && inStock;
+
+        int[] matches = new int[candidates.cardinality()];
+        int total = 0;
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            if (c.rows[doc] == null) continue; // silinmiş ordinal
+            if (categoryId != null && c.categoryIds[doc] != category) continue;
+            double price = c.prices[doc];
+            if (price < min || price > max) continue;
+            if (requireStock && c.stocks[doc] <= 0) continue;
+            matches[total++] = doc;
+        }
+
+        // Sıralama (pageable.sort, eşitlikte id) + sayfalama
+        Integer[] ordered = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            ordered[i] = matches[i];
+        }
+        Arrays.sort(ordered, comparator(c, pageable.getSort()));
+        int from = (int) Math.min(pageable.isPaged() ? pageable.getOffset() : 0, total);
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), total) : total;
+
+        List<ProductResponse> content = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            content.add(c.rows[ordered[i]]);
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private Comparator<Integer> comparator(Columns c, Sort sort) {
+        Comparator<Integer> byId = Comparator.comparingLong(d -> c.ids[d]);
+        Comparator<Integer> comparator = null;
+        if (sort != null) {
+            for (Sort.Order order : sort) {
+                Comparator<Integer> next = switch (order.getProperty()) {
+                    case "price" -> Comparator.comparingDouble(d -> c.prices[d]);
+                    case "stock" -> Comparator.comparingInt(d -> c.stocks[d]);
+                    case "rating" -> Comparator.comparingDouble(d -> c.rows[d].rating());
+                    case "name" -> Comparator.comparing(d -> c.rows[d].name(),
+                            Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    case "id" -> byId;
+                    default -> null;
+                };
+                if (next == null) {
+                    continue;
+                }
+                if (order.isDescending()) {
+                    next = next.reversed();
+                }
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+        }
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // ============================================================================
+    // HELPERS
+    // ============================================================================
+
+    /**
+     * Transaction içindeyse değişikliği commit sonrasına erteler (SearchIndexQueue ile aynı kural)
+     */
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SPLITTER.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static ProductResponse toRow(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getRating(),
+                product.getStock(),
+                product.getPrice(),
+                product.getImg(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getDescription());
+    }
+
+    /**
+     * Silinmiş ordinal'ler birikince canlı satırlardan yeni (boşluksuz) bir index kurar
+     */
+    private void compactIfSparse() {
+        Columns c = index.columns;
+        int holes = c.length - c.live;
+        if (holes >= COMPACTION_MIN_HOLES && holes > c.live) {
+            List<ProductResponse> rows = new ArrayList<>(c.live);
+            for (int doc = 0; doc < c.length; doc++) {
+                if (c.rows[doc] != null) {
+                    rows.add(c.rows[doc]);
+                }
+            }
+            Index compacted = new Index();
+            compacted.put(rows);
+            index = compacted;
+        }
+    }
+
+    private static Set<String> terms(ProductResponse row) {
+        if (row == null) {
+            return Set.of();
+        }
+        Set<String> terms = new HashSet<>(tokenize(row.name()));
+        terms.addAll(tokenize(row.description()));
+        return terms;
+    }
+
+    private static int[] insert(int[] sorted, int value) {
+        int pos = Arrays.binarySearch(sorted, value);
+        if (pos >= 0) {
+            return sorted;
+        }
+        pos = -pos - 1;
+        int[] next = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, next, 0, pos);
+        next[pos] = value;
+        System.arraycopy(sorted, pos, next, pos + 1, sorted.length - pos);
+        return next;
+    }
+
+    private static int[] delete(int[] sorted, int value) {
+        int pos = Arrays.binarySearch(sorted, value);
+        if (pos < 0) {
+            return sorted;
+        }
+        int[] next = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, next, 0, pos);
+        System.arraycopy(sorted, pos + 1, next, pos, sorted.length - pos - 1);
+        return next;
+    }
+
+    /**
+     * Ordinal adresli kolonlar. Yayınlandıktan sonra değiştirilmez; yazıcı kopyalayıp yeni referans yayınlar.
+     * Silinen ürünün ordinal'i boş (rows[doc] == null) kalır ve tekrar kullanılmaz.
+     */
+    private static final class Columns {
+
+        static final Columns EMPTY = new Columns(0, 0);
+
+        final ProductResponse[] rows;
+        final long[] ids;
+        final double[] prices;
+        final int[] stocks;
+        final long[] categoryIds;
+        int length; // kullanılan ordinal sayısı
+        int live;   // silinmemiş doküman sayısı
+
+        private Columns(int capacity, int length) {
+            this.rows = new ProductResponse[capacity];
+            this.ids = new long[capacity];
+            this.prices = new double[capacity];
+            this.stocks = new int[capacity];
+            this.categoryIds = new long[capacity];
+            this.length = length;
+        }
+
+        Columns copy(int minCapacity) {
+            int capacity = rows.length >= minCapacity ? rows.length : Math.max(minCapacity, rows.length + (rows.length >> 1));
+            Columns next = new Columns(capacity, length);
+            System.arraycopy(rows, 0, next.rows, 0, length);
+            System.arraycopy(ids, 0, next.ids, 0, length);
+            System.arraycopy(prices, 0, next.prices, 0, length);
+            System.arraycopy(stocks, 0, next.stocks, 0, length);
+            System.arraycopy(categoryIds, 0, next.categoryIds, 0, length);
+            next.live = live;
+            return next;
+        }
+
+        void set(int doc, ProductResponse row) {
+            if (rows[doc] == null) live++;
+            rows[doc] = row;
+            ids[doc] = row.id();
+            prices[doc] = row.price();
+            stocks[doc] = row.stock();
+            categoryIds[doc] = row.categoryId() != null ? row.categoryId() : NO_CATEGORY;
+            length = Math.max(length, doc + 1);
+        }
+
+        void clear(int doc) {
+            if (rows[doc] != null) live--;
+            rows[doc] = null;
+        }
+    }
+
+    /**
+     * Kolonlar + sıralı term sözlüğü + suffix sözlüğü. Yazmalar writeLock altında yapılır; okuyucular kilitsiz okur.
+     * Yazıcı önce kolonları yayınlar, sonra posting'leri günceller: okuyucunun gördüğü posting'ler
+     * kolonlarda olmayan bir ordinal'e işaret edebilir, match() bunları eler.
+     */
+    private static final class Index {
+
+        final ConcurrentSkipListMap<String, int[]> postings = new ConcurrentSkipListMap<>();
+        final ConcurrentSkipListMap<String, String[]> suffixes = new ConcurrentSkipListMap<>();
+
+        // Sadece yazıcı tarafından (writeLock) kullanılır
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+
+        volatile Columns columns = Columns.EMPTY;
+
+        ProductResponse row(Long id) {
+            Integer doc = ordinals.get(id);
+            return doc != null ? columns.rows[doc] : null;
+        }
+
+        void put(List<ProductResponse> rows) {
+            Columns current = columns;
+            Columns next = current.copy(current.length + rows.size());
+            int[] docs = new int[rows.size()];
+            List<Set<String>> previousTerms = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                ProductResponse row = rows.get(i);
+                Integer doc = ordinals.get(row.id());
+                if (doc == null) {
+                    doc = next.length;
+                    ordinals.put(row.id(), doc);
+                }
+                previousTerms.add(terms(next.rows[doc]));
+                next.set(doc, row);
+                docs[i] = doc;
+            }
+            columns = next;
+
+            for (int i = 0; i < rows.size(); i++) {
+                int doc = docs[i];
+                Set<String> before = previousTerms.get(i);
+                Set<String> after = terms(rows.get(i));
+                for (String term : after) {
+                    if (!before.contains(term)) post(term, doc);
+                }
+                for (String term : before) {
+                    if (!after.contains(term)) unpost(term, doc);
+                }
+            }
+        }
+
+        void remove(List<Long> ids) {
+            Columns next = null;
+            for (Long id : ids) {
+                Integer doc = ordinals.remove(id);
+                if (doc == null) {
+                    continue;
+                }
+                if (next == null) {
+                    next = columns.copy(columns.length);
+                }
+                for (String term : terms(next.rows[doc])) {
+                    unpost(term, doc);
+                }
+                next.clear(doc);
+            }
+            if (next != null) {
+                columns = next;
+            }
+        }
+
+        private void post(String term, int doc) {
+            int[] previous = postings.get(term);
+            postings.put(term, insert(previous != null ? previous : NO_POSTINGS, doc));
+            if (previous == null) {
+                for (int i = 0; i < term.length(); i++) {
+                    suffixes.merge(term.substring(i), new String[]{term}, Index::concat);
+                }
+            }
+        }
+
+        private void unpost(String term, int doc) {
+            int[] previous = postings.get(term);
+            if (previous == null) {
+                return;
+            }
+            int[] next = delete(previous, doc);
+            if (next.length > 0) {
+                postings.put(term, next);
+                return;
+            }
+            postings.remove(term);
+            for (int i = 0; i < term.length(); i++) {
+                suffixes.computeIfPresent(term.substring(i), (k, terms) -> {
+                    String[] kept = Arrays.stream(terms).filter(t -> !t.equals(term)).toArray(String[]::new);
+                    return kept.length == 0 ? null : kept;
+                });
+            }
+        }
+
+        private static String[] concat(String[] a, String[] b) {
+            String[] merged = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, merged, a.length, b.length);
+            return merged;
+        }
+
+        /**
+         * Token'ı içeren tüm term'lerin posting list'lerinin birleşimi (ES "contains" karşılığı).
+         * Token'ı içeren term'lerin bir suffix'i token ile başlar: suffix sözlüğünde [token, token + U+FFFF) aralığı.
+         */
+        BitSet match(String token, int docCount) {
+            BitSet hits = new BitSet(docCount);
+            Set<String> seen = new HashSet<>();
+            for (String[] terms : suffixes.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                for (String term : terms) {
+                    if (!seen.add(term)) continue;
+                    int[] docs = postings.getOrDefault(term, NO_POSTINGS);
+                    for (int doc : docs) {
+                        if (doc < docCount) hits.set(doc);
+                    }
+                }
+            }
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.pizza.service.product;
+
+import com.example.pizza.dto.product.ProductSearchResult;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Node-local ürün arama sonuç cache'i (Caffeine)
+ *
+ * Anahtar: catalog version + kanonik sorgu (ProductSearchService.cacheKey).
+ * - Katalog değişince versiyon artar, eski anahtarlar doğal olarak ıskalanır ve boyut/TTL ile düşer
+ * - get(key, loader) anahtar başına tek yükleme yapar: aynı anda gelen N eş istek ES'e bir kez gider
+ *   (AsyncCache, anahtar başına CompletableFuture). AsyncCache.get(key, mappingFunction) sadece boş future'ı
+ *   yerleştirir (hit/miss istatistikleri burada kaydedilir); ES çağrısı map'in compute kilidi dışında, ilk
+ *   isteyen thread'de çalışır ve yavaş bir ES çağrısı aynı hash bin'deki diğer anahtarları bekletmez
+ * - Eş istekler yüklemeyi en fazla wait-timeout-ms bekler; süre dolarsa null döner (çağıran fallback'e geçer)
+ * - Loader null dönerse (ör. ES devre dışı, fallback kullanılacak) hiçbir şey cache'lenmez
+ *
+ * Redis yerine yerel bellek: sık aramalarda network round-trip ve serileştirme maliyeti yok.
+ */
+@Slf4j
+@Component
+public class ProductSearchCache {
+
+    private final AsyncCache<String, ProductSearchResult> cache;
+    private final long waitTimeoutMs;
+
+    public ProductSearchCache(@Value("${elasticsearch.search.cache.max-entries:5000}") long maxEntries,
+                              @Value("${elasticsearch.search.cache.ttl-seconds:600}") long ttlSeconds,
+                              @Value("${elasticsearch.search.cache.wait-timeout-ms:${elasticsearch.search.request-timeout-ms:2000}}")
+                              long waitTimeoutMs,
+                              MeterRegistry meterRegistry) {
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds)) // Kaçırılan bir bump'a karşı emniyet
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product-search");
+    }
+
+    /**
+     * @return Cache'teki veya loader'ın ürettiği sonuç; loader null dönerse veya eş yükleme
+     *         wait-timeout-ms içinde bitmezse null
+     */
+    public ProductSearchResult get(String key, Supplier<ProductSearchResult> loader) {
+        CompletableFuture<ProductSearchResult> pending = new CompletableFuture<>();
+        CompletableFuture<ProductSearchResult> future = cache.get(key, (k, executor) -> pending);
+        if (future != pending) {
+            return await(key, future);
+        }
+
+        // Bu thread yükler; null veya hata ile tamamlanan future Caffeine tarafından map'ten düşürülür
+        try {
+            ProductSearchResult result = loader.get();
+            pending.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Toplu (_msearch) okumalar için: önce cache'e bakılır, eksikler tek istekte yüklenip put() edilir.
+     * Henüz yüklenmekte olan anahtarlar beklenmez (eksik sayılır).
+     */
+    public ProductSearchResult getIfPresent(String key) {
+        CompletableFuture<ProductSearchResult> future = cache.getIfPresent(key);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    public void put(String key, ProductSearchResult result) {
+        cache.put(key, CompletableFuture.completedFuture(result));
+    }
+
+    private ProductSearchResult await(String key, CompletableFuture<ProductSearchResult> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Concurrent product search load for {} did not finish in {} ms", key, waitTimeoutMs);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
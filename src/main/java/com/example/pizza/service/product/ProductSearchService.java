@@ -1,28 +1,70 @@
 package com.example.pizza.service.product;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.example.pizza.config.elasticsearch.ElasticsearchCircuitBreaker;
+import com.example.pizza.config.elasticsearch.ElasticsearchConfig;
+import com.example.pizza.constants.logic.SearchBackend;
+import com.example.pizza.dto.product.ProductMultiSearchRequest;
+import com.example.pizza.dto.product.ProductMultiSearchResult;
 import com.example.pizza.dto.product.ProductResponse;
+import com.example.pizza.dto.product.ProductSearchFacets;
+import com.example.pizza.dto.product.ProductSearchResult;
 import com.example.pizza.entity.product.Product;
 import com.example.pizza.repository.ProductRepository;
 import com.example.pizza.entity.product.ProductDocument;
+import com.example.pizza.exceptions.base.ApiException;
 import com.example.pizza.repository.search.ProductSearchRepository;
+import com.example.pizza.service.logic.SearchIndexQueue;
+import com.example.pizza.service.logic.SearchRequestExecutor;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,72 +74,221 @@ public class ProductSearchService {
     private final ProductSearchRepository productSearchRepository;
     private final ProductRepository productRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    @Qualifier(ElasticsearchConfig.SEARCH_OPERATIONS)
+    private final ElasticsearchOperations searchOperations; // Arama okumaları: request-timeout-ms ile sınırlı
+    private final ElasticsearchCircuitBreaker elasticsearchCircuitBreaker;
+    private final InMemoryProductIndex inMemoryProductIndex;
+    private final SearchIndexQueue searchIndexQueue;
+    private final CatalogVersion catalogVersion;
+    private final ProductSearchCache productSearchCache;
+    private final ElasticsearchAsyncClient elasticsearchAsyncClient;
+    private final SearchRequestExecutor searchRequestExecutor;
+    private final CacheManager cacheManager;
 
-    @Transactional
+    private static final String SUGGESTIONS_CACHE = "search-suggestions";
+    private static final String FUZZY_SUGGESTIONS_CACHE = "fuzzy-suggestions";
+
+    /** Delta sync'in son index'lediği doküman içeriği (id → hash); değişmeyen tekrar yazımlar version artırmaz */
+    private final Map<Long, Integer> syncedFingerprints = new ConcurrentHashMap<>();
+
+    @Value("${search.backend.product:ELASTICSEARCH}")
+    private SearchBackend backend;
+
+    @Value("${elasticsearch.search.max-results:100}")
+    private int maxResults;
+
+    @Value("${elasticsearch.search.facets.category-size:50}")
+    private int categoryFacetSize;
+
+    @Value("${elasticsearch.search.facets.price-ranges:0-100,100-200,200-300,300-500,500-}")
+    private String facetPriceRanges;
+
+    /**
+     * Kuyruktan gelen ürün yazmaları aranabilir olduğunda catalog version artar
+     * (arama sonuç cache'i tüm node'larda geçersiz olur)
+     */
+    @PostConstruct
+    void registerCatalogVersionListener() {
+        searchIndexQueue.addFlushListener(ProductDocument.class, catalogVersion::bump);
+    }
+
+    /**
+     * Ürünü index kuyruğuna ekler (commit sonrası, coalescing _bulk ile yazılır)
+     * In-memory fallback index'i de commit sonrası güncellenir.
+     */
     public void indexProduct(Product product) {
-        try {
-            LocalDate createdAtDate = (product.getCreatedAt() != null)
-                    ? product.getCreatedAt().toLocalDate()
-                    : LocalDate.now();
-
-            ProductDocument document = ProductDocument.builder()
-                    .id(product.getId())
-                    .name(product.getName())
-                    .description(product.getDescription())
-                    .price(product.getPrice())
-                    .stock(product.getStock())
-                    .rating(product.getRating())
-                    .img(product.getImg())
-                    .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
-                    .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
-                    .createdAt(createdAtDate)
-                    .build();
-
-            productSearchRepository.save(document);
-            log.debug("Product indexed: ID={}", product.getId());
-        } catch (Exception e) {
-            log.error("Failed to index product ID: {}", product.getId(), e);
-        }
-    }
-
-    @Transactional
-    public void deleteProductFromIndex(Long productId) {
-        try {
-            productSearchRepository.deleteById(productId);
-            log.info("Product deleted from index: ID={}", productId);
-        } catch (Exception e) {
-            log.error("Failed to delete product from index ID: {}", productId, e);
+        searchIndexQueue.upsert(toDocument(product), product.getId());
+        inMemoryProductIndex.upsert(product);
+        log.debug("Product queued for indexing: ID={}", product.getId());
+    }
+
+    /**
+     * Ürünleri tek bir _bulk isteği ile index'ler (tam reindex); catalog version her zaman artar
+     */
+    public void indexProducts(List<Product> products) {
+        indexProducts(products, null);
+    }
+
+    /**
+     * Ürünleri tek bir _bulk isteği ile index'ler (delta sync)
+     * Hata yutulmaz; çağıran taraf watermark'ı ilerletmemek için hatayı görmelidir.
+     *
+     * Delta sync her çalışmada safety-lag penceresini tekrar okur. Catalog version (arama cache'i)
+     * sadece watermark'tan yeni bir satır veya bu node'un son sync'te gördüğünden farklı içerikli
+     * bir doküman index'lendiğinde artar; değişmeyen satırların tekrar yazımı cache'i boşaltmaz.
+     *
+     * @param watermark Çalışma başındaki kayıtlı sync watermark'ı (null: koşulsuz bump)
+     */
+    public void indexProducts(List<Product> products, LocalDateTime watermark) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<ProductDocument> documents = products.stream().map(this::toDocument).toList();
+        productSearchRepository.saveAll(documents);
+        inMemoryProductIndex.upsertAll(products);
+
+        boolean changed = watermark == null;
+        for (int i = 0; i < products.size(); i++) {
+            LocalDateTime updatedAt = products.get(i).getUpdatedAt();
+            if (updatedAt != null && watermark != null && updatedAt.isAfter(watermark)) {
+                changed = true;
+            }
+            ProductDocument document = documents.get(i);
+            Integer previous = syncedFingerprints.put(document.getId(), document.hashCode());
+            if (previous == null || previous != document.hashCode()) {
+                changed = true;
+            }
+        }
+        if (changed) {
+            catalogVersion.bump();
         }
     }
 
-    @Transactional
+    public void deleteProductsFromIndex(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productSearchRepository.deleteAllById(productIds);
+        inMemoryProductIndex.removeAll(productIds);
+        productIds.forEach(syncedFingerprints::remove);
+        catalogVersion.bump();
+    }
+
+    public ProductDocument toDocument(Product product) {
+        LocalDate createdAtDate = (product.getCreatedAt() != null)
+                ? product.getCreatedAt().toLocalDate()
+                : LocalDate.now();
+
+        return ProductDocument.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .rating(product.getRating())
+                .img(product.getImg())
+                .categoryId(product.getCategory() != null ? product.getCategory().getId() : null)
+                .categoryName(product.getCategory() != null ? product.getCategory().getName() : null)
+                .createdAt(createdAtDate)
+                .build();
+    }
+
+    public void deleteProductFromIndex(Long productId) {
+        searchIndexQueue.delete(ProductDocument.class, productId);
+        inMemoryProductIndex.remove(productId);
+        log.debug("Product queued for index deletion: ID={}", productId);
+    }
+
+    @Transactional(readOnly = true)
     public void indexAllProducts() {
         log.info("Starting bulk product indexing...");
-        List<Product> products = productRepository.findAll();
-        int count = 0;
-        for (Product product : products) {
-            indexProduct(product);
-            count++;
-        }
-        log.info("Bulk indexing completed. Total: {}", count);
+        List<Product> products = productRepository.findAllWithCategory();
+        indexProducts(products);
+        log.info("Bulk indexing completed. Total: {}", products.size());
     }
 
     // ============================================================================
     // SEARCH METHODS
     // ============================================================================
 
+    /**
+     * Dinamik ürün arama
+     *
+     * Sonuçlar (toplam hit sayısıyla birlikte) catalog version + kanonik sorgu anahtarıyla
+     * node-local cache'lenir: sık aramalar katalog versiyonu başına ES'e en fazla bir kez gider.
+     *
+     * ES yavaş veya erişilemez olduğunda circuit breaker aramayı otomatik olarak
+     * in-memory index'e yönlendirir (aynı filtreler ve sayfalama). Fallback sonuçları cache'lenmez.
+     *
+     * search.backend.product=POSTGRES ise ES hiç kullanılmaz (bkz. searchProductsInDatabase).
+     */
     @Transactional(readOnly = true)
     public Page<ProductResponse> searchProductsDynamic(
             String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
 
-        Criteria criteria = new Criteria();
+        String q = normalizeQuery(query);
+        Double min = roundToCents(minPrice);
+        Double max = roundToCents(maxPrice);
 
-        // 1. Query (İsim veya Açıklama)
-        if (query != null && !query.trim().isEmpty()) {
-            criteria = criteria.subCriteria(
-                    new Criteria("name").contains(query)
-                            .or("description").contains(query));
+        if (backend == SearchBackend.POSTGRES) {
+            return searchProductsInDatabase(q, categoryId, min, max, inStock, pageable);
+        }
+
+        ProductSearchResult result = productSearchCache.get(
+                cacheKey("hits", q, categoryId, min, max, inStock, pageable),
+                () -> elasticsearchCircuitBreaker.execute(
+                        () -> {
+                            Page<ProductResponse> page = searchProductsInElasticsearch(
+                                    q, categoryId, min, max, inStock, pageable);
+                            return new ProductSearchResult(page.getContent(), page.getTotalElements(), null);
+                        },
+                        () -> null));
+
+        if (result != null) {
+            return new PageImpl<>(result.content(), pageable, result.totalHits());
         }
+        return searchProductsInMemory(q, categoryId, min, max, inStock, pageable);
+    }
+
+    /**
+     * PostgreSQL backend: Turkish full-text + trigram (PHASE 7.5 index'leri)
+     * Sonuçlar alaka düzeyine göre sıralanır; istekteki sort uygulanmaz.
+     */
+    private Page<ProductResponse> searchProductsInDatabase(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        Pageable unsorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+        return productRepository.searchFullText(
+                        query, categoryId, minPrice, maxPrice, Boolean.TRUE.equals(inStock), unsorted)
+                .map(product -> toResponse(toDocument(product)));
+    }
+
+    private Page<ProductResponse> searchProductsInMemory(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        if (!inMemoryProductIndex.isReady()) {
+            throw new ApiException("Arama servisi şu anda kullanılamıyor", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        log.debug("Serving product search from in-memory index: query={}", query);
+        return inMemoryProductIndex.search(query, categoryId, minPrice, maxPrice, inStock, pageable);
+    }
+
+    private Page<ProductResponse> searchProductsInElasticsearch(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        SearchHits<ProductDocument> searchHits = searchOperations.search(
+                buildSearchQuery(query, categoryId, minPrice, maxPrice, inStock, pageable), ProductDocument.class);
+
+        return new PageImpl<>(toResponses(searchHits), pageable, searchHits.getTotalHits());
+    }
+
+    private CriteriaQuery buildSearchQuery(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        // 1. Query (İsim veya Açıklama)
+        Criteria criteria = textCriteria(query);
 
         // 2. Kategori
         if (categoryId != null) {
@@ -120,15 +311,204 @@ public class ProductSearchService {
             criteria = criteria.and("stock").greaterThan(0);
         }
 
-        CriteriaQuery criteriaQuery = new CriteriaQuery(criteria).setPageable(pageable);
-        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(criteriaQuery, ProductDocument.class);
+        return new CriteriaQuery(criteria).setPageable(pageable);
+    }
+
+    /**
+     * Metin eşleşmesi: name VEYA description "contains". Facet'li ve facet'siz arama aynı kriteri
+     * kullanır, böylece aynı q için aynı hit'ler ve facet sayıları döner. Boş sorgu match_all olur.
+     */
+    private Criteria textCriteria(String query) {
+        Criteria criteria = new Criteria();
+        if (query != null && !query.trim().isEmpty()) {
+            criteria = criteria.subCriteria(
+                    new Criteria("name").contains(query)
+                            .or("description").contains(query));
+        }
+        return criteria;
+    }
 
-        List<ProductResponse> responses = searchHits.stream()
+    private List<ProductResponse> toResponses(SearchHits<ProductDocument> searchHits) {
+        return searchHits.stream()
                 .map(SearchHit::getContent)
                 .map(this::toResponse)
                 .collect(Collectors.toList());
+    }
+
+    // ============================================================================
+    // FACETED SEARCH (hits + aggregations in ONE request)
+    // ============================================================================
+
+    /**
+     * Hits ile birlikte facet'leri (kategori, fiyat aralığı, stok) tek ES isteğinde döner
+     *
+     * - Ana sorgu: sadece metin kriteri (searchProductsDynamic ile aynı textCriteria)
+     * - post_filter: kategori + fiyat + stok filtreleri (hits'e uygulanır)
+     * - Her facet aggregation'ı kendi boyutu hariç diğer filtrelerle filter agg içinde çalışır
+     *
+     * Sonuç searchProductsDynamic ile aynı cache'te (ayrı anahtar alanı) tutulur. ES devre dışıyken
+     * in-memory index sonucu facet'siz döner (ve cache'lenmez). POSTGRES backend'inde de facet hesaplanmaz.
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResult searchProductsWithFacets(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        String q = normalizeQuery(query);
+        Double min = roundToCents(minPrice);
+        Double max = roundToCents(maxPrice);
+
+        if (backend == SearchBackend.POSTGRES) {
+            Page<ProductResponse> page = searchProductsInDatabase(q, categoryId, min, max, inStock, pageable);
+            return new ProductSearchResult(page.getContent(), page.getTotalElements(), null);
+        }
+
+        ProductSearchResult result = productSearchCache.get(
+                cacheKey("facets", q, categoryId, min, max, inStock, pageable),
+                () -> elasticsearchCircuitBreaker.execute(
+                        () -> facetedSearchInElasticsearch(q, categoryId, min, max, inStock, pageable),
+                        () -> null));
+
+        if (result != null) {
+            return result;
+        }
+        Page<ProductResponse> page = searchProductsInMemory(q, categoryId, min, max, inStock, pageable);
+        return new ProductSearchResult(page.getContent(), page.getTotalElements(), null);
+    }
+
+    // ============================================================================
+    // QUERY NORMALIZATION & CACHE KEYS
+    // ============================================================================
+
+    /**
+     * trim + lowercase + tek boşluk; boş sorgu null olur (match_all)
+     * Sorgu ES'e de bu haliyle gider, böylece aynı anahtar her zaman aynı sonucu temsil eder.
+     */
+    static String normalizeQuery(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        return query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Fiyat filtreleri kuruş hassasiyetine yuvarlanır (fiyatlar DECIMAL(10,2)):
+     * 100, 100.0 ve 100.001 aynı anahtara ve aynı sorguya düşer.
+     */
+    static Double roundToCents(Double price) {
+        return price == null ? null : BigDecimal.valueOf(price).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    private String cacheKey(String kind, String query, Long categoryId, Double minPrice, Double maxPrice,
+                            Boolean inStock, Pageable pageable) {
+        return String.join("|",
+                Long.toString(catalogVersion.current()),
+                kind,
+                query == null ? "" : query,
+                categoryId == null ? "" : categoryId.toString(),
+                canonical(minPrice),
+                canonical(maxPrice),
+                Boolean.TRUE.equals(inStock) ? "1" : "0",
+                pageable.isPaged() ? pageable.getPageNumber() + ":" + pageable.getPageSize() : "all",
+                pageable.getSort().toString());
+    }
+
+    private static String canonical(Double value) {
+        return value == null ? "" : BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private ProductSearchResult facetedSearchInElasticsearch(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
 
-        return new PageImpl<>(responses, pageable, searchHits.getTotalHits());
+        return toFacetedResult(searchOperations.search(
+                buildFacetedQuery(query, categoryId, minPrice, maxPrice, inStock, pageable), ProductDocument.class));
+    }
+
+    private NativeQuery buildFacetedQuery(
+            String query, Long categoryId, Double minPrice, Double maxPrice, Boolean inStock, Pageable pageable) {
+
+        Query categoryFilter = categoryId == null ? null
+                : Query.of(q -> q.term(t -> t.field("categoryId").value(categoryId)));
+        Query priceFilter = (minPrice == null && maxPrice == null) ? null
+                : Query.of(q -> q.range(r -> r.number(n -> {
+                    n.field("price");
+                    if (minPrice != null) n.gte(minPrice);
+                    if (maxPrice != null) n.lte(maxPrice);
+                    return n;
+                })));
+        Query inStockQuery = Query.of(q -> q.range(r -> r.number(n -> n.field("stock").gt(0.0))));
+        Query stockFilter = Boolean.TRUE.equals(inStock) ? inStockQuery : null;
+
+        return NativeQuery.builder()
+                .withQuery(new CriteriaQuery(textCriteria(query)))
+                .withFilter(allOf(categoryFilter, priceFilter, stockFilter))
+                .withAggregation("categories", Aggregation.of(a -> a
+                        .filter(allOf(priceFilter, stockFilter))
+                        .aggregations("by_category", sub -> sub
+                                .terms(t -> t.field("categoryId").size(categoryFacetSize))
+                                .aggregations("name", n -> n
+                                        .topHits(th -> th.size(1)
+                                                .source(src -> src.filter(f -> f.includes("categoryName"))))))))
+                .withAggregation("price_ranges", Aggregation.of(a -> a
+                        .filter(allOf(categoryFilter, stockFilter))
+                        .aggregations("by_price", sub -> sub
+                                .range(r -> r.field("price").ranges(priceRanges())))))
+                .withAggregation("in_stock", Aggregation.of(a -> a
+                        .filter(allOf(categoryFilter, priceFilter, inStockQuery))))
+                .withPageable(pageable)
+                .build();
+    }
+
+    private ProductSearchResult toFacetedResult(SearchHits<ProductDocument> searchHits) {
+        return new ProductSearchResult(toResponses(searchHits), searchHits.getTotalHits(),
+                toFacets((ElasticsearchAggregations) searchHits.getAggregations()));
+    }
+
+    private Query allOf(Query... filters) {
+        List<Query> present = Arrays.stream(filters).filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return Query.of(q -> q.matchAll(m -> m));
+        }
+        return Query.of(q -> q.bool(b -> b.filter(present)));
+    }
+
+    private List<AggregationRange> priceRanges() {
+        List<AggregationRange> ranges = new ArrayList<>();
+        for (String range : facetPriceRanges.split(",")) {
+            String[] bounds = range.trim().split("-", -1);
+            Double from = bounds[0].isBlank() ? null : Double.valueOf(bounds[0]);
+            Double to = bounds.length < 2 || bounds[1].isBlank() ? null : Double.valueOf(bounds[1]);
+            ranges.add(AggregationRange.of(r -> r.key(range.trim()).from(from).to(to)));
+        }
+        return ranges;
+    }
+
+    private ProductSearchFacets toFacets(ElasticsearchAggregations aggregations) {
+        if (aggregations == null) {
+            return new ProductSearchFacets(List.of(), List.of(), 0);
+        }
+
+        List<ProductSearchFacets.CategoryFacet> categories = new ArrayList<>();
+        for (LongTermsBucket bucket : aggregations.get("categories").aggregation().getAggregate()
+                .filter().aggregations().get("by_category").lterms().buckets().array()) {
+            String categoryName = bucket.aggregations().get("name").topHits().hits().hits().stream()
+                    .findFirst()
+                    .map(hit -> hit.source() != null
+                            ? hit.source().toJson().asJsonObject().getString("categoryName", null)
+                            : null)
+                    .orElse(null);
+            categories.add(new ProductSearchFacets.CategoryFacet(bucket.key(), categoryName, bucket.docCount()));
+        }
+
+        List<ProductSearchFacets.PriceRangeFacet> priceRanges = new ArrayList<>();
+        for (RangeBucket bucket : aggregations.get("price_ranges").aggregation().getAggregate()
+                .filter().aggregations().get("by_price").range().buckets().array()) {
+            priceRanges.add(new ProductSearchFacets.PriceRangeFacet(
+                    bucket.key(), bucket.from(), bucket.to(), bucket.docCount()));
+        }
+
+        long inStockCount = aggregations.get("in_stock").aggregation().getAggregate().filter().docCount();
+
+        return new ProductSearchFacets(categories, priceRanges, inStockCount);
     }
 
     // ============================================================================
@@ -148,37 +528,27 @@ public class ProductSearchService {
      *
      * @param partialQuery Kısmi kelime (ör: "piz", "chck")
      * @param limit        Max öneri sayısı (default: 5)
-     * @return Öneri listesi
+     * @return Öneri listesi (ES yanıtı beklenirken thread bloklanmaz)
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "search-suggestions", key = "#partialQuery + '_' + #limit")
-    public List<String> getSuggestions(String partialQuery, int limit) {
+    public CompletableFuture<List<String>> getSuggestions(String partialQuery, int limit) {
         if (partialQuery == null || partialQuery.trim().length() < 2) {
-            return List.of(); // Minimum 2 karakter gerekli
+            return CompletableFuture.completedFuture(List.of()); // Minimum 2 karakter gerekli
         }
 
+        return cachedSuggestions(SUGGESTIONS_CACHE, partialQuery + "_" + limit, limit,
+                suggestionQuery(partialQuery));
+    }
+
+    private Query suggestionQuery(String partialQuery) {
         // Native Elasticsearch wildcard query (Best Practice)
         // *query* pattern: kelime başı, ortası veya sonunda eşleşir
         String wildcardPattern = "*" + partialQuery.toLowerCase() + "*";
 
-        NativeQuery searchQuery = NativeQuery.builder()
-                .withQuery(q -> q
-                        .wildcard(w -> w
-                                .field("name")
-                                .value(wildcardPattern)
-                                .caseInsensitive(true)))
-                .withMaxResults(limit * 2) // Distinct için ekstra results
-                .build();
-
-        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(
-                searchQuery,
-                ProductDocument.class);
-
-        return searchHits.stream()
-                .map(hit -> hit.getContent().getName())
-                .distinct()
-                .limit(limit)
-                .collect(Collectors.toList());
+        return Query.of(q -> q
+                .wildcard(w -> w
+                        .field("name")
+                        .value(wildcardPattern)
+                        .caseInsensitive(true)));
     }
 
     /**
@@ -196,49 +566,243 @@ public class ProductSearchService {
      *
      * @param query Aranacak kelime (yazım hatası olabilir)
      * @param limit Max öneri sayısı
-     * @return Fuzzy eşleşen ürün isimleri
+     * @return Fuzzy eşleşen ürün isimleri (async)
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = "fuzzy-suggestions", key = "#query + '_' + #limit")
-    public List<String> getFuzzySuggestions(String query, int limit) {
+    public CompletableFuture<List<String>> getFuzzySuggestions(String query, int limit) {
         if (query == null || query.trim().length() < 3) {
-            return List.of(); // Minimum 3 karakter gerekli (fuzzy için)
+            return CompletableFuture.completedFuture(List.of()); // Minimum 3 karakter gerekli (fuzzy için)
         }
 
+        return cachedSuggestions(FUZZY_SUGGESTIONS_CACHE, query + "_" + limit, limit,
+                fuzzySuggestionQuery(query));
+    }
+
+    private Query fuzzySuggestionQuery(String query) {
         // Hybrid approach: Combine partial matching + fuzzy (typo tolerance)
         // Strategy:
         // 1. match_phrase_prefix: handles "chck" → "chicken" (partial token match)
         // 2. fuzzy: handles "pizaa" → "pizza" (typo correction)
 
-        NativeQuery searchQuery = NativeQuery.builder()
-                .withQuery(q -> q
-                        .bool(b -> b
-                                .should(s -> s
-                                        .matchPhrasePrefix(m -> m
-                                                .field("name")
-                                                .query(query.toLowerCase())
-                                                .maxExpansions(10)))
-                                .should(s -> s
-                                        .fuzzy(f -> f
-                                                .field("name")
-                                                .value(query.toLowerCase())
-                                                .fuzziness("AUTO")
-                                                .prefixLength(0)))
-                                .minimumShouldMatch("1")))
-                .withMaxResults(limit * 2)
-                .build();
+        return Query.of(q -> q
+                .bool(b -> b
+                        .should(s -> s
+                                .matchPhrasePrefix(m -> m
+                                        .field("name")
+                                        .query(query.toLowerCase())
+                                        .maxExpansions(10)))
+                        .should(s -> s
+                                .fuzzy(f -> f
+                                        .field("name")
+                                        .value(query.toLowerCase())
+                                        .fuzziness("AUTO")
+                                        .prefixLength(0)))
+                        .minimumShouldMatch("1")));
+    }
 
-        SearchHits<ProductDocument> searchHits = elasticsearchOperations.search(
-                searchQuery,
-                ProductDocument.class);
+    /**
+     * Öneri sorgusunu async client ile çalıştırır (sadece "name" alanı döner)
+     * Cache'te varsa ES'e gidilmez; yoksa sonuç tamamlandığında cache'e yazılır.
+     */
+    private CompletableFuture<List<String>> cachedSuggestions(String cacheName, String key, int limit, Query query) {
 
-        return searchHits.stream()
-                .map(hit -> hit.getContent().getName())
+        Cache cache = cacheManager.getCache(cacheName);
+        List<String> cached = cachedSuggestions(cache, key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        String index = elasticsearchOperations.getIndexCoordinatesFor(ProductDocument.class).getIndexName();
+        CompletableFuture<SearchResponse<NameSource>> response = elasticsearchAsyncClient.search(s -> s
+                        .index(index)
+                        .query(query)
+                        .size(limit * 2) // Distinct için ekstra results
+                        .source(src -> src.filter(f -> f.includes("name"))),
+                NameSource.class);
+
+        return searchRequestExecutor.thenApply(response, r -> {
+            List<String> suggestions = toSuggestions(r.hits().hits().stream()
+                    .map(Hit::source)
+                    .filter(Objects::nonNull)
+                    .map(NameSource::name), limit);
+            if (cache != null) {
+                cache.put(key, suggestions);
+            }
+            return suggestions;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> cachedSuggestions(Cache cache, String key) {
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        return cached != null ? (List<String>) cached.get() : null;
+    }
+
+    private static List<String> toSuggestions(Stream<String> names, int limit) {
+        return names
+                .filter(Objects::nonNull)
                 .distinct()
                 .limit(limit)
                 .collect(Collectors.toList());
     }
 
+    private record NameSource(String name) {
+    }
+
+    // ============================================================================
+    // MULTI SEARCH (named sub-queries in ONE _msearch request)
+    // ============================================================================
+
+    /**
+     * Birden fazla isimli alt sorguyu (arama, facet'li arama, öneri) tek _msearch isteğinde çalıştırır
+     *
+     * - Her alt sorgu önce kendi cache'ine bakar (searchProductsDynamic / searchProductsWithFacets /
+     *   getSuggestions ile aynı anahtarlar); sadece ıskalananlar ES'e gider
+     * - Iskalananların hepsi tek HTTP round-trip'te çalışır, sonuçlar ilgili cache'e yazılır
+     * - ES devre dışıyken aramalar in-memory index'ten (facet'siz) döner, öneriler boş liste olur
+     * - POSTGRES backend'inde arama alt sorguları DB'den gelir; öneriler her zaman ES'tedir
+     *
+     * @return İstek sırasıyla isim → sonuç
+     */
+    @Transactional(readOnly = true)
+    public Map<String, ProductMultiSearchResult> multiSearch(Map<String, ProductMultiSearchRequest.SubQuery> queries) {
+        Map<String, ProductMultiSearchResult> resolved = new HashMap<>();
+        List<PendingSearch> pending = new ArrayList<>();
+
+        queries.forEach((name, sub) -> {
+            switch (sub.type()) {
+                case SEARCH, FACETS -> planSearch(name, sub, resolved, pending);
+                case SUGGESTIONS, FUZZY_SUGGESTIONS -> planSuggestions(name, sub, resolved, pending);
+            }
+        });
+
+        if (!pending.isEmpty()) {
+            List<SearchHits<ProductDocument>> responses = elasticsearchCircuitBreaker.execute(
+                    () -> searchOperations.multiSearch(
+                            pending.stream().map(PendingSearch::query).toList(), ProductDocument.class),
+                    () -> null);
+            for (int i = 0; i < pending.size(); i++) {
+                PendingSearch search = pending.get(i);
+                resolved.put(search.name(), responses != null
+                        ? search.onResponse().apply(responses.get(i))
+                        : search.onFallback().get());
+            }
+        }
+
+        Map<String, ProductMultiSearchResult> results = new LinkedHashMap<>();
+        queries.keySet().forEach(name -> results.put(name, resolved.get(name)));
+        return results;
+    }
+
+    private void planSearch(String name, ProductMultiSearchRequest.SubQuery sub,
+                            Map<String, ProductMultiSearchResult> resolved, List<PendingSearch> pending) {
+
+        boolean facets = sub.type() == ProductMultiSearchRequest.Type.FACETS;
+        String q = normalizeQuery(sub.query());
+        Double min = roundToCents(sub.minPrice());
+        Double max = roundToCents(sub.maxPrice());
+        Long categoryId = sub.categoryId();
+        Boolean inStock = sub.inStock();
+        Pageable pageable = toPageable(sub);
+
+        if (backend == SearchBackend.POSTGRES) {
+            Page<ProductResponse> page = searchProductsInDatabase(q, categoryId, min, max, inStock, pageable);
+            resolved.put(name, ProductMultiSearchResult.of(page, null));
+            return;
+        }
+
+        String key = cacheKey(facets ? "facets" : "hits", q, categoryId, min, max, inStock, pageable);
+        ProductSearchResult cached = productSearchCache.getIfPresent(key);
+        if (cached != null) {
+            resolved.put(name, toMultiSearchResult(cached, pageable));
+            return;
+        }
+
+        pending.add(new PendingSearch(name,
+                facets
+                        ? buildFacetedQuery(q, categoryId, min, max, inStock, pageable)
+                        : buildSearchQuery(q, categoryId, min, max, inStock, pageable),
+                hits -> {
+                    ProductSearchResult result = facets
+                            ? toFacetedResult(hits)
+                            : new ProductSearchResult(toResponses(hits), hits.getTotalHits(), null);
+                    productSearchCache.put(key, result);
+                    return toMultiSearchResult(result, pageable);
+                },
+                () -> ProductMultiSearchResult.of(
+                        searchProductsInMemory(q, categoryId, min, max, inStock, pageable), null)));
+    }
+
+    private void planSuggestions(String name, ProductMultiSearchRequest.SubQuery sub,
+                                 Map<String, ProductMultiSearchResult> resolved, List<PendingSearch> pending) {
+
+        boolean fuzzy = sub.type() == ProductMultiSearchRequest.Type.FUZZY_SUGGESTIONS;
+        String query = sub.query();
+        int limit = sub.limit() == null || sub.limit() < 1 || sub.limit() > 10 ? 5 : sub.limit();
+
+        // getSuggestions / getFuzzySuggestions ile aynı minimum uzunluk kuralları
+        if (query == null || query.trim().length() < (fuzzy ? 3 : 2)) {
+            resolved.put(name, ProductMultiSearchResult.ofSuggestions(List.of()));
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(fuzzy ? FUZZY_SUGGESTIONS_CACHE : SUGGESTIONS_CACHE);
+        String key = query + "_" + limit;
+        List<String> cached = cachedSuggestions(cache, key);
+        if (cached != null) {
+            resolved.put(name, ProductMultiSearchResult.ofSuggestions(cached));
+            return;
+        }
+
+        NativeQuery nativeQuery = NativeQuery.builder()
+                .withQuery(fuzzy ? fuzzySuggestionQuery(query) : suggestionQuery(query))
+                .withPageable(PageRequest.of(0, limit * 2)) // Distinct için ekstra results
+                .withSourceFilter(new FetchSourceFilter(new String[]{"name"}, null))
+                .build();
+
+        pending.add(new PendingSearch(name, nativeQuery,
+                hits -> {
+                    List<String> suggestions = toSuggestions(hits.stream()
+                            .map(SearchHit::getContent)
+                            .map(ProductDocument::getName), limit);
+                    if (cache != null) {
+                        cache.put(key, suggestions);
+                    }
+                    return ProductMultiSearchResult.ofSuggestions(suggestions);
+                },
+                () -> ProductMultiSearchResult.ofSuggestions(List.of())));
+    }
+
+    private Pageable toPageable(ProductMultiSearchRequest.SubQuery sub) {
+        int page = sub.page() == null || sub.page() < 0 ? 0 : sub.page();
+        int size = sub.size() == null || sub.size() < 1 ? 10 : Math.min(sub.size(), maxResults);
+
+        // "rating,desc" → rating DESC; belirtilmezse /api/product/search ile aynı varsayılan (id)
+        Sort sort = Sort.by("id");
+        if (sub.sort() != null && !sub.sort().isBlank()) {
+            String[] parts = sub.sort().split(",");
+            Sort.Direction direction = parts.length > 1
+                    ? Sort.Direction.fromOptionalString(parts[1].trim()).orElse(Sort.Direction.ASC)
+                    : Sort.Direction.ASC;
+            sort = Sort.by(direction, parts[0].trim());
+        }
+        return PageRequest.of(page, size, sort);
+    }
+
+    private static ProductMultiSearchResult toMultiSearchResult(ProductSearchResult result, Pageable pageable) {
+        return ProductMultiSearchResult.of(
+                new PageImpl<>(result.content(), pageable, result.totalHits()), result.facets());
+    }
+
+    /**
+     * _msearch'e girecek bir alt sorgu: yanıt geldiğinde veya ES devre dışıyken sonucu üretir
+     */
+    private record PendingSearch(
+            String name,
+            org.springframework.data.elasticsearch.core.query.Query query,
+            Function<SearchHits<ProductDocument>, ProductMultiSearchResult> onResponse,
+            Supplier<ProductMultiSearchResult> onFallback) {
+    }
+
     private ProductResponse toResponse(ProductDocument document) {
         return new ProductResponse(
                 document.getId(),
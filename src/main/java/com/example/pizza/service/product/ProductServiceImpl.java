@@ -71,13 +71,8 @@ public class ProductServiceImpl implements ProductService {
         // 1. DB Save
         Product savedProduct = productRepository.save(product);
 
-        // 2. Elasticsearch Indexing
-        try {
-            productSearchService.indexProduct(savedProduct);
-        } catch (Exception e) {
-            log.error("Elasticsearch indexing failed for product ID: {}", savedProduct.getId(), e);
-            // Indexleme hatası transaction'ı rollback yapmamalı, loglayıp devam ediyoruz.
-        }
+        // 2. Elasticsearch Indexing (async kuyruk + in-memory fallback index, commit sonrası)
+        productSearchService.indexProduct(savedProduct);
 
         return savedProduct;
     }
@@ -124,12 +119,8 @@ public class ProductServiceImpl implements ProductService {
         // 1. DB Update
         Product updatedProduct = productRepository.save(existingProduct);
 
-        // 2. Elasticsearch Update
-        try {
-            productSearchService.indexProduct(updatedProduct);
-        } catch (Exception e) {
-            log.error("Elasticsearch update failed for product ID: {}", updatedProduct.getId(), e);
-        }
+        // 2. Elasticsearch Update (async kuyruk + in-memory fallback index, commit sonrası)
+        productSearchService.indexProduct(updatedProduct);
 
         return updatedProduct;
     }
@@ -153,12 +144,8 @@ public class ProductServiceImpl implements ProductService {
         // 1. DB Delete
         productRepository.delete(product);
 
-        // 2. Elasticsearch Delete
-        try {
-            productSearchService.deleteProductFromIndex(id);
-        } catch (Exception e) {
-            log.error("Elasticsearch delete failed for product ID: {}", id, e);
-        }
+        // 2. Elasticsearch Delete (async kuyruk + in-memory fallback index, commit sonrası)
+        productSearchService.deleteProductFromIndex(id);
     }
 
     @Override
@@ -16,10 +16,17 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache userPrincipalCache;
 
+    /**
+     * Principal email başına cache'lenir (bkz. UserPrincipalCache); aktif olmayan kullanıcılar cache'lenmez
+     */
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userPrincipalCache.get(email, this::loadPrincipal);
+    }
+
+    private UserPrincipal loadPrincipal(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Kullanıcı bulunamadı: " + email));
 
@@ -0,0 +1,124 @@
+package com.example.pizza.service.user;
+
+import com.example.pizza.config.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Kimliği doğrulanmış istekler için node-local UserPrincipal cache'i (Caffeine, anahtar: email)
+ *
+ * Her principal yüklendiği andaki users.security_version değerini taşır. Rol, durum veya şifre
+ * değiştiğinde versiyon artar (UserService) ve commit sonrası invalidate() çağrılır:
+ * - Yerel girdi silinir, email için bilinen en yüksek versiyon kaydedilir
+ * - Redis pub/sub ile diğer node'lara yayınlanır
+ * - Bilinen versiyondan eski bir principal (ör. commit'ten önce başlamış bir yükleme) asla dönmez
+ *
+ * Böylece her istekte users SELECT'i yapılmaz; yetki değişiklikleri tüm node'larda hemen geçerli olur.
+ * Kaçırılan bir yayına karşı girdiler ttl-seconds sonra yeniden yüklenir.
+ */
+@Slf4j
+@Component
+public class UserPrincipalCache {
+
+    private static final String CHANNEL = "pizza:user:security-version:changed";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final Cache<String, UserPrincipal> principals;
+
+    /** email → invalidate() ile öğrenilen en yüksek security version */
+    private final Cache<String, Long> knownVersions;
+
+    public UserPrincipalCache(StringRedisTemplate stringRedisTemplate,
+                              RedisMessageListenerContainer redisMessageListenerContainer,
+                              @Value("${security.principal-cache.max-entries:10000}") long maxEntries,
+                              @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // Principal TTL'inden uzun tutulur: geç tamamlanan eski bir yükleme TTL boyunca reddedilir
+        this.knownVersions = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds * 2))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "user-principals");
+    }
+
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = body.indexOf(':');
+            try {
+                evict(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+            } catch (RuntimeException e) {
+                log.warn("Ignoring malformed security version message");
+            }
+        }, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * @return Cache'teki güncel principal veya loader'ın yüklediği; loader exception atarsa hiçbir şey cache'lenmez
+     */
+    public UserPrincipal get(String email, Function<String, UserPrincipal> loader) {
+        UserPrincipal principal = principals.get(email, loader);
+        Long known = knownVersions.getIfPresent(email);
+        if (known != null && principal.getSecurityVersion() < known) {
+            // Versiyon artışından önce başlamış bir yükleme cache'e yazılmış: DB'den tekrar oku
+            principals.invalidate(email);
+            principal = principals.get(email, loader);
+        }
+        return principal;
+    }
+
+    /**
+     * Kullanıcının security version'ı arttı: transaction commit olduktan sonra tüm node'larda geçersiz kılar
+     */
+    public void invalidate(String email, long securityVersion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(email, securityVersion);
+                }
+            });
+        } else {
+            broadcast(email, securityVersion);
+        }
+    }
+
+    private void broadcast(String email, long securityVersion) {
+        evict(email, securityVersion);
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, securityVersion + ":" + email);
+        } catch (Exception e) {
+            log.warn("Security version broadcast failed, invalidating local node only: {}", e.getMessage());
+        }
+    }
+
+    private void evict(String email, long securityVersion) {
+        knownVersions.asMap().merge(email, securityVersion, Math::max);
+        principals.invalidate(email);
+    }
+}
@@ -1,17 +1,23 @@
 package com.example.pizza.service.user;
 
+import com.example.pizza.constants.logic.SearchBackend;
 import com.example.pizza.constants.user.Role;
 import com.example.pizza.constants.user.UserStatus;
+import com.example.pizza.dto.paginate.CursorPage;
 import com.example.pizza.dto.user.UserResponse;
 import com.example.pizza.entity.user.User;
 import com.example.pizza.repository.UserRepository;
 import com.example.pizza.entity.user.UserDocument;
 import com.example.pizza.repository.search.UserSearchRepository;
+import com.example.pizza.service.logic.SearchAfterPaginator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
@@ -32,6 +38,10 @@ public class UserSearchService {
     private final UserSearchRepository userSearchRepository;
     private final UserRepository userRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchAfterPaginator searchAfterPaginator;
+
+    @Value("${search.backend.user:ELASTICSEARCH}")
+    private SearchBackend backend;
 
     // ============================================================================
     // INDEXING METHODS
@@ -40,29 +50,47 @@ public class UserSearchService {
     @Transactional
     public void indexUser(User user) {
         try {
-            // UserDocument yapısının User entity'si ile uyumlu olduğunu varsayıyoruz
-            // LocalDate dönüşümü gerekebilir
-            LocalDate createdAt = (user.getCreatedAt() != null) ? user.getCreatedAt().toLocalDate() : LocalDate.now();
-
-            UserDocument document = UserDocument.builder()
-                    .id(user.getId())
-                    .name(user.getName())
-                    .surname(user.getSurname())
-                    .email(user.getEmail())
-                    .role(user.getRole())
-                    .status(user.getStatus())
-                    // Eğer UserDocument'te phoneNumber vb. varsa ekleyin:
-                    // .phoneNumber(user.getPhoneNumber())
-                    .createdAt(createdAt)
-                    .build();
-
-            userSearchRepository.save(document);
+            userSearchRepository.save(toDocument(user));
             log.debug("User indexed: ID={}", user.getId());
         } catch (Exception e) {
             log.error("Failed to index user ID: {}", user.getId(), e);
         }
     }
 
+    /**
+     * Kullanıcıları tek _bulk isteği ile index'ler (delta sync)
+     */
+    public void indexUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        userSearchRepository.saveAll(users.stream().map(this::toDocument).toList());
+    }
+
+    public void deleteUsersFromIndex(List<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userSearchRepository.deleteAllById(userIds);
+    }
+
+    public UserDocument toDocument(User user) {
+        // LocalDate dönüşümü gerekebilir
+        LocalDate createdAt = (user.getCreatedAt() != null) ? user.getCreatedAt().toLocalDate() : LocalDate.now();
+
+        return UserDocument.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .surname(user.getSurname())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .status(user.getStatus())
+                // Eğer UserDocument'te phoneNumber vb. varsa ekleyin:
+                // .phoneNumber(user.getPhoneNumber())
+                .createdAt(createdAt)
+                .build();
+    }
+
     @Transactional
     public void deleteUserFromIndex(Long userId) {
         try {
@@ -89,10 +117,67 @@ public class UserSearchService {
     // SEARCH METHODS
     // ============================================================================
 
+    /**
+     * search.backend.user=POSTGRES ise trigram index'li DB araması yapılır: isim/soyisim substring
+     * veya yazım hatası toleranslı, email substring; sonuçlar benzerliğe göre sıralanır
+     */
     @Transactional(readOnly = true)
     public Page<UserResponse> searchUsersDynamic(
             String query, String email, Role role, UserStatus status, Pageable pageable) {
 
+        if (backend == SearchBackend.POSTGRES) {
+            return searchUsersInDatabase(query, email, role, status, pageable);
+        }
+
+        Criteria criteria = buildCriteria(query, email, role, status);
+
+        CriteriaQuery criteriaQuery = new CriteriaQuery(criteria).setPageable(pageable);
+        SearchHits<UserDocument> searchHits = elasticsearchOperations.search(criteriaQuery, UserDocument.class);
+
+        List<UserResponse> responses = searchHits.stream()
+                .map(SearchHit::getContent)
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(responses, pageable, searchHits.getTotalHits());
+    }
+
+    /**
+     * Cursor (PIT + search_after) tabanlı kullanıcı araması
+     *
+     * @param cursor Önceki sayfanın nextCursor değeri, ilk sayfa için null
+     */
+    public CursorPage<UserResponse> searchUsersAfter(
+            String query, String email, Role role, UserStatus status, Sort sort, int size, String cursor) {
+
+        Criteria criteria = buildCriteria(query, email, role, status);
+        String fingerprint = String.join("|", String.valueOf(query), String.valueOf(email),
+                String.valueOf(role), String.valueOf(status));
+
+        return searchAfterPaginator.search(criteria, UserDocument.class, sort, size, fingerprint, cursor)
+                .map(this::toResponse);
+    }
+
+    private Page<UserResponse> searchUsersInDatabase(
+            String query, String email, Role role, UserStatus status, Pageable pageable) {
+
+        Pageable unsorted = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+        return userRepository.searchFuzzy(
+                        blankToNull(query),
+                        blankToNull(email),
+                        role != null ? role.name() : null,
+                        status != null ? status.name() : null,
+                        unsorted)
+                .map(user -> toResponse(toDocument(user)));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private Criteria buildCriteria(String query, String email, Role role, UserStatus status) {
         Criteria criteria = new Criteria();
 
         // 1. Genel Query (İsim veya Soyisim)
@@ -118,15 +203,7 @@ public class UserSearchService {
             criteria = criteria.and("status").is(status);
         }
 
-        CriteriaQuery criteriaQuery = new CriteriaQuery(criteria).setPageable(pageable);
-        SearchHits<UserDocument> searchHits = elasticsearchOperations.search(criteriaQuery, UserDocument.class);
-
-        List<UserResponse> responses = searchHits.stream()
-                .map(SearchHit::getContent)
-                .map(this::toResponse)
-                .collect(Collectors.toList());
-
-        return new PageImpl<>(responses, pageable, searchHits.getTotalHits());
+        return criteria;
     }
 
     private UserResponse toResponse(UserDocument doc) {
@@ -1,6 +1,7 @@
 package com.example.pizza.service.user;
 
 import com.example.pizza.dto.address.UserAddressDto;
+import com.example.pizza.constants.security.ShortLivedTokenPurpose;
 import com.example.pizza.constants.user.Role;
 import com.example.pizza.entity.user.User;
 import com.example.pizza.entity.user.UserAddress;
@@ -10,7 +11,9 @@ import com.example.pizza.exceptions.common.ResourceNotFoundException;
 import com.example.pizza.exceptions.user.UserRegistrationException;
 import com.example.pizza.repository.UserRepository;
 import com.example.pizza.repository.VerificationTokenRepository;
+import com.example.pizza.service.logic.ActivityTimestampBuffer;
 import com.example.pizza.service.logic.EmailService;
+import com.example.pizza.service.logic.ShortLivedTokenStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
@@ -20,9 +23,16 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.regex.Pattern;
@@ -37,6 +47,14 @@ public class UserService {
     private final EmailService emailService;
     private final VerificationTokenRepository tokenRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final UserPrincipalCache userPrincipalCache;
+    private final ActivityTimestampBuffer activityTimestampBuffer;
+    private final ShortLivedTokenStore shortLivedTokenStore;
+
+    private static final Duration EMAIL_VERIFICATION_TTL = Duration.ofHours(24);
+    private static final Duration PASSWORD_RESET_TTL = Duration.ofHours(1);
+
+    private static final String REQUEST_USERS_ATTRIBUTE = UserService.class.getName() + ".requestUsers";
 
     private static final Pattern EMAIL_PATTERN = Pattern.compile(
             "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$"
@@ -107,11 +125,8 @@ public class UserService {
 
         if (user.getRole() != Role.GUEST) {
             String token = UUID.randomUUID().toString();
-            VerificationToken verificationToken = new VerificationToken();
-            verificationToken.setToken(token);
-            verificationToken.setUser(savedUser);
-            verificationToken.setExpiryDate(LocalDateTime.now().plusHours(24));
-            tokenRepository.save(verificationToken);
+            shortLivedTokenStore.put(ShortLivedTokenPurpose.EMAIL_VERIFICATION, token, savedUser.getId(),
+                    EMAIL_VERIFICATION_TTL);
         if("${spring.profiles.active}".equals("prod") ) {}
             emailService.sendVerificationEmail(savedUser, token);
         }
@@ -180,6 +195,7 @@ public class UserService {
 
         user.getAddresses().add(newAddress);
         User savedUser = userRepository.save(user);
+        forgetRequestUser(savedUser.getEmail());
 
         log.info("Address added successfully for user: {} with ID: {}",
                 user.getEmail(), newAddress.getId());
@@ -256,6 +272,7 @@ public class UserService {
         existingAddress.setUpdatedAt(LocalDateTime.now());
 
         User savedUser = userRepository.save(user);
+        forgetRequestUser(savedUser.getEmail());
         log.info("Address updated successfully for user: {}", user.getEmail());
         return savedUser;
     }
@@ -293,6 +310,7 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        forgetRequestUser(savedUser.getEmail());
         log.info("Address removed successfully for user: {}", user.getEmail());
         return savedUser;
     }
@@ -324,6 +342,7 @@ public class UserService {
         }
 
         user.setPassword(passwordEncoder.encode(newPassword));
+        bumpSecurityVersion(user);
         userRepository.save(user);
 
         log.info("Password changed successfully for user: {}", user.getEmail());
@@ -355,11 +374,25 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı: " + email));
     }
 
+    /**
+     * Aynı HTTP isteği içinde tekrar çağrılırsa (ör. createOrder → resolveDeliveryAddress)
+     * ilk yüklenen kullanıcı döner, DB'ye ikinci kez gidilmez.
+     */
     @Transactional(readOnly = true)
     public User getUserByEmailWithAddresses(String email) {
+        Map<String, User> requestUsers = requestUsers();
+        User loaded = requestUsers != null ? requestUsers.get(email) : null;
+        if (loaded != null) {
+            return loaded;
+        }
+
         log.debug("Finding user with addresses by email: {}", email);
-        return userRepository.findByEmailWithAddresses(email)
+        User user = userRepository.findByEmailWithAddresses(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı: " + email));
+        if (requestUsers != null) {
+            requestUsers.put(email, user);
+        }
+        return user;
     }
 
     @Transactional(readOnly = true)
@@ -413,13 +446,12 @@ public class UserService {
                 !userOpt.get().getOauthProvider().isEmpty();
     }
 
-    @Transactional(rollbackFor = Exception.class)
+    /**
+     * last_login write-behind buffer'a yazılır (SELECT + save yok); periyodik toplu UPDATE ile kalıcı olur
+     */
     public void updateLoginTime(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-            log.debug("Updated login time for user: {}", email);
-        });
+        activityTimestampBuffer.touchUserLogin(email);
+        log.debug("Queued login time update for user: {}", email);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -431,12 +463,7 @@ public class UserService {
 
         User user = userOpt.get();
         String token = UUID.randomUUID().toString();
-
-        VerificationToken resetToken = new VerificationToken();
-        resetToken.setToken(token);
-        resetToken.setUser(user);
-        resetToken.setExpiryDate(LocalDateTime.now().plusHours(1));
-        tokenRepository.save(resetToken);
+        shortLivedTokenStore.put(ShortLivedTokenPurpose.PASSWORD_RESET, token, user.getId(), PASSWORD_RESET_TTL);
 
         emailService.sendPasswordResetEmail(user, token);
 
@@ -446,18 +473,7 @@ public class UserService {
 
     @Transactional(rollbackFor = Exception.class)
     public boolean resetPassword(String token, String newPassword) {
-        VerificationToken resetToken = tokenRepository.findByToken(token);
-
-        if (resetToken == null) {
-            log.warn("Invalid reset token: {}", token);
-            return false;
-        }
-
-        if (resetToken.getExpiryDate().isBefore(LocalDateTime.now())) {
-            log.warn("Expired reset token: {}", token);
-            return false;
-        }
-
+        // Token tek kullanımlık: geçersiz şifre yüzünden link harcanmasın diye önce şifre doğrulanır
         if (newPassword == null || newPassword.trim().isEmpty()) {
             throw new IllegalArgumentException("Yeni şifre boş olamaz");
         }
@@ -466,12 +482,17 @@ public class UserService {
             throw new IllegalArgumentException("Yeni şifre en az 6 karakter olmalıdır");
         }
 
-        User user = resetToken.getUser();
+        Optional<User> userOpt = consumeToken(ShortLivedTokenPurpose.PASSWORD_RESET, token);
+        if (userOpt.isEmpty()) {
+            log.warn("Invalid or expired reset token");
+            return false;
+        }
+
+        User user = userOpt.get();
         user.setPassword(passwordEncoder.encode(newPassword));
+        bumpSecurityVersion(user);
         userRepository.save(user);
 
-        tokenRepository.delete(resetToken);
-
         log.info("Password reset successfully for user: {}", user.getEmail());
         return true;
     }
@@ -480,6 +501,7 @@ public class UserService {
     public User approveUser(Long userId) {
         User user = getUserById(userId);
         user.setStatus(UserStatus.ACTIVE);
+        bumpSecurityVersion(user);
         return userRepository.save(user);
     }
 
@@ -487,6 +509,7 @@ public class UserService {
     public User rejectUser(Long userId) {
         User user = getUserById(userId);
         user.setStatus(UserStatus.REJECTED);
+        bumpSecurityVersion(user);
         return userRepository.save(user);
     }
 
@@ -494,6 +517,7 @@ public class UserService {
     public User updateUserRole(Long userId, Role newRole) {
         User user = getUserById(userId);
         user.setRole(newRole);
+        bumpSecurityVersion(user);
         return userRepository.save(user);
     }
 
@@ -513,6 +537,9 @@ public class UserService {
             user.setPhoneNumber(updatedUser.getPhoneNumber());
         }
 
+        // İsim principal'da da taşınır: versiyon artmadan cache'teki principal yenilenir
+        userPrincipalCache.invalidate(user.getEmail(), user.getSecurityVersion());
+        forgetRequestUser(user.getEmail());
         return userRepository.save(user);
     }
 
@@ -524,30 +551,78 @@ public class UserService {
         user.getAddresses().forEach(address -> address.setIsDefault(false));
         addressToSetDefault.setIsDefault(true);
 
+        forgetRequestUser(user.getEmail());
         return userRepository.save(user);
     }
 
     @Transactional(rollbackFor = Exception.class)
     public boolean verifyEmail(String token) {
-        VerificationToken verificationToken = tokenRepository.findByToken(token);
-
-        if (verificationToken == null) {
-            throw new ResourceNotFoundException("Geçersiz doğrulama linki");
-        }
-
-        if (verificationToken.getExpiryDate().isBefore(LocalDateTime.now())) {
-            throw new IllegalStateException("Doğrulama linki süresi dolmuş");
-        }
+        User user = consumeToken(ShortLivedTokenPurpose.EMAIL_VERIFICATION, token)
+                .orElseThrow(() -> new ResourceNotFoundException("Geçersiz veya süresi dolmuş doğrulama linki"));
 
-        User user = verificationToken.getUser();
         user.setStatus(UserStatus.ACTIVE);
+        bumpSecurityVersion(user);
         userRepository.save(user);
 
-        tokenRepository.delete(verificationToken);
-
         log.info("Email verified successfully for user: {}", user.getEmail());
         return true;
     }
+
+    /**
+     * Email link token'ını tüketir (tek kullanım, süre aşımı store'da)
+     *
+     * Token store transaction'a katılmaz: tüketim hemen olur (eş zamanlı iki istekten biri kazanır),
+     * transaction rollback olursa token kalan süresiyle geri konur ve link tekrar kullanılabilir.
+     */
+    private Optional<User> consumeToken(ShortLivedTokenPurpose purpose, String token) {
+        Optional<ShortLivedTokenStore.Consumed> consumed = shortLivedTokenStore.consume(purpose, token);
+        if (consumed.isPresent()) {
+            restoreOnRollback(purpose, token, consumed.get());
+            return userRepository.findById(consumed.get().userId());
+        }
+        return consumeLegacyToken(token); // verification_tokens silmesi transaction ile birlikte geri alınır
+    }
+
+    private void restoreOnRollback(ShortLivedTokenPurpose purpose, String token, ShortLivedTokenStore.Consumed consumed) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long consumedAt = System.currentTimeMillis();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                Duration remaining = consumed.remainingTtl().minusMillis(System.currentTimeMillis() - consumedAt);
+                if (remaining.isNegative() || remaining.isZero()) {
+                    return;
+                }
+                try {
+                    shortLivedTokenStore.put(purpose, token, consumed.userId(), remaining);
+                    log.info("Restored {} token after rollback for user id {}", purpose.getValue(), consumed.userId());
+                } catch (Exception e) {
+                    log.warn("Could not restore {} token after rollback: {}", purpose.getValue(), e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * ShortLivedTokenStore'dan önce verification_tokens tablosuna yazılmış link'ler süreleri dolana kadar
+     * geçerlidir; yeni token bu tabloya yazılmaz (kalanlar TokenPurgeScheduler ile silinir)
+     */
+    private Optional<User> consumeLegacyToken(String token) {
+        VerificationToken legacyToken = tokenRepository.findByToken(token);
+        if (legacyToken == null) {
+            return Optional.empty();
+        }
+        tokenRepository.delete(legacyToken);
+        if (legacyToken.getExpiryDate().isBefore(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(legacyToken.getUser());
+    }
     @Transactional(readOnly = true)
     public Page<User> getAllUsers(Pageable pageable) {
         log.debug("Fetching paginated users - page: {}, size: {}, sort: {}",
@@ -628,4 +703,42 @@ public class UserService {
         return userRepository.findByRoleAndStatus(role, status, pageable);
     }
 
-}
\ No newline at end of file
+
+    // ============================================================================
+    // SECURITY VERSION & REQUEST-SCOPED REUSE
+    // ============================================================================
+
+    /**
+     * Rol / durum / şifre değişikliği: cache'lenmiş principal'lar commit sonrası tüm node'larda geçersiz olur
+     */
+    private void bumpSecurityVersion(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        userPrincipalCache.invalidate(user.getEmail(), user.getSecurityVersion());
+        forgetRequestUser(user.getEmail());
+    }
+
+    /**
+     * Mevcut HTTP isteğinde yüklenmiş kullanıcılar (email → User); istek dışında (scheduler, async) null
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, User> requestUsers() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<String, User> users = (Map<String, User>) attributes.getAttribute(
+                REQUEST_USERS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (users == null) {
+            users = new HashMap<>();
+            attributes.setAttribute(REQUEST_USERS_ATTRIBUTE, users, RequestAttributes.SCOPE_REQUEST);
+        }
+        return users;
+    }
+
+    private void forgetRequestUser(String email) {
+        Map<String, User> requestUsers = requestUsers();
+        if (requestUsers != null) {
+            requestUsers.remove(email);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.pizza.config.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * JwksService'in yerel stub JWKS sunucusuna (/auth/v1/jwks) karşı davranışı
+ */
+class JwksServiceTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Map<String, KeyPair> published = new LinkedHashMap<>();
+    private volatile boolean available = true;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/auth/v1/jwks", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = jwksJson().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(available ? 200 : 503, available ? body.length : -1);
+            if (available) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void servesKeysFromMemoryAfterInitialLoad() throws Exception {
+        KeyPair keyPair = publish("key-1");
+        JwksService service = newService(30_000);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.getPublicKey("key-1")).isEqualTo(keyPair.getPublic());
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescesConcurrentRefetchesForUnknownKid() throws Exception {
+        publish("key-1");
+        JwksService service = newService(0);
+        KeyPair rotated = publish("key-2");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RSAPublicKey>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return service.getPublicKey("key-2");
+            }));
+        }
+        start.countDown();
+        for (Future<RSAPublicKey> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(rotated.getPublic());
+        }
+        pool.shutdown();
+
+        // Açılış + bilinmeyen kid için tek refetch
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rateLimitsRefetchesForUnknownKids() throws Exception {
+        publish("key-1");
+        JwksService service = newService(60_000);
+
+        for (int i = 0; i < 20; i++) {
+            String kid = "forged-" + i;
+            assertThatThrownBy(() -> service.getPublicKey(kid)).isInstanceOf(RuntimeException.class);
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsServingLastGoodKeysWhenUnreachable() throws Exception {
+        KeyPair keyPair = publish("key-1");
+        JwksService service = newService(0);
+
+        available = false;
+        service.refresh();
+
+        assertThat(service.getPublicKey("key-1")).isEqualTo(keyPair.getPublic());
+    }
+
+    @Test
+    void validatesSupabaseTokensWithoutNetworkIo() throws Exception {
+        KeyPair keyPair = publish("key-1");
+        JwksService service = newService(30_000);
+
+        UnifiedTokenProvider provider = new UnifiedTokenProvider(service);
+        ReflectionTestUtils.setField(provider, "jwtSecret", "test-secret-key-for-jwks-service-tests-256-bits!!");
+        ReflectionTestUtils.setField(provider, "supabaseEnabled", true);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", 0L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtlSeconds", 60L);
+        provider.init();
+
+        for (int i = 0; i < 10; i++) {
+            String token = JWT.create()
+                    .withKeyId("key-1")
+                    .withClaim("email", "user" + i + "@example.com")
+                    .withClaim("user_role", "customer")
+                    .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                    .sign(Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()));
+
+            VerifiedToken verified = provider.validateToken(token);
+            assertThat(verified.subject()).isEqualTo("user" + i + "@example.com");
+            assertThat(verified.roles()).containsExactly("ROLE_CUSTOMER");
+        }
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    private JwksService newService(long minRefetchIntervalMs) {
+        String url = "http://127.0.0.1:" + server.getAddress().getPort();
+        JwksService service = new JwksService(url, 1000, 1000, minRefetchIntervalMs, new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    private KeyPair publish(String kid) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        published.put(kid, keyPair);
+        return keyPair;
+    }
+
+    private String jwksJson() {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return published.entrySet().stream()
+                .map(entry -> {
+                    RSAPublicKey key = (RSAPublicKey) entry.getValue().getPublic();
+                    return String.format(
+                            "{\"kty\":\"RSA\",\"kid\":\"%s\",\"use\":\"sig\",\"alg\":\"RS256\",\"n\":\"%s\",\"e\":\"%s\"}",
+                            entry.getKey(),
+                            encoder.encodeToString(unsigned(key.getModulus().toByteArray())),
+                            encoder.encodeToString(unsigned(key.getPublicExponent().toByteArray())));
+                })
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private static byte[] unsigned(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == 0 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+}
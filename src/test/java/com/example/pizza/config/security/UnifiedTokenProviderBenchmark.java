@@ -0,0 +1,88 @@
+package com.example.pizza.config.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT doğrulama throughput'u (token/saniye)
+ *
+ * - rebuildKeyAndParserPerCall: Eski davranış (her çağrıda SecretKey + JwtParser oluşturma)
+ * - verifyUncached: Tek seferlik key/parser ile imza doğrulama (cache'siz yol)
+ * - validateCached: Doğrulanmış token cache'inden dönüş (aynı token'ın tekrar doğrulanması)
+ *
+ * Çalıştırma (surefire tarafından test olarak çalıştırılmaz). main() test classpath'i ile ayrı bir JVM'de
+ * başlatılmalıdır: @Fork(1) ile JMH, ölçüm JVM'ini java.class.path'ten kurar (exec:java'da bu Maven'ın
+ * classpath'idir ve benchmark sınıfları bulunamaz):
+ *   mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *       "-Dexec.args=-cp %classpath com.example.pizza.config.security.UnifiedTokenProviderBenchmark"
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnifiedTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-validation-at-least-256-bits";
+
+    private UnifiedTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = new UnifiedTokenProvider(null);
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 1_800_000L);
+        ReflectionTestUtils.setField(provider, "supabaseEnabled", false);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", 10_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheTtlSeconds", 60L);
+        provider.init();
+
+        token = provider.generateAccessToken("bench@example.com", List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+    }
+
+    @Benchmark
+    public Object rebuildKeyAndParserPerCall() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public VerifiedToken verifyUncached() {
+        return provider.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken validateCached() {
+        return provider.validateToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UnifiedTokenProviderBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
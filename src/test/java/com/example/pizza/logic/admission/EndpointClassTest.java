@@ -0,0 +1,37 @@
+package com.example.pizza.logic.admission;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** EndpointClass: metod + yol ile sınıflandırma (müşteri sipariş akışı vs. personel uçları) */
+class EndpointClassTest {
+
+    @ParameterizedTest(name = "{0} {1} -> {2}")
+    @CsvSource({
+            "POST,   /api/orders,                      CHECKOUT",
+            "POST,   /api/orders/,                     CHECKOUT",
+            "GET,    /api/orders/my-orders,            CHECKOUT",
+            "GET,    /api/orders/1842,                 CHECKOUT",
+            "POST,   /api/orders/1842/cancel,          CHECKOUT",
+            "GET,    /api/orders,                      ADMIN",
+            "GET,    /api/orders/status/PREPARING,     ADMIN",
+            "PATCH,  /api/orders/1842/status,          ADMIN",
+            "PUT,    /api/orders/77/status,            ADMIN",
+            "GET,    /api/orders/admin/paged,          ADMIN",
+            "GET,    /api/orders/admin/search,         ADMIN",
+            "POST,   /api/orders/admin/reindex,        ADMIN",
+            "GET,    /api/admin/dashboard,             ADMIN",
+            "POST,   /api/product/reindex,             ADMIN",
+            "GET,    /api/product/search,              SEARCH",
+            "GET,    /api/category/search/suggest,     SEARCH",
+            "POST,   /api/payment/3ds/callback,        PAYMENT",
+            "GET,    /api/product/12,                  CATALOG",
+            "POST,   /api/auth/login,                  CATALOG",
+            "GET,    /api/ordersummary,                CATALOG"
+    })
+    void classifiesByMethodAndPath(String method, String uri, EndpointClass expected) {
+        assertThat(EndpointClass.classify(method, uri)).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.pizza.logic.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GradientConcurrencyLimit: limitin büyümesi/küçülmesi, RTT toleransı ve baskı sinyali
+ */
+class GradientConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void growsWhileUtilizedWithStableLatency() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200);
+
+        for (int round = 0; round < 20; round++) {
+            saturate(limit, FAST);
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(20);
+        assertThat(limit.getGradient()).isEqualTo(1.0);
+    }
+
+    @Test
+    void neverExceedsMaxLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 30);
+
+        for (int round = 0; round < 200; round++) {
+            saturate(limit, FAST);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(30);
+    }
+
+    @Test
+    void shrinksWhenUtilizedAndLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200);
+        for (int round = 0; round < 10; round++) {
+            saturate(limit, FAST);
+        }
+        int learned = limit.getLimit();
+
+        for (int round = 0; round < 3; round++) {
+            saturate(limit, SLOW);
+        }
+
+        assertThat(limit.getLimit()).isLessThan(learned);
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(4);
+        assertThat(limit.getGradient()).isLessThan(1.0);
+    }
+
+    @Test
+    void toleratesModerateLatencyJitter() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200);
+        for (int round = 0; round < 10; round++) {
+            saturate(limit, FAST);
+        }
+        int learned = limit.getLimit();
+
+        // %40 daha yavaş: 1.5x RTT toleransı içinde, limit küçülmez
+        for (int round = 0; round < 10; round++) {
+            saturate(limit, FAST * 14 / 10);
+        }
+
+        assertThat(limit.getGradient()).isEqualTo(1.0);
+        assertThat(limit.getLimit()).isGreaterThanOrEqualTo(learned);
+    }
+
+    @Test
+    void slowRequestsAtLowConcurrencyDoNotShrinkLimitOrSignalPressure() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 4, 200);
+        for (int i = 0; i < 50; i++) {
+            single(limit, FAST);
+        }
+
+        // Tek tük yavaş istek (ör. yavaş dış servis): latency artar ama limit kullanılmıyor
+        for (int i = 0; i < 50; i++) {
+            single(limit, SLOW);
+        }
+
+        assertThat(limit.getGradient()).isLessThan(0.8);
+        assertThat(limit.getLimit()).isEqualTo(20);
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.isUnderPressure(0.9, 0.8, WINDOW)).isFalse();
+    }
+
+    @Test
+    void signalsPressureNearLimit() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 4, 200);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.isUnderPressure(0.9, 0.8, WINDOW)).isFalse();
+
+        assertThat(limit.tryAcquire()).isTrue();
+        assertThat(limit.isUnderPressure(0.9, 0.8, WINDOW)).isTrue();
+    }
+
+    @Test
+    void signalsPressureWhenHalfUtilizedAndLatencyRises() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 10, 10);
+        for (int i = 0; i < 20; i++) {
+            single(limit, FAST);
+        }
+        for (int i = 0; i < 20; i++) {
+            single(limit, SLOW);
+        }
+
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        assertThat(limit.isUnderPressure(0.9, 0.8, WINDOW)).isFalse();
+
+        limit.tryAcquire(); // inflight 5 = limit / 2
+        assertThat(limit.isUnderPressure(0.9, 0.8, WINDOW)).isTrue();
+    }
+
+    @Test
+    void rejectsBeyondLimitAndReleasesSlots() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(4, 4, 4);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        assertThat(limit.tryAcquire()).isFalse();
+
+        limit.release(FAST);
+        assertThat(limit.getInflight()).isEqualTo(3);
+        assertThat(limit.tryAcquire()).isTrue();
+    }
+
+    /**
+     * Limit kadar slot alıp hepsini verilen süreyle bırakır (limit tam kullanılıyor)
+     */
+    private static void saturate(GradientConcurrencyLimit limit, long rttNanos) {
+        int acquired = 0;
+        while (limit.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limit.release(rttNanos);
+        }
+    }
+
+    private static void single(GradientConcurrencyLimit limit, long rttNanos) {
+        assertThat(limit.tryAcquire()).isTrue();
+        limit.release(rttNanos);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.pizza.logic.ratelimit;
+
+import com.example.pizza.config.performance.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * RateLimiter dağıtık mod: lease boyutu, lease'in yerelde harcanması, ret önbelleği, yerel fallback ve
+ * Redis kesintisinde açık devre (Redis tarafı RedisTokenBucket mock'u ile)
+ */
+class RateLimiterTest {
+
+    private RedisTokenBucket redisTokenBucket;
+    private RateLimiter rateLimiter;
+    private long clientKey;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setCapacity(100);
+        config.setRefillTokens(100);
+        config.setRefillDurationMinutes(1);
+        config.setEndpoints(Map.of("/api/auth/register", new RateLimitConfig.EndpointLimit(5, 1)));
+        config.setMode(RateLimitConfig.Mode.DISTRIBUTED);
+        config.setLeaseSize(5);
+        config.setLeaseTtlMillis(60_000);
+        config.setRedisRetryMillis(60_000);
+        config.setKeySecret("test-secret");
+
+        redisTokenBucket = mock(RedisTokenBucket.class);
+        rateLimiter = new RateLimiter(config, redisTokenBucket, new SimpleMeterRegistry());
+        rateLimiter.init();
+        clientKey = rateLimiter.userKey("user@example.com");
+    }
+
+    @Test
+    void spendsLeaseLocallyBeforeNextRedisCall() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new RedisTokenBucket.Lease(5, 90, 0));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryConsume(clientKey, "/api/product/1").consumed()).isTrue();
+        }
+        verify(redisTokenBucket, times(1)).lease(anyString(), eq(100L), eq(100L), eq(60_000L), eq(5L));
+
+        // Lease bitti: 6. istek yeni lease alır
+        assertThat(rateLimiter.tryConsume(clientKey, "/api/product/1").consumed()).isTrue();
+        verify(redisTokenBucket, times(2)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void reportsLocalLeasePlusRemoteRemaining() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new RedisTokenBucket.Lease(5, 90, 0));
+
+        assertThat(rateLimiter.tryConsume(clientKey, "/api/product/1").remainingTokens()).isEqualTo(94);
+        assertThat(rateLimiter.tryConsume(clientKey, "/api/product/1").remainingTokens()).isEqualTo(93);
+    }
+
+    @Test
+    void leaseSizeIsCappedByRouteCapacity() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new RedisTokenBucket.Lease(1, 4, 0));
+
+        rateLimiter.tryConsume(clientKey, "/api/auth/register");
+
+        // min(lease-size 5, capacity 5 / 10) en az 1: tek node bütün bucket'ı kapmaz
+        verify(redisTokenBucket).lease(anyString(), eq(5L), eq(5L), eq(60_000L), eq(1L));
+    }
+
+    @Test
+    void cachesRejectionUntilNextToken() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new RedisTokenBucket.Lease(0, 0, 30_000));
+
+        RateLimitDecision first = rateLimiter.tryConsume(clientKey, "/api/product/1");
+        RateLimitDecision second = rateLimiter.tryConsume(clientKey, "/api/product/1");
+
+        assertThat(first.consumed()).isFalse();
+        assertThat(first.nanosToWaitForRefill()).isEqualTo(30_000_000_000L);
+        assertThat(second.consumed()).isFalse();
+        assertThat(second.nanosToWaitForRefill()).isPositive().isLessThanOrEqualTo(30_000_000_000L);
+        verify(redisTokenBucket, times(1)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void separatesBucketsPerClientAndRoute() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(new RedisTokenBucket.Lease(5, 90, 0));
+
+        rateLimiter.tryConsume(clientKey, "/api/product/1");
+        rateLimiter.tryConsume(rateLimiter.userKey("other@example.com"), "/api/product/1");
+        rateLimiter.tryConsume(clientKey, "/api/auth/register");
+
+        verify(redisTokenBucket, times(3)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void fallsBackToLocalBucketWhenRedisFails() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        RateLimitDecision decision = rateLimiter.tryConsume(clientKey, "/api/auth/register");
+
+        assertThat(decision.consumed()).isTrue();
+        assertThat(decision.remainingTokens()).isEqualTo(4);
+    }
+
+    @Test
+    void skipsRedisWhileCircuitIsOpen() {
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        long otherClient = rateLimiter.ipKey("203.0.113.7");
+        for (int i = 0; i < 20; i++) {
+            rateLimiter.tryConsume(i % 2 == 0 ? clientKey : otherClient, "/api/product/" + i);
+        }
+
+        // Sadece ilk hata Redis'e gitti; sonraki istekler (başka istemci dahil) yerel bucket'tan karar aldı
+        verify(redisTokenBucket, times(1)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void retriesRedisAfterCircuitWindow() throws InterruptedException {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setMode(RateLimitConfig.Mode.DISTRIBUTED);
+        config.setRedisRetryMillis(500);
+        config.setKeySecret("another-secret");
+        RateLimiter limiter = new RateLimiter(config, redisTokenBucket, new SimpleMeterRegistry());
+        limiter.init();
+        long key = limiter.ipKey("198.51.100.20");
+
+        when(redisTokenBucket.lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new IllegalStateException("redis down"))
+                .thenReturn(new RedisTokenBucket.Lease(5, 40, 0));
+
+        limiter.tryConsume(key, "/api/category");
+        limiter.tryConsume(key, "/api/category");
+        verify(redisTokenBucket, times(1)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+
+        Thread.sleep(600);
+        assertThat(limiter.tryConsume(key, "/api/category").remainingTokens()).isEqualTo(44);
+        verify(redisTokenBucket, times(2)).lease(anyString(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void distributedModeRequiresKeySecret() {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setMode(RateLimitConfig.Mode.DISTRIBUTED);
+        config.setKeySecret("  ");
+        RateLimiter limiter = new RateLimiter(config, redisTokenBucket, new SimpleMeterRegistry());
+
+        assertThatThrownBy(limiter::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.rate-limit.key-secret");
+
+        // Yerel modda node'a özel secret yeterli
+        config.setMode(RateLimitConfig.Mode.LOCAL);
+        RateLimiter local = new RateLimiter(config, redisTokenBucket, new SimpleMeterRegistry());
+        local.init();
+        assertThat(local.ipKey("192.0.2.44")).isEqualTo(local.ipKey("192.0.2.44"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.pizza.logic.ratelimit;
+
+import com.example.pizza.config.performance.RateLimitConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RouteLimits: prefix/şablon eşleşmesi ve öncelik sırası
+ */
+class RouteLimitsTest {
+
+    private RouteLimits routeLimits;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, RateLimitConfig.EndpointLimit> endpoints = new LinkedHashMap<>();
+        endpoints.put("/api/auth", new RateLimitConfig.EndpointLimit(20, 1));
+        endpoints.put("/api/auth/login", new RateLimitConfig.EndpointLimit(10, 1));
+        endpoints.put("/api/orders/", new RateLimitConfig.EndpointLimit(50, 1));
+        endpoints.put("/api/orders/{id}/items", new RateLimitConfig.EndpointLimit(5, 2));
+        endpoints.put("/api/category/**", new RateLimitConfig.EndpointLimit(30, 1));
+        endpoints.put("/api/category", new RateLimitConfig.EndpointLimit(200, 1));
+
+        RateLimitConfig config = new RateLimitConfig();
+        config.setCapacity(100);
+        config.setRefillTokens(100);
+        config.setRefillDurationMinutes(1);
+        config.setEndpoints(endpoints);
+        routeLimits = new RouteLimits(config);
+    }
+
+    @Test
+    void plainPathMatchesItselfAndSubPaths() {
+        assertThat(routeLimits.resolve("/api/orders").name()).isEqualTo("/api/orders/");
+        assertThat(routeLimits.resolve("/api/orders/123").name()).isEqualTo("/api/orders/");
+        assertThat(routeLimits.resolve("/api/orders/123").capacity()).isEqualTo(50);
+    }
+
+    @Test
+    void plainPathDoesNotMatchSiblingWithSamePrefix() {
+        RouteLimits.Route route = routeLimits.resolve("/api/ordersX");
+
+        assertThat(route.id()).isZero();
+        assertThat(route.name()).isEqualTo("default");
+        assertThat(route.capacity()).isEqualTo(100);
+    }
+
+    @Test
+    void longerPrefixWins() {
+        assertThat(routeLimits.resolve("/api/auth/login").capacity()).isEqualTo(10);
+        assertThat(routeLimits.resolve("/api/auth/register").capacity()).isEqualTo(20);
+    }
+
+    @Test
+    void templateWinsOverMatchingPrefix() {
+        RouteLimits.Route route = routeLimits.resolve("/api/orders/42/items");
+
+        assertThat(route.name()).isEqualTo("/api/orders/{id}/items");
+        assertThat(route.capacity()).isEqualTo(5);
+        assertThat(route.refillPeriod()).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void wildcardTemplateWinsOverPrefixWithSameLiteral() {
+        // Literal kısımlar eşit ("/api/category"): açıkça yazılmış şablon düz yolu gölgeler
+        assertThat(routeLimits.resolve("/api/category/7").name()).isEqualTo("/api/category/**");
+        assertThat(routeLimits.resolve("/api/category").name()).isEqualTo("/api/category/**");
+    }
+
+    @Test
+    void broadWildcardDoesNotShadowLongerPrefix() {
+        Map<String, RateLimitConfig.EndpointLimit> endpoints = new LinkedHashMap<>();
+        endpoints.put("/api/**", new RateLimitConfig.EndpointLimit(300, 1));
+        endpoints.put("/api/auth/login", new RateLimitConfig.EndpointLimit(10, 1));
+        endpoints.put("/api/product/{id}", new RateLimitConfig.EndpointLimit(120, 1));
+        RouteLimits limits = withEndpoints(endpoints);
+
+        assertThat(limits.resolve("/api/auth/login").name()).isEqualTo("/api/auth/login");
+        assertThat(limits.resolve("/api/product/15").name()).isEqualTo("/api/product/{id}");
+        assertThat(limits.resolve("/api/auth/register").name()).isEqualTo("/api/**");
+        assertThat(limits.resolve("/health").id()).isZero();
+    }
+
+    @Test
+    void routesGetDistinctNonZeroIds() {
+        int login = routeLimits.resolve("/api/auth/login").id();
+        int auth = routeLimits.resolve("/api/auth/x").id();
+        int items = routeLimits.resolve("/api/orders/1/items").id();
+
+        assertThat(login).isNotZero();
+        assertThat(auth).isNotZero();
+        assertThat(items).isNotZero();
+        assertThat(login).isNotEqualTo(auth).isNotEqualTo(items);
+    }
+
+    @Test
+    void routeIdsDoNotDependOnConfigurationOrder() {
+        Map<String, RateLimitConfig.EndpointLimit> forward = new LinkedHashMap<>();
+        forward.put("/api/auth/login", new RateLimitConfig.EndpointLimit(10, 1));
+        forward.put("/api/product", new RateLimitConfig.EndpointLimit(200, 1));
+        forward.put("/api/orders/{id}", new RateLimitConfig.EndpointLimit(40, 1));
+
+        Map<String, RateLimitConfig.EndpointLimit> reversed = new LinkedHashMap<>();
+        reversed.put("/api/orders/{id}", new RateLimitConfig.EndpointLimit(40, 1));
+        reversed.put("/api/product", new RateLimitConfig.EndpointLimit(200, 1));
+        reversed.put("/api/auth/login", new RateLimitConfig.EndpointLimit(10, 1));
+
+        RouteLimits nodeA = withEndpoints(forward);
+        RouteLimits nodeB = withEndpoints(reversed);
+
+        for (String uri : new String[]{"/api/auth/login", "/api/product/9", "/api/orders/77", "/api/unknown"}) {
+            assertThat(nodeA.resolve(uri).id()).as(uri).isEqualTo(nodeB.resolve(uri).id());
+        }
+        assertThat(nodeA.resolve("/api/product/9").id()).isEqualTo(RouteLimits.routeId("/api/product"));
+    }
+
+    private static RouteLimits withEndpoints(Map<String, RateLimitConfig.EndpointLimit> endpoints) {
+        RateLimitConfig config = new RateLimitConfig();
+        config.setEndpoints(endpoints);
+        return new RouteLimits(config);
+    }
+}
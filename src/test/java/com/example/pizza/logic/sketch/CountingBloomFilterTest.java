@@ -0,0 +1,93 @@
+package com.example.pizza.logic.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CountingBloomFilter: ekleme/silme, sayaç doygunluğu ve boyutlandırma
+ */
+class CountingBloomFilterTest {
+
+    @Test
+    void removeDecrementsCountersBackToEmpty() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+
+        filter.add("jti-1");
+        assertThat(filter.mightContain("jti-1")).isTrue();
+
+        filter.remove("jti-1");
+        assertThat(filter.mightContain("jti-1")).isFalse();
+    }
+
+    @Test
+    void removingOneElementKeepsOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+        for (int i = 0; i < 500; i++) {
+            filter.add("jti-" + i);
+        }
+
+        for (int i = 0; i < 250; i++) {
+            filter.remove("jti-" + i);
+        }
+
+        // Kalan elemanlar için false negative olmamalı
+        for (int i = 250; i < 500; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void duplicateAddsNeedMatchingRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+
+        filter.add("jti-1");
+        filter.add("jti-1");
+        filter.remove("jti-1");
+        assertThat(filter.mightContain("jti-1")).isTrue();
+
+        filter.remove("jti-1");
+        assertThat(filter.mightContain("jti-1")).isFalse();
+    }
+
+    @Test
+    void saturatedCountersAreNeverDecremented() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.001);
+
+        for (int i = 0; i < 300; i++) {
+            filter.add("hot");
+        }
+        // 255'te doygun kalan sayaçlar kaç kez silinirse silinsin sıfırlanmaz (false negative yerine false positive)
+        for (int i = 0; i < 300; i++) {
+            filter.remove("hot");
+        }
+        assertThat(filter.mightContain("hot")).isTrue();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("member-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300); // hedef %1, 3x pay
+    }
+
+    @Test
+    void sizesCountersFromExpectedInsertions() {
+        CountingBloomFilter filter = new CountingBloomFilter(100_000, 0.001);
+
+        assertThat(filter.size()).isBetween(1_400_000, 1_500_000);
+        assertThat(filter.hashFunctions()).isEqualTo(10);
+        assertThatThrownBy(() -> new CountingBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountingBloomFilter(10, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.pizza.service.logic;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Revocation: Redis yazma/okuma hatalarında token'ın kabul edilmemesi (fail-closed) */
+@ExtendWith(MockitoExtension.class)
+class AccessTokenRevocationServiceTest {
+
+    private static final String JTI = "7f1c2d9e-jti";
+
+    @Mock
+    private StringRedisTemplate redis;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private ValueOperations<String, String> values;
+
+    @Test
+    void tokenStaysRevokedWhenRedisWriteFails() {
+        AccessTokenRevocationService service = startedWithEmptyRedis();
+        when(redis.opsForValue()).thenReturn(values);
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(values).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+
+        assertThatThrownBy(() -> service.revoke(JTI, Instant.now().plusSeconds(600)))
+                .isInstanceOf(IllegalStateException.class);
+
+        // Yerel iptal kesindir: Redis'te anahtar olmasa da token reddedilir
+        assertThat(service.isRevoked(JTI)).isTrue();
+        verify(redis, never()).hasKey(anyString());
+    }
+
+    @Test
+    void revocationFromAnotherNodeIsAppliedWithoutRedisLookup() {
+        AccessTokenRevocationService service = startedWithEmptyRedis();
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(ChannelTopic.class));
+
+        long expiresAt = Instant.now().plusSeconds(300).toEpochMilli();
+        byte[] body = (expiresAt + ":" + JTI).getBytes(StandardCharsets.UTF_8);
+        listener.getValue().onMessage(new DefaultMessage("pizza:auth:revoked-jti:changed".getBytes(), body), null);
+
+        assertThat(service.isRevoked(JTI)).isTrue();
+        assertThat(service.isRevoked("other-jti")).isFalse();
+        verify(redis, never()).hasKey(anyString());
+    }
+
+    @Test
+    void failedStartupLoadChecksEveryTokenInRedisUntilLoaded() {
+        when(redis.scan(any(ScanOptions.class))).thenThrow(new RedisConnectionFailureException("down"));
+        AccessTokenRevocationService service = newService();
+        service.init();
+
+        // Filtre eksik: Bloom miss'i "iptal değil" sayılmaz
+        when(redis.hasKey("pizza:auth:revoked-jti:" + JTI)).thenReturn(true);
+        assertThat(service.isRevoked(JTI)).isTrue();
+
+        when(redis.hasKey("pizza:auth:revoked-jti:fresh")).thenThrow(new RedisConnectionFailureException("down"));
+        assertThat(service.isRevoked("fresh")).isTrue();
+
+        // Redis geri geldi: purge turunda yükleme tamamlanır, sonrasında miss'ler Redis'e gitmez
+        Cursor<String> empty = emptyCursor();
+        when(redis.scan(any(ScanOptions.class))).thenReturn(empty);
+        service.purgeExpired();
+
+        assertThat(service.isRevoked("never-revoked")).isFalse();
+        verify(redis, never()).hasKey(eq("pizza:auth:revoked-jti:never-revoked"));
+    }
+
+    private AccessTokenRevocationService startedWithEmptyRedis() {
+        Cursor<String> empty = emptyCursor();
+        when(redis.scan(any(ScanOptions.class))).thenReturn(empty);
+        AccessTokenRevocationService service = newService();
+        service.init();
+        return service;
+    }
+
+    private AccessTokenRevocationService newService() {
+        return new AccessTokenRevocationService(redis, listenerContainer, 1_000, 0.01, new SimpleMeterRegistry());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> emptyCursor() {
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(false);
+        return cursor;
+    }
+}
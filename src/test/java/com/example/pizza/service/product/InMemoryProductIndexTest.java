@@ -0,0 +1,88 @@
+package com.example.pizza.service.product;
+
+import com.example.pizza.dto.product.ProductResponse;
+import com.example.pizza.entity.category.Category;
+import com.example.pizza.entity.product.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** InMemoryProductIndex: substring arama, artımlı güncelleme ve columnar filtreler */
+class InMemoryProductIndexTest {
+
+    private InMemoryProductIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryProductIndex(null);
+        index.upsertAll(List.of(
+                product(1L, "Margherita Pizza", "domates, mozzarella", 120.0, 10, 7L),
+                product(2L, "Pepperoni Pizza", "acılı sucuk", 150.0, 0, 7L),
+                product(3L, "Ayran", "yoğurt içeceği", 25.0, 40, 9L)));
+    }
+
+    @Test
+    void tokenMatchesAnywhereInsideTerms() {
+        assertThat(ids(index.search("izz", null, null, null, null, Pageable.unpaged()))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("zarel", null, null, null, null, Pageable.unpaged()))).containsExactly(1L);
+        assertThat(ids(index.search("pizza sucuk", null, null, null, null, Pageable.unpaged()))).containsExactly(2L);
+    }
+
+    @Test
+    void filtersAndSortUseColumns() {
+        var page = index.search(null, 7L, 100.0, 200.0, true, Pageable.unpaged());
+        assertThat(ids(page)).containsExactly(1L);
+
+        var byPrice = index.search(null, null, null, null, null,
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "price")));
+        assertThat(byPrice.getTotalElements()).isEqualTo(3);
+        assertThat(ids(byPrice)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void updatesReplaceOnlyTheChangedProduct() {
+        index.upsert(product(1L, "Margherita", "fesleğen", 130.0, 10, 7L));
+        index.updateStock(2L, 5);
+        index.remove(3L);
+
+        assertThat(ids(index.search("mozzarella", null, null, null, null, Pageable.unpaged()))).isEmpty();
+        assertThat(ids(index.search("fesle", null, null, null, null, Pageable.unpaged()))).containsExactly(1L);
+        assertThat(ids(index.search("pizza", null, null, null, true, Pageable.unpaged()))).containsExactly(2L);
+        assertThat(ids(index.search("ayran", null, null, null, null, Pageable.unpaged()))).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void renameCategoryKeepsDocumentsSearchable() {
+        index.renameCategory(7L, "Pizzalar");
+
+        var page = index.search("pizza", 7L, null, null, null, Pageable.unpaged());
+        assertThat(page.getContent()).extracting(ProductResponse::categoryName).containsOnly("Pizzalar");
+    }
+
+    private static List<Long> ids(Page<ProductResponse> page) {
+        return page.getContent().stream().map(ProductResponse::id).toList();
+    }
+
+    private static Product product(Long id, String name, String description, double price, int stock, Long categoryId) {
+        Category category = new Category();
+        category.setId(categoryId);
+        category.setName("Kategori " + categoryId);
+
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setCategory(category);
+        return product;
+    }
+}
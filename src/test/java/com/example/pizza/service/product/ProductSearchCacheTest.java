@@ -0,0 +1,72 @@
+package com.example.pizza.service.product;
+
+import com.example.pizza.dto.product.ProductSearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** ProductSearchCache: hit/miss metrikleri ve eş yüklemeyi bekleme süresi */
+class ProductSearchCacheTest {
+
+    private static final ProductSearchResult RESULT = new ProductSearchResult(List.of(), 42, null);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void hitsAndMissesAreRecorded() {
+        ProductSearchCache cache = new ProductSearchCache(100, 60, 500, registry);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("v1|pizza", () -> { loads.incrementAndGet(); return RESULT; });
+        cache.get("v1|pizza", () -> { loads.incrementAndGet(); return RESULT; });
+        cache.get("v1|pizza", () -> { loads.incrementAndGet(); return RESULT; });
+
+        assertThat(loads).hasValue(1);
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void concurrentCallerStopsWaitingForSlowLoad() throws Exception {
+        ProductSearchCache cache = new ProductSearchCache(100, 60, 50, registry);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProductSearchResult> slow = executor.submit(() -> cache.get("v1|slow", () -> {
+                loading.countDown();
+                awaitQuietly(release);
+                return RESULT;
+            }));
+            assertThat(loading.await(1, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            assertThat(cache.get("v1|slow", () -> RESULT)).isNull();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+            release.countDown();
+            assertThat(slow.get(1, TimeUnit.SECONDS)).isEqualTo(RESULT);
+            assertThat(cache.getIfPresent("v1|slow")).isEqualTo(RESULT);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}